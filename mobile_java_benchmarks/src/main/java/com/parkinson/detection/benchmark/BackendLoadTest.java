@@ -0,0 +1,258 @@
+package com.parkinson.detection.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop load generator for a running backend.
+ *
+ * Each simulated mobile client logs in once, then loops until the run ends, issuing
+ * a mix of history pages, session uploads and fresh logins. Uploads and history
+ * pages wait on JDBC, logins on BCrypt, which is where platform request threads
+ * spend their time. Run it once against the default profile and once against the
+ * {@code virtual} profile with the same client count to compare throughput, latency
+ * percentiles and the number of requests shed with 503.
+ *
+ * Options are passed as {@code key=value} arguments, see {@link Settings}.
+ */
+public final class BackendLoadTest {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    private final Settings settings;
+    private final HttpClient http;
+
+    private BackendLoadTest(Settings settings) {
+        this.settings = settings;
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()), task -> {
+                    Thread thread = new Thread(task, "load-test-http");
+                    thread.setDaemon(true);
+                    return thread;
+                }))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.parse(args);
+        new BackendLoadTest(settings).run();
+    }
+
+    private void run() throws Exception {
+        System.out.printf(Locale.ROOT, "%d clients for %d s against %s%n",
+                settings.clients, settings.seconds, settings.baseUrl);
+
+        // Warm the server up before measuring
+        String token = login();
+        List<Client> clients = new ArrayList<>(settings.clients);
+        for (int i = 0; i < settings.clients; i++) {
+            clients.add(new Client(token));
+        }
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(settings.warmupSeconds);
+        runClients(clients, warmupEnd);
+        clients.forEach(Client::reset);
+
+        long start = System.nanoTime();
+        runClients(clients, start + TimeUnit.SECONDS.toNanos(settings.seconds));
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        report(clients, elapsedSeconds);
+    }
+
+    private void runClients(List<Client> clients, long deadline) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(clients.size());
+        for (Client client : clients) {
+            pool.execute(() -> client.loop(deadline));
+        }
+        pool.shutdown();
+        pool.awaitTermination(settings.seconds + 120L, TimeUnit.SECONDS);
+    }
+
+    private void report(List<Client> clients, double elapsedSeconds) {
+        int total = 0;
+        int rejected = 0;
+        int failed = 0;
+        for (Client client : clients) {
+            total += client.count;
+            rejected += client.rejected;
+            failed += client.failed;
+        }
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (Client client : clients) {
+            System.arraycopy(client.latenciesNs, 0, latencies, offset, client.count);
+            offset += client.count;
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf(Locale.ROOT, "requests   %d (%.1f/s)%n", total, total / elapsedSeconds);
+        System.out.printf(Locale.ROOT, "rejected   %d (503)%n", rejected);
+        System.out.printf(Locale.ROOT, "failed     %d%n", failed);
+        System.out.printf(Locale.ROOT, "latency ms p50 %.1f  p95 %.1f  p99 %.1f  max %.1f%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.95),
+                percentile(latencies, 0.99), percentile(latencies, 1.0));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private String login() throws Exception {
+        String body = "{\"email\":\"" + settings.email + "\",\"password\":\"" + settings.password + "\"}";
+        HttpResponse<String> response = http.send(json("/auth/login").POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = TOKEN.matcher(response.body());
+        if (response.statusCode() != 200 || !matcher.find()) {
+            throw new IllegalStateException("Login failed with status " + response.statusCode());
+        }
+        return matcher.group(1);
+    }
+
+    private HttpRequest.Builder json(String path) {
+        return HttpRequest.newBuilder(URI.create(settings.baseUrl + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json");
+    }
+
+    private static String sessionJson() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder json = new StringBuilder(640)
+                .append("{\"clientId\":\"").append(UUID.randomUUID())
+                .append("\",\"timestamp\":\"").append(LocalDateTime.now())
+                .append("\",\"prediction\":").append(random.nextInt(2));
+        String[] sensors = {"accel", "gyro"};
+        String[] stats = {"Mean", "Std", "FftPeak"};
+        for (String sensor : sensors) {
+            for (String axis : new String[]{"X", "Y", "Z"}) {
+                for (String stat : stats) {
+                    json.append(",\"").append(sensor).append(axis).append(stat).append("\":")
+                            .append(random.nextDouble());
+                }
+            }
+        }
+        for (String axis : new String[]{"X", "Y", "Z"}) {
+            json.append(",\"crossCorr").append(axis).append("\":").append(random.nextDouble(-1, 1));
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * One simulated device, only ever used by a single thread
+     */
+    private final class Client {
+        private final String token;
+        private long[] latenciesNs = new long[1024];
+        private int count;
+        private int rejected;
+        private int failed;
+
+        Client(String token) {
+            this.token = token;
+        }
+
+        void reset() {
+            count = 0;
+            rejected = 0;
+            failed = 0;
+        }
+
+        void loop(long deadline) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (System.nanoTime() < deadline) {
+                double pick = random.nextDouble();
+                HttpRequest request;
+                if (pick < settings.loginRatio) {
+                    String body = "{\"email\":\"" + settings.email + "\",\"password\":\"" + settings.password + "\"}";
+                    request = json("/auth/login").POST(HttpRequest.BodyPublishers.ofString(body)).build();
+                } else if (pick < settings.loginRatio + settings.writeRatio) {
+                    request = json("/api/sessions/save")
+                            .header("Authorization", "Bearer " + token)
+                            .POST(HttpRequest.BodyPublishers.ofString(sessionJson()))
+                            .build();
+                } else {
+                    request = json("/api/sessions/scroll?size=20")
+                            .header("Authorization", "Bearer " + token)
+                            .GET()
+                            .build();
+                }
+                send(request);
+            }
+        }
+
+        private void send(HttpRequest request) {
+            long start = System.nanoTime();
+            int status;
+            try {
+                status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (Exception e) {
+                status = -1;
+            }
+            if (count == latenciesNs.length) {
+                latenciesNs = Arrays.copyOf(latenciesNs, count * 2);
+            }
+            latenciesNs[count++] = System.nanoTime() - start;
+            if (status == 503) {
+                rejected++;
+            } else if (status < 200 || status >= 300) {
+                failed++;
+            }
+        }
+    }
+
+    /**
+     * Run options, given as {@code key=value} arguments
+     */
+    private static final class Settings {
+        String baseUrl = "http://localhost:8080/api/v1";
+        String email = "loadtest@example.com";
+        String password = "LoadTest#2024";
+        int clients = 200;
+        int seconds = 60;
+        int warmupSeconds = 15;
+        double writeRatio = 0.2;
+        double loginRatio = 0.02;
+
+        static Settings parse(String[] args) {
+            Settings settings = new Settings();
+            for (String arg : args) {
+                int separator = arg.indexOf('=');
+                if (separator < 0) {
+                    throw new IllegalArgumentException("Expected key=value, got " + arg);
+                }
+                String value = arg.substring(separator + 1);
+                switch (arg.substring(0, separator)) {
+                    case "baseUrl": settings.baseUrl = value; break;
+                    case "email": settings.email = value; break;
+                    case "password": settings.password = value; break;
+                    case "clients": settings.clients = Integer.parseInt(value); break;
+                    case "seconds": settings.seconds = Integer.parseInt(value); break;
+                    case "warmupSeconds": settings.warmupSeconds = Integer.parseInt(value); break;
+                    case "writeRatio": settings.writeRatio = Double.parseDouble(value); break;
+                    case "loginRatio": settings.loginRatio = Double.parseDouble(value); break;
+                    default: throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            }
+            return settings;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.parkinson.detection.benchmark;
+
+import com.parkinson.detection.ml.FeatureExtractor;
+import com.parkinson.detection.ml.FftEngine;
+import com.parkinson.detection.ml.SlidingWindowExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feature extraction over a full recording, per rate and length.
+ *
+ * Cross-correlation is maintained incrementally during ingestion, so it is covered
+ * by {@link #ingestAndExtract} rather than benchmarked on its own.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FeatureExtractionBenchmark {
+
+    @Param({"50", "100", "200"})
+    public int rateHz;
+
+    @Param({"10", "30", "60"})
+    public int seconds;
+
+    private SyntheticTrace trace;
+    private FeatureExtractor extractor;
+    private final float[] features = new float[FeatureExtractor.FEATURE_COUNT];
+
+    private final FftEngine fftEngine = new FftEngine();
+    private double[][] fftChannels;
+    private final int[] fftLengths = new int[6];
+    private final double[] fftSampleRates = new double[6];
+    private final float[] fftMagnitudes = new float[6];
+    private final float[] fftFrequencies = new float[6];
+
+    private SlidingWindowExtractor windowExtractor;
+    private Blackhole windowSink;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) {
+        trace = SyntheticTrace.generate(rateHz, seconds, 42);
+
+        extractor = new FeatureExtractor();
+        ingest(extractor);
+
+        fftChannels = new double[6][FftEngine.paddedSize(trace.sampleCount)];
+        for (int c = 0; c < 6; c++) {
+            fftLengths[c] = trace.sampleCount;
+            fftSampleRates[c] = rateHz;
+        }
+
+        windowSink = blackhole;
+        windowExtractor = new SlidingWindowExtractor((index, windowFeatures) -> windowSink.consume(windowFeatures));
+    }
+
+    private void ingest(FeatureExtractor target) {
+        for (int i = 0; i < trace.sampleCount; i++) {
+            target.addAccelerometerData(trace.accelTimestamps[i],
+                    trace.accel[0][i], trace.accel[1][i], trace.accel[2][i]);
+            target.addGyroscopeData(trace.gyroTimestamps[i],
+                    trace.gyro[0][i], trace.gyro[1][i], trace.gyro[2][i]);
+        }
+    }
+
+    /**
+     * Whole recording path: stream every sample in, then extract once
+     */
+    @Benchmark
+    public float[] ingestAndExtract() {
+        extractor.clear();
+        ingest(extractor);
+        extractor.extractFeatures(features);
+        return features;
+    }
+
+    /**
+     * Extraction alone on an already filled extractor
+     */
+    @Benchmark
+    public float[] extractFeatures() {
+        extractor.extractFeatures(features);
+        return features;
+    }
+
+    /**
+     * Spectral peaks of the six channels, including the copy into the scratch arrays
+     * that the in-place transform needs
+     */
+    @Benchmark
+    public float[] fftPeaks() {
+        for (int axis = 0; axis < 3; axis++) {
+            copy(trace.accel[axis], fftChannels[axis]);
+            copy(trace.gyro[axis], fftChannels[3 + axis]);
+        }
+        fftEngine.computePeaks(fftChannels, fftLengths, fftSampleRates, fftMagnitudes, fftFrequencies);
+        return fftMagnitudes;
+    }
+
+    private static void copy(float[] source, double[] target) {
+        for (int i = 0; i < source.length; i++) {
+            target[i] = source[i];
+        }
+    }
+
+    /**
+     * Live scoring path: stream the recording through overlapping windows
+     */
+    @Benchmark
+    public long slidingWindows() {
+        windowExtractor.clear();
+        for (int i = 0; i < trace.sampleCount; i++) {
+            windowExtractor.addAccelerometerData(trace.accelTimestamps[i],
+                    trace.accel[0][i], trace.accel[1][i], trace.accel[2][i]);
+            windowExtractor.addGyroscopeData(trace.gyroTimestamps[i],
+                    trace.gyro[0][i], trace.gyro[1][i], trace.gyro[2][i]);
+        }
+        return windowExtractor.getWindowCount();
+    }
+}
@@ -0,0 +1,80 @@
+package com.parkinson.detection.benchmark;
+
+import com.parkinson.detection.ml.DenseNetwork;
+import com.parkinson.detection.ml.FeatureExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Model evaluation as done by ParkinsonDetectionModel.predict when the exported
+ * dense weights are bundled. The TFLite fallback needs the Android runtime and is
+ * not covered here.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class InferenceBenchmark {
+
+    private static final int BATCH_SIZE = 64;
+
+    private DenseNetwork network;
+    private float[] row;
+    private float[] batch;
+    private float[] output;
+    private float[] scratchA;
+    private float[] scratchB;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        try (InputStream in = InferenceBenchmark.class.getResourceAsStream("/parkinsons_model.dense")) {
+            if (in == null) {
+                throw new IOException("parkinsons_model.dense is missing from the benchmark classpath");
+            }
+            network = DenseNetwork.read(in);
+        }
+
+        Random random = new Random(42);
+        row = new float[FeatureExtractor.FEATURE_COUNT];
+        batch = new float[BATCH_SIZE * FeatureExtractor.FEATURE_COUNT];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = (float) random.nextGaussian();
+        }
+        System.arraycopy(batch, 0, row, 0, row.length);
+
+        output = new float[BATCH_SIZE];
+        scratchA = new float[BATCH_SIZE * network.maxWidth()];
+        scratchB = new float[BATCH_SIZE * network.maxWidth()];
+    }
+
+    @Benchmark
+    public float predict() {
+        network.evaluate(row, 1, output, scratchA, scratchB);
+        return output[0];
+    }
+
+    /**
+     * One batch of {@value #BATCH_SIZE} rows; divide by the batch size for the cost per row
+     */
+    @Benchmark
+    public float[] predictBatch64() {
+        network.evaluate(batch, BATCH_SIZE, output, scratchA, scratchB);
+        return output;
+    }
+}
@@ -0,0 +1,9 @@
+// Platform-neutral signal processing and model evaluation shared by the app and the backend
+plugins {
+    `java-library`
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
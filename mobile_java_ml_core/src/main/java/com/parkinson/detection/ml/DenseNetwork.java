@@ -0,0 +1,181 @@
+package com.parkinson.detection.ml;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pure-Java evaluator for the exported dense network.
+ *
+ * The weights come from the {@code .dense} file written by
+ * {@code export_dense_model.py}: a chain of fully connected layers (batch norm
+ * already folded in) with an optional sigmoid on the output. Weights are kept as
+ * flat row-major {@code [outputs][inputs]} float arrays. No native library is
+ * involved, so loading is a plain stream read and the class runs on any JVM.
+ */
+public class DenseNetwork {
+
+    private static final int MAGIC = 0x4E4E4450; // "PDNN" read little-endian
+    private static final int VERSION = 1;
+
+    public static final int ACTIVATION_NONE = 0;
+    public static final int ACTIVATION_RELU = 1;
+
+    /**
+     * One fully connected layer: y = activation(W x + b)
+     */
+    public static final class Layer {
+        final int inputs;
+        final int outputs;
+        final float[] weights;
+        final float[] bias;
+        final int activation;
+
+        public Layer(int inputs, int outputs, float[] weights, float[] bias, int activation) {
+            if (weights.length != inputs * outputs || bias.length != outputs) {
+                throw new IllegalArgumentException("Layer weights do not match " + outputs + "x" + inputs);
+            }
+            if (activation != ACTIVATION_NONE && activation != ACTIVATION_RELU) {
+                throw new IllegalArgumentException("Unsupported activation " + activation);
+            }
+            this.inputs = inputs;
+            this.outputs = outputs;
+            this.weights = weights;
+            this.bias = bias;
+            this.activation = activation;
+        }
+    }
+
+    private final Layer[] layers;
+    private final boolean sigmoidOutput;
+    private final int maxWidth;
+
+    public DenseNetwork(List<Layer> layers, boolean sigmoidOutput) {
+        if (layers.isEmpty()) {
+            throw new IllegalArgumentException("Network needs at least one layer");
+        }
+        this.layers = layers.toArray(new Layer[0]);
+        this.sigmoidOutput = sigmoidOutput;
+
+        int width = this.layers[0].inputs;
+        for (int i = 0; i < this.layers.length; i++) {
+            if (i > 0 && this.layers[i].inputs != this.layers[i - 1].outputs) {
+                throw new IllegalArgumentException("Layer " + i + " input does not match previous output");
+            }
+            width = Math.max(width, this.layers[i].outputs);
+        }
+        this.maxWidth = width;
+    }
+
+    /**
+     * Read a network from the {@code .dense} format
+     */
+    public static DenseNetwork read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        byte[] header = new byte[16];
+        in.readFully(header);
+        ByteBuffer headerBuffer = ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN);
+        if (headerBuffer.getInt() != MAGIC) {
+            throw new IOException("Not a dense model file");
+        }
+        int version = headerBuffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported dense model version " + version);
+        }
+        int layerCount = headerBuffer.getInt();
+        boolean sigmoid = headerBuffer.getInt() == 1;
+
+        List<Layer> layers = new ArrayList<>(layerCount);
+        byte[] layerHeader = new byte[12];
+        for (int l = 0; l < layerCount; l++) {
+            in.readFully(layerHeader);
+            ByteBuffer layerBuffer = ByteBuffer.wrap(layerHeader).order(ByteOrder.LITTLE_ENDIAN);
+            int inputs = layerBuffer.getInt();
+            int outputs = layerBuffer.getInt();
+            int activation = layerBuffer.getInt();
+            float[] weights = readFloats(in, inputs * outputs);
+            float[] bias = readFloats(in, outputs);
+            layers.add(new Layer(inputs, outputs, weights, bias, activation));
+        }
+        return new DenseNetwork(layers, sigmoid);
+    }
+
+    private static float[] readFloats(DataInputStream in, int count) throws IOException {
+        byte[] bytes = new byte[count * 4];
+        in.readFully(bytes);
+        float[] values = new float[count];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(values);
+        return values;
+    }
+
+    public int inputSize() {
+        return layers[0].inputs;
+    }
+
+    public int outputSize() {
+        return layers[layers.length - 1].outputs;
+    }
+
+    /**
+     * Widest activation vector, used to size scratch buffers
+     */
+    public int maxWidth() {
+        return maxWidth;
+    }
+
+    /**
+     * Evaluate {@code rows} input rows.
+     *
+     * @param input Row-major input, rows * inputSize() values
+     * @param rows Number of rows
+     * @param output Row-major output, rows * outputSize() values
+     * @param scratchA Scratch of at least rows * maxWidth() values
+     * @param scratchB Scratch of at least rows * maxWidth() values
+     */
+    public void evaluate(float[] input, int rows, float[] output, float[] scratchA, float[] scratchB) {
+        float[] source = input;
+        for (int l = 0; l < layers.length; l++) {
+            boolean last = l == layers.length - 1;
+            float[] target = last ? output : (source == scratchA ? scratchB : scratchA);
+            applyLayer(layers[l], source, rows, target);
+            source = target;
+        }
+
+        if (sigmoidOutput) {
+            int size = rows * outputSize();
+            for (int i = 0; i < size; i++) {
+                output[i] = (float) (1.0 / (1.0 + Math.exp(-output[i])));
+            }
+        }
+    }
+
+    /**
+     * Multiply-add loop over one layer. Products and sums stay in float and are
+     * accumulated bias first, then input by input, so the result is reproducible
+     * across JVMs and ART and matches verify_dense_model.py bit for bit.
+     */
+    private static void applyLayer(Layer layer, float[] source, int rows, float[] target) {
+        int inputs = layer.inputs;
+        int outputs = layer.outputs;
+        float[] weights = layer.weights;
+        float[] bias = layer.bias;
+        boolean relu = layer.activation == ACTIVATION_RELU;
+
+        for (int r = 0; r < rows; r++) {
+            int in = r * inputs;
+            int out = r * outputs;
+            for (int o = 0; o < outputs; o++) {
+                int w = o * inputs;
+                float acc = bias[o];
+                for (int i = 0; i < inputs; i++) {
+                    acc += weights[w + i] * source[in + i];
+                }
+                target[out + o] = relu && acc < 0 ? 0 : acc;
+            }
+        }
+    }
+}
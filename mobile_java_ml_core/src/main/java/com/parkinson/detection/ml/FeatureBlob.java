@@ -0,0 +1,63 @@
+package com.parkinson.detection.ml;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Storage format of the session features: one little-endian {@code float} per feature,
+ * in {@link FeatureExtractor} order, packed into a single blob.
+ *
+ * A missing feature is stored as NaN. Blobs carry no header; the schema version is
+ * stored next to them, and a blob written under an older schema may simply be shorter,
+ * in which case the features it lacks read as missing. New features are appended, so
+ * adding one changes neither the database schema nor existing rows.
+ *
+ * Order: accel mean x/y/z, accel std x/y/z, gyro mean x/y/z, gyro std x/y/z,
+ * accel FFT peak x/y/z, gyro FFT peak x/y/z, cross-correlation x/y/z.
+ */
+public final class FeatureBlob {
+
+    /** Layout written by {@link #encode}; bump when features are appended */
+    public static final int SCHEMA_VERSION = 1;
+
+    private FeatureBlob() {
+    }
+
+    public static byte[] encode(float[] features) {
+        ByteBuffer buffer = ByteBuffer.allocate(features.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(features);
+        return buffer.array();
+    }
+
+    /**
+     * Encode boxed values, storing null as NaN
+     */
+    public static byte[] encode(Double... features) {
+        float[] values = new float[features.length];
+        for (int i = 0; i < features.length; i++) {
+            values[i] = features[i] == null ? Float.NaN : features[i].floatValue();
+        }
+        return encode(values);
+    }
+
+    /**
+     * Read a blob in place, without copying it
+     *
+     * @return Float view over the blob, one element per stored feature
+     */
+    public static FloatBuffer view(byte[] blob) {
+        return ByteBuffer.wrap(blob).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+    }
+
+    /**
+     * @return The feature at {@code index}, or null if it is missing or was not stored
+     */
+    public static Double valueAt(FloatBuffer view, int index) {
+        if (index >= view.limit()) {
+            return null;
+        }
+        float value = view.get(index);
+        return Float.isNaN(value) ? null : (double) value;
+    }
+}
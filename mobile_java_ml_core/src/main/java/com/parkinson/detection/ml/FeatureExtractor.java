@@ -0,0 +1,325 @@
+package com.parkinson.detection.ml;
+
+/**
+ * Utility class to extract features from accelerometer and gyroscope sensor data.
+ *
+ * Raw samples first pass through a {@link SensorResampler}, which uses their
+ * nanosecond timestamps to interpolate both sensors onto one fixed-rate grid, so
+ * every feature is computed on aligned, uniformly sampled signals whatever rate and
+ * jitter the device delivers. Grid frames are streamed into preallocated
+ * {@link SensorRingBuffer}s. Means and standard deviations are Welford running
+ * statistics and the accelerometer/gyroscope cross-correlations are maintained as
+ * running co-moments, so those 15 features cost O(1) at extraction time. FFT peaks
+ * are computed by a shared {@link FftEngine} working on preallocated scratch arrays.
+ *
+ * Every feature covers the same frames: the last {@code capacity} grid frames. For
+ * recordings shorter than the window that is the whole recording; beyond it the
+ * oldest frames leave the statistics and the spectrum together, so the feature
+ * vector never mixes two time spans.
+ *
+ * Samples are fed as primitives (timestamp in nanoseconds plus three axes), so the
+ * class has no platform dependency and runs the same on Android and on the server.
+ */
+public class FeatureExtractor {
+    
+    // Constants for feature normalization (from training data)
+    public static final float[] FEATURE_MEANS = {
+            2.16451445e-03F, 4.34967010e-03F, 6.17531195e-04F,  // accel_x_mean, accel_y_mean, accel_z_mean
+            7.76659989e-01F, 8.90769845e-01F, 7.51154485e-01F,    // accel_x_std, accel_y_std, accel_z_std
+            -4.49073831e-05F, 4.78739464e-04F, 1.99448259e-03F,    // gyro_x_mean, gyro_y_mean, gyro_z_mean
+            5.53282868e-01F, 6.29934365e-01F, 4.74331566e-01F, // gyro_x_std, gyro_y_std, gyro_z_std
+            7.80763320e+00F, 7.77254842e+00F, 7.70679030e+00F,    // accel_x_fft_peak, accel_y_fft_peak, accel_z_fft_peak
+            7.73052468e+00F, 7.77779237e+00F, 7.74355218e+00F,    // gyro_x_fft_peak, gyro_y_fft_peak, gyro_z_fft_peak
+            6.38417917e-01F, 5.87826023e-01F, 6.62068710e-01F     // cross_corr_x, cross_corr_y, cross_corr_z
+    };
+    
+    public static final float[] FEATURE_STDS = {
+            0.09279512F, 0.12847095F, 0.09247015F,    // accel_x_mean, accel_y_mean, accel_z_mean
+            0.41559714F, 0.49850243F, 0.45241221F,    // accel_x_std, accel_y_std, accel_z_std
+            0.04470217F, 0.04561358F, 0.04507193F,    // gyro_x_mean, gyro_y_mean, gyro_z_mean
+            0.34681894F, 0.36963002F, 0.31590781F,    // gyro_x_std, gyro_y_std, gyro_z_std
+            2.55606792F, 2.48898691F, 2.48891113F,    // accel_x_fft_peak, accel_y_fft_peak, accel_z_fft_peak
+            2.50131653F, 2.51043773F, 2.47561772F,    // gyro_x_fft_peak, gyro_y_fft_peak, gyro_z_fft_peak
+            0.2045824F, 0.25516114F, 0.19698866F     // cross_corr_x, cross_corr_y, cross_corr_z
+    };
+    
+    // Default window: ~5.5 minutes on the default 50Hz grid
+    public static final int DEFAULT_CAPACITY = 16384;
+    
+    // Shortest recording that can be scored
+    private static final double MIN_DURATION_SECONDS = 1.0;
+    
+    public static final int FEATURE_COUNT = 21;
+    
+    private final SensorResampler resampler;
+    private final long minFrames;
+    private final int capacity;
+    
+    // Resampled frames, both buffers share the grid timestamps
+    private final SensorRingBuffer accelBuffer;
+    private final SensorRingBuffer gyroBuffer;
+    
+    // Running co-moments over the aligned accelerometer/gyroscope frames
+    private long pairedCount;
+    private final double[] pairMeanAccel = new double[3];
+    private final double[] pairMeanGyro = new double[3];
+    private final double[] pairM2Accel = new double[3];
+    private final double[] pairM2Gyro = new double[3];
+    private final double[] pairCoMoment = new double[3];
+    
+    // FFT scratch, channels ordered accel X/Y/Z then gyro X/Y/Z
+    private final FftEngine fftEngine = new FftEngine();
+    private final double[][] fftChannels;
+    private final int[] fftLengths = new int[6];
+    private final double[] fftSampleRates = new double[6];
+    private final float[] fftPeakMagnitudes = new float[6];
+    private final float[] fftPeakFrequencies = new float[6];
+    
+    public FeatureExtractor() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * @param capacity Number of grid frames every feature is computed over
+     */
+    public FeatureExtractor(int capacity) {
+        this(capacity, SensorResampler.DEFAULT_RATE_HZ);
+    }
+    
+    /**
+     * @param capacity Number of grid frames every feature is computed over
+     * @param rateHz Rate of the grid both sensors are resampled onto
+     */
+    public FeatureExtractor(int capacity, double rateHz) {
+        this.capacity = capacity;
+        resampler = new SensorResampler(rateHz, this::addFrame);
+        minFrames = (long) Math.ceil(MIN_DURATION_SECONDS * rateHz);
+        accelBuffer = new SensorRingBuffer(capacity);
+        gyroBuffer = new SensorRingBuffer(capacity);
+        fftChannels = new double[6][FftEngine.paddedSize(capacity)];
+    }
+    
+    /**
+     * Add an accelerometer sample
+     * 
+     * @param timestampNs Sensor timestamp in nanoseconds, used for resampling
+     */
+    public void addAccelerometerData(long timestampNs, float x, float y, float z) {
+        resampler.addAccelerometer(timestampNs, x, y, z);
+    }
+    
+    /**
+     * Add a gyroscope sample
+     * 
+     * @param timestampNs Sensor timestamp in nanoseconds, used for resampling
+     */
+    public void addGyroscopeData(long timestampNs, float x, float y, float z) {
+        resampler.addGyroscope(timestampNs, x, y, z);
+    }
+    
+    /**
+     * Store one aligned grid frame and fold it into the co-moments
+     */
+    private void addFrame(long timestampNs, float accelX, float accelY, float accelZ,
+                          float gyroX, float gyroY, float gyroZ) {
+        // The frame about to be overwritten leaves the co-moments with the window
+        if (pairedCount >= capacity) {
+            long oldest = pairedCount - capacity;
+            for (int axis = 0; axis < 3; axis++) {
+                removePair(axis, accelBuffer.get(axis, oldest), gyroBuffer.get(axis, oldest));
+            }
+        }
+        accelBuffer.add(timestampNs, accelX, accelY, accelZ);
+        gyroBuffer.add(timestampNs, gyroX, gyroY, gyroZ);
+        
+        pairedCount++;
+        int n = (int) Math.min(pairedCount, capacity);
+        for (int axis = 0; axis < 3; axis++) {
+            double a = accelBuffer.get(axis, pairedCount - 1);
+            double g = gyroBuffer.get(axis, pairedCount - 1);
+            double deltaAccel = a - pairMeanAccel[axis];
+            double deltaGyro = g - pairMeanGyro[axis];
+            pairMeanAccel[axis] += deltaAccel / n;
+            pairMeanGyro[axis] += deltaGyro / n;
+            pairM2Accel[axis] += deltaAccel * (a - pairMeanAccel[axis]);
+            pairM2Gyro[axis] += deltaGyro * (g - pairMeanGyro[axis]);
+            pairCoMoment[axis] += deltaAccel * (g - pairMeanGyro[axis]);
+        }
+        
+        // Once per wrap, recompute exactly so rounding from the removals cannot build up
+        if (pairedCount > capacity && pairedCount % capacity == 0) {
+            recomputePairs();
+        }
+    }
+    
+    /**
+     * Inverse of the co-moment update, the window holds {@code capacity} frames before the call
+     */
+    private void removePair(int axis, double a, double g) {
+        if (capacity == 1) {
+            pairMeanAccel[axis] = 0;
+            pairMeanGyro[axis] = 0;
+            pairM2Accel[axis] = 0;
+            pairM2Gyro[axis] = 0;
+            pairCoMoment[axis] = 0;
+            return;
+        }
+        double previousMeanAccel = (capacity * pairMeanAccel[axis] - a) / (capacity - 1);
+        double previousMeanGyro = (capacity * pairMeanGyro[axis] - g) / (capacity - 1);
+        pairM2Accel[axis] -= (a - previousMeanAccel) * (a - pairMeanAccel[axis]);
+        pairM2Gyro[axis] -= (g - previousMeanGyro) * (g - pairMeanGyro[axis]);
+        pairCoMoment[axis] -= (a - previousMeanAccel) * (g - pairMeanGyro[axis]);
+        pairMeanAccel[axis] = previousMeanAccel;
+        pairMeanGyro[axis] = previousMeanGyro;
+    }
+    
+    /**
+     * Two-pass means, M2 and co-moments over the retained frames
+     */
+    private void recomputePairs() {
+        int n = accelBuffer.size();
+        long first = pairedCount - n;
+        for (int axis = 0; axis < 3; axis++) {
+            double sumAccel = 0;
+            double sumGyro = 0;
+            for (long i = first; i < pairedCount; i++) {
+                sumAccel += accelBuffer.get(axis, i);
+                sumGyro += gyroBuffer.get(axis, i);
+            }
+            double meanAccel = sumAccel / n;
+            double meanGyro = sumGyro / n;
+            double m2Accel = 0;
+            double m2Gyro = 0;
+            double coMoment = 0;
+            for (long i = first; i < pairedCount; i++) {
+                double da = accelBuffer.get(axis, i) - meanAccel;
+                double dg = gyroBuffer.get(axis, i) - meanGyro;
+                m2Accel += da * da;
+                m2Gyro += dg * dg;
+                coMoment += da * dg;
+            }
+            pairMeanAccel[axis] = meanAccel;
+            pairMeanGyro[axis] = meanGyro;
+            pairM2Accel[axis] = m2Accel;
+            pairM2Gyro[axis] = m2Gyro;
+            pairCoMoment[axis] = coMoment;
+        }
+    }
+    
+    /**
+     * Clear all collected data
+     */
+    public void clear() {
+        resampler.clear();
+        accelBuffer.clear();
+        gyroBuffer.clear();
+        pairedCount = 0;
+        for (int axis = 0; axis < 3; axis++) {
+            pairMeanAccel[axis] = 0;
+            pairMeanGyro[axis] = 0;
+            pairM2Accel[axis] = 0;
+            pairM2Gyro[axis] = 0;
+            pairCoMoment[axis] = 0;
+        }
+    }
+    
+    /**
+     * Check if enough data has been collected for feature extraction
+     */
+    public boolean hasEnoughData() {
+        // Ensure we have at least 1 second of aligned data on the grid
+        return pairedCount >= minFrames;
+    }
+    
+    /**
+     * Extract all features from the collected data
+     * 
+     * @return Normalized features ready for model input
+     */
+    public float[] extractFeatures() {
+        float[] features = new float[FEATURE_COUNT];
+        extractFeatures(features);
+        return features;
+    }
+    
+    /**
+     * Extract all features from the collected data into a caller-owned array
+     * 
+     * @param features Destination array of length {@link #FEATURE_COUNT}
+     */
+    public void extractFeatures(float[] features) {
+        if (!hasEnoughData()) {
+            throw new IllegalStateException("Not enough data collected for feature extraction");
+        }
+        
+        calculateFftPeaks();
+        
+        for (int axis = 0; axis < 3; axis++) {
+            // Means and standard deviations
+            features[axis] = (float) accelBuffer.mean(axis);
+            features[3 + axis] = (float) accelBuffer.std(axis);
+            features[6 + axis] = (float) gyroBuffer.mean(axis);
+            features[9 + axis] = (float) gyroBuffer.std(axis);
+            
+            // FFT peaks
+            features[12 + axis] = fftPeakMagnitudes[axis];
+            features[15 + axis] = fftPeakMagnitudes[3 + axis];
+            
+            // Cross-correlations
+            features[18 + axis] = calculateCrossCorrelation(axis);
+        }
+        
+        // Normalize features
+        normalizeFeatures(features);
+    }
+    
+    /**
+     * Normalize features using the training data means and stds
+     */
+    static void normalizeFeatures(float[] features) {
+        for (int i = 0; i < features.length; i++) {
+            if (FEATURE_STDS[i] != 0) {
+                features[i] = (features[i] - FEATURE_MEANS[i]) / FEATURE_STDS[i];
+            } else {
+                features[i] = 0;
+            }
+        }
+    }
+    
+    /**
+     * Calculate the FFT peaks of all six channels over the retained window
+     */
+    private void calculateFftPeaks() {
+        for (int axis = 0; axis < 3; axis++) {
+            fftLengths[axis] = accelBuffer.copyAxis(axis, fftChannels[axis]);
+            fftSampleRates[axis] = resampler.rateHz();
+            fftLengths[3 + axis] = gyroBuffer.copyAxis(axis, fftChannels[3 + axis]);
+            fftSampleRates[3 + axis] = resampler.rateHz();
+        }
+        fftEngine.computePeaks(fftChannels, fftLengths, fftSampleRates, fftPeakMagnitudes, fftPeakFrequencies);
+    }
+    
+    /**
+     * Frequency of the FFT peak found by the last extraction
+     * 
+     * @param channel 0-2 for accelerometer X/Y/Z, 3-5 for gyroscope X/Y/Z
+     * @return Peak frequency in Hz
+     */
+    public float getFftPeakFrequency(int channel) {
+        return fftPeakFrequencies[channel];
+    }
+    
+    /**
+     * Pearson correlation between the aligned accelerometer and gyroscope frames of the window
+     */
+    private float calculateCrossCorrelation(int axis) {
+        double corr = pairCoMoment[axis] / Math.sqrt(pairM2Accel[axis] * pairM2Gyro[axis]);
+        
+        // Handle NaN or infinite values
+        if (Double.isNaN(corr) || Double.isInfinite(corr)) {
+            return 0.0f;
+        }
+        
+        return (float) corr;
+    }
+}
@@ -0,0 +1,184 @@
+package com.parkinson.detection.ml;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Allocation-free real-input FFT used for the spectral features.
+ *
+ * A real signal of length N (a power of two) is transformed as N/2 interleaved
+ * complex points in place and then split into the first half of the real
+ * spectrum. Bit-reversal and twiddle tables are built once per size and shared
+ * by every engine; after the first call for a size no further allocation happens.
+ *
+ * The shared tables are immutable, so one engine may be used from several threads
+ * as long as they work on different channel arrays.
+ */
+public class FftEngine {
+
+    // Tables indexed by log2 of the real transform size, read without locking
+    private static final AtomicReferenceArray<Tables> TABLES = new AtomicReferenceArray<>(31);
+
+    /**
+     * Precomputed tables for one real transform size
+     */
+    private static final class Tables {
+        final int size;
+        final int[] bitReverse;   // permutation of the size/2 complex points
+        final double[] cos;       // cos(2*pi*k/size), k < size/2
+        final double[] sin;       // sin(2*pi*k/size), k < size/2
+
+        Tables(int size) {
+            this.size = size;
+            int half = size / 2;
+
+            bitReverse = new int[half];
+            int bits = Integer.numberOfTrailingZeros(half);
+            for (int i = 0; i < half; i++) {
+                bitReverse[i] = bits == 0 ? 0 : Integer.reverse(i) >>> (32 - bits);
+            }
+
+            cos = new double[half];
+            sin = new double[half];
+            for (int k = 0; k < half; k++) {
+                double angle = 2 * Math.PI * k / size;
+                cos[k] = Math.cos(angle);
+                sin[k] = Math.sin(angle);
+            }
+        }
+    }
+
+    private static Tables tablesFor(int size) {
+        int log2 = Integer.numberOfTrailingZeros(size);
+        Tables tables = TABLES.get(log2);
+        if (tables == null) {
+            // Racing threads may build the same tables; the first one published wins
+            TABLES.compareAndSet(log2, null, new Tables(size));
+            tables = TABLES.get(log2);
+        }
+        return tables;
+    }
+
+    /**
+     * Smallest power of two that is greater than or equal to {@code length}
+     */
+    public static int paddedSize(int length) {
+        int size = 2;
+        while (size < length) {
+            size *= 2;
+        }
+        return size;
+    }
+
+    /**
+     * Compute the spectral peak of several real channels in one pass.
+     *
+     * Each channel is zero-padded to {@link #paddedSize(int)} and transformed in place,
+     * so its array must be at least that long and its contents are destroyed. The peak
+     * is searched over bins 1 .. size/2 - 1 (DC and Nyquist excluded).
+     *
+     * @param channels Signal arrays, one per channel
+     * @param lengths Number of valid samples in each channel
+     * @param sampleRatesHz Sampling rate of each channel, used for the peak frequency
+     * @param peakMagnitudes Output: magnitude of the largest bin per channel
+     * @param peakFrequenciesHz Output: frequency of the largest bin per channel
+     */
+    public void computePeaks(double[][] channels, int[] lengths, double[] sampleRatesHz,
+                             float[] peakMagnitudes, float[] peakFrequenciesHz) {
+        for (int c = 0; c < channels.length; c++) {
+            double[] data = channels[c];
+            int size = paddedSize(lengths[c]);
+            if (data.length < size) {
+                throw new IllegalArgumentException("Channel " + c + " needs room for " + size + " samples");
+            }
+            for (int i = lengths[c]; i < size; i++) {
+                data[i] = 0;
+            }
+
+            Tables tables = tablesFor(size);
+            transform(data, tables);
+            findPeak(data, tables, c, sampleRatesHz[c], peakMagnitudes, peakFrequenciesHz);
+        }
+    }
+
+    /**
+     * In-place radix-2 FFT of size/2 complex points stored as (re, im) pairs
+     */
+    private static void transform(double[] data, Tables tables) {
+        int size = tables.size;
+        int points = size / 2;
+        int[] bitReverse = tables.bitReverse;
+
+        for (int i = 0; i < points; i++) {
+            int j = bitReverse[i];
+            if (i < j) {
+                double re = data[2 * i];
+                double im = data[2 * i + 1];
+                data[2 * i] = data[2 * j];
+                data[2 * i + 1] = data[2 * j + 1];
+                data[2 * j] = re;
+                data[2 * j + 1] = im;
+            }
+        }
+
+        double[] cos = tables.cos;
+        double[] sin = tables.sin;
+        for (int span = 2; span <= points; span *= 2) {
+            int half = span / 2;
+            int stride = size / span;
+            for (int start = 0; start < points; start += span) {
+                for (int j = 0; j < half; j++) {
+                    double wr = cos[j * stride];
+                    double wi = -sin[j * stride];
+                    int a = 2 * (start + j);
+                    int b = a + 2 * half;
+                    double tr = data[b] * wr - data[b + 1] * wi;
+                    double ti = data[b] * wi + data[b + 1] * wr;
+                    data[b] = data[a] - tr;
+                    data[b + 1] = data[a + 1] - ti;
+                    data[a] += tr;
+                    data[a + 1] += ti;
+                }
+            }
+        }
+    }
+
+    /**
+     * Split the packed complex transform into real-signal bins and locate the largest one
+     */
+    private static void findPeak(double[] data, Tables tables, int channel, double sampleRateHz,
+                                 float[] peakMagnitudes, float[] peakFrequenciesHz) {
+        int points = tables.size / 2;
+        double[] cos = tables.cos;
+        double[] sin = tables.sin;
+
+        double maxSquared = 0;
+        int peakBin = 0;
+        for (int k = 1; k < points; k++) {
+            double zr = data[2 * k];
+            double zi = data[2 * k + 1];
+            double cr = data[2 * (points - k)];
+            double ci = -data[2 * (points - k) + 1];
+
+            // Even part (Z[k] + conj(Z[N/2-k])) / 2 and odd part (Z[k] - conj(Z[N/2-k])) / 2i
+            double er = (zr + cr) * 0.5;
+            double ei = (zi + ci) * 0.5;
+            double or = (zi - ci) * 0.5;
+            double oi = -(zr - cr) * 0.5;
+
+            // X[k] = E + e^(-2*pi*i*k/N) * O
+            double wr = cos[k];
+            double wi = -sin[k];
+            double xr = er + wr * or - wi * oi;
+            double xi = ei + wr * oi + wi * or;
+
+            double squared = xr * xr + xi * xi;
+            if (squared > maxSquared) {
+                maxSquared = squared;
+                peakBin = k;
+            }
+        }
+
+        peakMagnitudes[channel] = (float) Math.sqrt(maxSquared);
+        peakFrequenciesHz[channel] = (float) (peakBin * sampleRateHz / tables.size);
+    }
+}
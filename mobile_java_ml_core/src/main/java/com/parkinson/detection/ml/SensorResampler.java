@@ -0,0 +1,166 @@
+package com.parkinson.detection.ml;
+
+/**
+ * Aligns the accelerometer and gyroscope streams on a shared fixed-rate grid.
+ *
+ * Sensors deliver samples at their own, jittery rates. Each stream is staged in a
+ * preallocated {@link SensorRingBuffer} and linearly interpolated at the grid times
+ * {@code t0 + k / rateHz}, where {@code t0} is the first instant both streams have
+ * data. A grid frame is emitted as soon as both streams have a sample at or after
+ * its time, so the output lags the slower sensor by at most one sample interval.
+ *
+ * Samples whose timestamp does not increase are dropped. If one stream runs so far
+ * ahead that its staging buffer wraps, interpolation resumes from the oldest sample
+ * still retained.
+ */
+public class SensorResampler {
+
+    public static final double DEFAULT_RATE_HZ = 50.0;
+
+    // Samples staged per stream while waiting for the other one
+    private static final int STAGING_CAPACITY = 1024;
+
+    /**
+     * Receives every grid frame; timestamps are in nanoseconds
+     */
+    public interface FrameListener {
+        void onFrame(long timestampNs, float accelX, float accelY, float accelZ,
+                     float gyroX, float gyroY, float gyroZ);
+    }
+
+    private final double rateHz;
+    private final double periodNs;
+    private final FrameListener listener;
+
+    private final SensorRingBuffer accel = new SensorRingBuffer(STAGING_CAPACITY);
+    private final SensorRingBuffer gyro = new SensorRingBuffer(STAGING_CAPACITY);
+
+    // Index of the latest staged sample at or before the current grid time, per stream
+    private long accelCursor;
+    private long gyroCursor;
+
+    private boolean started;
+    private long gridStartNs;
+    private long frameCount;
+
+    // Interpolated values of the frame being assembled
+    private final float[] accelFrame = new float[3];
+    private final float[] gyroFrame = new float[3];
+
+    public SensorResampler(FrameListener listener) {
+        this(DEFAULT_RATE_HZ, listener);
+    }
+
+    public SensorResampler(double rateHz, FrameListener listener) {
+        if (!(rateHz > 0)) {
+            throw new IllegalArgumentException("Rate must be positive, got " + rateHz);
+        }
+        this.rateHz = rateHz;
+        this.periodNs = 1e9 / rateHz;
+        this.listener = listener;
+    }
+
+    public double rateHz() {
+        return rateHz;
+    }
+
+    /**
+     * @return Number of grid frames emitted since the last clear
+     */
+    public long frameCount() {
+        return frameCount;
+    }
+
+    public void addAccelerometer(long timestampNs, float x, float y, float z) {
+        if (stage(accel, timestampNs, x, y, z)) {
+            drain();
+        }
+    }
+
+    public void addGyroscope(long timestampNs, float x, float y, float z) {
+        if (stage(gyro, timestampNs, x, y, z)) {
+            drain();
+        }
+    }
+
+    private static boolean stage(SensorRingBuffer stream, long timestampNs, float x, float y, float z) {
+        long count = stream.count();
+        if (count > 0 && timestampNs <= stream.getTimestamp(count - 1)) {
+            return false;
+        }
+        stream.add(timestampNs, x, y, z);
+        return true;
+    }
+
+    private void drain() {
+        if (!started) {
+            if (accel.count() == 0 || gyro.count() == 0) {
+                return;
+            }
+            // Start where both streams can be interpolated
+            gridStartNs = Math.max(accel.getTimestamp(0), gyro.getTimestamp(0));
+            accelCursor = 0;
+            gyroCursor = 0;
+            started = true;
+        }
+
+        long accelLatest = accel.getTimestamp(accel.count() - 1);
+        long gyroLatest = gyro.getTimestamp(gyro.count() - 1);
+        while (true) {
+            long t = gridStartNs + (long) (frameCount * periodNs);
+            if (accelLatest < t || gyroLatest < t) {
+                return;
+            }
+            accelCursor = interpolate(accel, accelCursor, t, accelFrame);
+            gyroCursor = interpolate(gyro, gyroCursor, t, gyroFrame);
+            frameCount++;
+            listener.onFrame(t, accelFrame[0], accelFrame[1], accelFrame[2],
+                    gyroFrame[0], gyroFrame[1], gyroFrame[2]);
+        }
+    }
+
+    /**
+     * Interpolate one stream at time t; the stream must hold a sample at or after t
+     *
+     * @return Updated cursor, the last sample at or before t
+     */
+    private static long interpolate(SensorRingBuffer stream, long cursor, long t, float[] out) {
+        long count = stream.count();
+        if (!stream.isRetained(cursor)) {
+            cursor = count - stream.size();
+        }
+        while (cursor + 1 < count && stream.getTimestamp(cursor + 1) <= t) {
+            cursor++;
+        }
+
+        long t0 = stream.getTimestamp(cursor);
+        if (t0 >= t || cursor + 1 >= count) {
+            for (int axis = 0; axis < 3; axis++) {
+                out[axis] = stream.get(axis, cursor);
+            }
+            return cursor;
+        }
+
+        long t1 = stream.getTimestamp(cursor + 1);
+        float fraction = (float) ((double) (t - t0) / (t1 - t0));
+        for (int axis = 0; axis < 3; axis++) {
+            float v0 = stream.get(axis, cursor);
+            float v1 = stream.get(axis, cursor + 1);
+            out[axis] = v0 + (v1 - v0) * fraction;
+        }
+        return cursor;
+    }
+
+    /**
+     * Reset all state without releasing buffers
+     */
+    public void clear() {
+        accel.clear();
+        gyro.clear();
+        accelCursor = 0;
+        gyroCursor = 0;
+        started = false;
+        gridStartNs = 0;
+        frameCount = 0;
+    }
+}
@@ -0,0 +1,200 @@
+package com.parkinson.detection.ml;
+
+/**
+ * Fixed-capacity ring buffer for three-axis sensor samples.
+ *
+ * Samples are stored as struct-of-arrays (one primitive array per axis) so that
+ * appending a sample never allocates. Alongside the raw window the buffer keeps
+ * Welford running mean / M2 accumulators over the retained samples, which makes
+ * mean and standard deviation available in O(1). Once the buffer is full, each
+ * overwritten sample is removed from the accumulators, so the statistics always
+ * cover the same span as the window; they are recomputed exactly once per wrap so
+ * rounding cannot build up over long recordings.
+ */
+public class SensorRingBuffer {
+
+    public static final int AXIS_X = 0;
+    public static final int AXIS_Y = 1;
+    public static final int AXIS_Z = 2;
+
+    private final int capacity;
+    private final float[][] axes;
+    private final long[] timestamps;
+
+    // Total number of samples appended since the last clear()
+    private long count;
+
+    // Welford accumulators, one slot per axis
+    private final double[] mean = new double[3];
+    private final double[] m2 = new double[3];
+
+    public SensorRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive, got " + capacity);
+        }
+        this.capacity = capacity;
+        this.axes = new float[3][capacity];
+        this.timestamps = new long[capacity];
+    }
+
+    /**
+     * Append a sample, overwriting the oldest one when the buffer is full
+     */
+    public void add(long timestampNs, float x, float y, float z) {
+        int slot = (int) (count % capacity);
+        if (count >= capacity) {
+            for (int axis = 0; axis < 3; axis++) {
+                removeStats(axis, axes[axis][slot]);
+            }
+        }
+        axes[AXIS_X][slot] = x;
+        axes[AXIS_Y][slot] = y;
+        axes[AXIS_Z][slot] = z;
+        timestamps[slot] = timestampNs;
+        count++;
+
+        int n = size();
+        addStats(AXIS_X, x, n);
+        addStats(AXIS_Y, y, n);
+        addStats(AXIS_Z, z, n);
+
+        if (count > capacity && slot == capacity - 1) {
+            recomputeStats();
+        }
+    }
+
+    private void addStats(int axis, float value, int n) {
+        double delta = value - mean[axis];
+        mean[axis] += delta / n;
+        m2[axis] += delta * (value - mean[axis]);
+    }
+
+    /**
+     * Inverse Welford step, the window holds {@code capacity} samples before the call
+     */
+    private void removeStats(int axis, float value) {
+        if (capacity == 1) {
+            mean[axis] = 0;
+            m2[axis] = 0;
+            return;
+        }
+        double previousMean = (capacity * mean[axis] - value) / (capacity - 1);
+        m2[axis] -= (value - previousMean) * (value - mean[axis]);
+        mean[axis] = previousMean;
+    }
+
+    /**
+     * Two-pass mean and M2 over the retained window
+     */
+    private void recomputeStats() {
+        int n = size();
+        for (int axis = 0; axis < 3; axis++) {
+            float[] values = axes[axis];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += values[i];
+            }
+            double axisMean = sum / n;
+            double squares = 0;
+            for (int i = 0; i < n; i++) {
+                double d = values[i] - axisMean;
+                squares += d * d;
+            }
+            mean[axis] = axisMean;
+            m2[axis] = squares;
+        }
+    }
+
+    /**
+     * Reset the buffer without releasing its storage
+     */
+    public void clear() {
+        count = 0;
+        for (int axis = 0; axis < 3; axis++) {
+            mean[axis] = 0;
+            m2[axis] = 0;
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return Total number of samples appended since the last clear
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return Number of samples currently retained in the window
+     */
+    public int size() {
+        return (int) Math.min(count, capacity);
+    }
+
+    /**
+     * @return true if the sample with the given absolute index is still retained
+     */
+    public boolean isRetained(long index) {
+        return index >= count - size() && index < count;
+    }
+
+    /**
+     * Get a value by absolute sample index (0 = first sample since clear)
+     */
+    public float get(int axis, long index) {
+        return axes[axis][(int) (index % capacity)];
+    }
+
+    /**
+     * Get a timestamp by absolute sample index (0 = first sample since clear)
+     */
+    public long getTimestamp(long index) {
+        return timestamps[(int) (index % capacity)];
+    }
+
+    /**
+     * Running mean over the retained window
+     */
+    public double mean(int axis) {
+        return mean[axis];
+    }
+
+    /**
+     * Running population standard deviation over the retained window
+     */
+    public double std(int axis) {
+        return count == 0 ? 0 : Math.sqrt(Math.max(0, m2[axis]) / size());
+    }
+
+    /**
+     * Average sampling rate of the retained window, estimated from its timestamps
+     *
+     * @return Rate in Hz, or 0 if it cannot be estimated
+     */
+    public double sampleRateHz() {
+        int size = size();
+        if (size < 2) {
+            return 0;
+        }
+        long span = getTimestamp(count - 1) - getTimestamp(count - size);
+        return span > 0 ? (size - 1) * 1e9 / span : 0;
+    }
+
+    /**
+     * Copy the retained window of one axis into {@code dst} in chronological order
+     *
+     * @return Number of samples copied
+     */
+    public int copyAxis(int axis, double[] dst) {
+        int size = size();
+        long first = count - size;
+        float[] source = axes[axis];
+        for (int i = 0; i < size; i++) {
+            dst[i] = source[(int) ((first + i) % capacity)];
+        }
+        return size;
+    }
+}
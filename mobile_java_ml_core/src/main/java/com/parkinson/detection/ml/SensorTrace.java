@@ -0,0 +1,213 @@
+package com.parkinson.detection.ml;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Raw accelerometer and gyroscope samples decoded from a {@link SensorTraceWriter} file.
+ *
+ * The whole file is mapped read-only and decoded in two passes: the first counts
+ * samples per sensor so each column is allocated once at its final size, the
+ * second fills the columns. {@link #validate(File)} runs a structural check over the
+ * mapping alone, for callers that only need to know the file is well formed.
+ */
+public class SensorTrace {
+
+    /**
+     * Samples of one sensor in arrival order, timestamps in nanoseconds
+     */
+    public static final class Stream {
+        public final long[] timestampsNs;
+        public final float[] x;
+        public final float[] y;
+        public final float[] z;
+
+        Stream(int size) {
+            this.timestampsNs = new long[size];
+            this.x = new float[size];
+            this.y = new float[size];
+            this.z = new float[size];
+        }
+
+        public int size() {
+            return timestampsNs.length;
+        }
+    }
+
+    private final Stream accelerometer;
+    private final Stream gyroscope;
+
+    private SensorTrace(Stream accelerometer, Stream gyroscope) {
+        this.accelerometer = accelerometer;
+        this.gyroscope = gyroscope;
+    }
+
+    public Stream accelerometer() {
+        return accelerometer;
+    }
+
+    public Stream gyroscope() {
+        return gyroscope;
+    }
+
+    /**
+     * Decode a trace file
+     */
+    public static SensorTrace read(File source) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(source, "r")) {
+            return decode(map(file));
+        }
+    }
+
+    /**
+     * Check the block structure of a trace file without decoding any samples.
+     * Every block must name a known sensor and its payload must hold exactly one
+     * timestamp and three axis varints per sample.
+     *
+     * @return Number of samples in the file
+     * @throws IOException if the file cannot be read or is not a well-formed trace
+     */
+    public static long validate(File source) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(source, "r")) {
+            ByteBuffer buffer = map(file);
+            readSteps(buffer);
+            long total = 0;
+            while (nextBlock(buffer)) {
+                int stream = buffer.get() & 0xFF;
+                long samples = getVarLong(buffer);
+                long length = getVarLong(buffer);
+                if (stream > SensorTraceWriter.STREAM_GYROSCOPE || length > buffer.remaining()) {
+                    throw new IOException("Corrupt sensor trace block at " + buffer.position());
+                }
+                // A varint ends on every byte with the high bit clear
+                int end = buffer.position() + (int) length;
+                long varints = 0;
+                for (int i = buffer.position(); i < end; i++) {
+                    if (buffer.get(i) >= 0) {
+                        varints++;
+                    }
+                }
+                if (varints != 4 * samples || buffer.get(end - 1) < 0) {
+                    throw new IOException("Corrupt sensor trace block at " + buffer.position());
+                }
+                total += samples;
+                seek(buffer, end);
+            }
+            return total;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated sensor trace", e);
+        }
+    }
+
+    private static ByteBuffer map(RandomAccessFile file) throws IOException {
+        FileChannel channel = file.getChannel();
+        long size = channel.size();
+        if (size < SensorTraceWriter.HEADER_BYTES) {
+            throw new IOException("Not a sensor trace file");
+        }
+        ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    /**
+     * Check the header and return the quantization step of each sensor
+     */
+    private static float[] readSteps(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != SensorTraceWriter.MAGIC) {
+            throw new IOException("Not a sensor trace file");
+        }
+        int version = buffer.getInt();
+        if (version != SensorTraceWriter.VERSION) {
+            throw new IOException("Unsupported sensor trace version " + version);
+        }
+        return new float[]{buffer.getFloat(), buffer.getFloat()};
+    }
+
+    private static SensorTrace decode(ByteBuffer buffer) throws IOException {
+        float[] steps = readSteps(buffer);
+        int dataStart = buffer.position();
+
+        // First pass: count samples so the columns are sized exactly
+        int[] counts = new int[2];
+        while (nextBlock(buffer)) {
+            int stream = buffer.get() & 0xFF;
+            int samples = (int) getVarLong(buffer);
+            int length = (int) getVarLong(buffer);
+            if (stream > SensorTraceWriter.STREAM_GYROSCOPE || length > buffer.remaining()) {
+                throw new IOException("Corrupt sensor trace block at " + buffer.position());
+            }
+            counts[stream] += samples;
+            seek(buffer, buffer.position() + length);
+        }
+
+        Stream[] streams = {new Stream(counts[0]), new Stream(counts[1])};
+        int[] filled = new int[2];
+        seek(buffer, dataStart);
+        while (nextBlock(buffer)) {
+            int stream = buffer.get() & 0xFF;
+            int samples = (int) getVarLong(buffer);
+            getVarLong(buffer);
+            decodeBlock(buffer, streams[stream], filled[stream], samples, steps[stream]);
+            filled[stream] += samples;
+        }
+        return new SensorTrace(streams[0], streams[1]);
+    }
+
+    /**
+     * A zero sample count marks the unwritten tail of a file that was never closed
+     */
+    private static boolean nextBlock(ByteBuffer buffer) {
+        int position = buffer.position();
+        return buffer.remaining() > 2 && buffer.get(position + 1) != 0;
+    }
+
+    private static void decodeBlock(ByteBuffer buffer, Stream target, int offset, int samples, float step) {
+        long ticks = unzigzag(getVarLong(buffer));
+        long delta = 0;
+        target.timestampsNs[offset] = ticks * SensorTraceWriter.NANOS_PER_TICK;
+        for (int i = 1; i < samples; i++) {
+            delta += unzigzag(getVarLong(buffer));
+            ticks += delta;
+            target.timestampsNs[offset + i] = ticks * SensorTraceWriter.NANOS_PER_TICK;
+        }
+        decodeColumn(buffer, target.x, offset, samples, step);
+        decodeColumn(buffer, target.y, offset, samples, step);
+        decodeColumn(buffer, target.z, offset, samples, step);
+    }
+
+    private static void decodeColumn(ByteBuffer buffer, float[] target, int offset, int samples, float step) {
+        long value = 0;
+        for (int i = 0; i < samples; i++) {
+            value += unzigzag(getVarLong(buffer));
+            target[offset + i] = value * step;
+        }
+    }
+
+    // Through Buffer so the call links against every Android and JDK version
+    private static void seek(ByteBuffer buffer, int position) {
+        ((Buffer) buffer).position(position);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
@@ -0,0 +1,241 @@
+package com.parkinson.detection.ml;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Streams raw accelerometer and gyroscope samples to a compact binary trace file.
+ *
+ * Samples are collected per sensor into small preallocated blocks. A block is
+ * written once it holds 256 samples or spans one second, column by column
+ * (timestamps, then x, y and z), each column delta encoded and stored as zigzag
+ * varints:
+ * <ul>
+ *   <li>timestamps are truncated to microseconds and stored as deltas of deltas, which
+ *       are close to zero for a steady sampling rate;</li>
+ *   <li>axis values are quantized to a fixed step per sensor and stored as deltas.</li>
+ * </ul>
+ * A typical sample costs five to eight bytes, against sixty or more as CSV text.
+ *
+ * The file is appended through a memory-mapped window of the {@link FileChannel}, so
+ * a recording never sits on the heap beyond the current blocks. {@link #close()}
+ * trims the file to its written length. A file left behind by a crash ends in a
+ * zero-filled tail, which {@link SensorTrace} reads as the end of the data; only the
+ * samples still in the open blocks are lost, at most one second per sensor.
+ *
+ * Layout, little-endian:
+ * <pre>
+ * header: int magic "PDTR", int version, float accelStep, float gyroStep
+ * block:  byte stream, varint sampleCount, varint payloadBytes, payload
+ * </pre>
+ */
+public class SensorTraceWriter implements Closeable {
+
+    static final int MAGIC = 0x52544450; // "PDTR" read little-endian
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+
+    public static final int STREAM_ACCELEROMETER = 0;
+    public static final int STREAM_GYROSCOPE = 1;
+
+    // 0.001 m/s^2 and 0.0001 rad/s are well below the sensor noise floor
+    public static final float DEFAULT_ACCEL_STEP = 1e-3f;
+    public static final float DEFAULT_GYRO_STEP = 1e-4f;
+
+    static final int NANOS_PER_TICK = 1000;
+
+    private static final int BLOCK_SAMPLES = 256;
+    // Bounds what a crash can lose at low sampling rates, where 256 samples take seconds
+    private static final long MAX_BLOCK_SPAN_TICKS = 1_000_000_000L / NANOS_PER_TICK;
+    // Block header plus a worst-case long varint for the time and int varints for each axis
+    private static final int MAX_BLOCK_BYTES = 11 + BLOCK_SAMPLES * (10 + 3 * 5);
+    private static final int MAP_WINDOW_BYTES = 64 * 1024;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    private final Block accel;
+    private final Block gyro;
+    private final byte[] encoded = new byte[MAX_BLOCK_BYTES];
+    private final byte[] payload = new byte[MAX_BLOCK_BYTES];
+
+    private long sampleCount;
+    private boolean closed;
+
+    public SensorTraceWriter(File target) throws IOException {
+        this(target, DEFAULT_ACCEL_STEP, DEFAULT_GYRO_STEP);
+    }
+
+    public SensorTraceWriter(File target, float accelStep, float gyroStep) throws IOException {
+        if (!(accelStep > 0) || !(gyroStep > 0)) {
+            throw new IllegalArgumentException("Quantization steps must be positive");
+        }
+        this.accel = new Block(STREAM_ACCELEROMETER, accelStep);
+        this.gyro = new Block(STREAM_GYROSCOPE, gyroStep);
+
+        this.file = new RandomAccessFile(target, "rw");
+        this.channel = file.getChannel();
+        try {
+            channel.truncate(0);
+            map(0);
+            window.putInt(MAGIC);
+            window.putInt(VERSION);
+            window.putFloat(accelStep);
+            window.putFloat(gyroStep);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    public void addAccelerometer(long timestampNs, float x, float y, float z) throws IOException {
+        add(accel, timestampNs, x, y, z);
+    }
+
+    public void addGyroscope(long timestampNs, float x, float y, float z) throws IOException {
+        add(gyro, timestampNs, x, y, z);
+    }
+
+    /**
+     * @return Samples accepted from both sensors so far
+     */
+    public long sampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * @return Bytes written to the file so far, excluding samples still in open blocks
+     */
+    public long bytesWritten() {
+        return windowStart + window.position();
+    }
+
+    private void add(Block block, long timestampNs, float x, float y, float z) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Trace writer has been closed");
+        }
+        int i = block.count;
+        block.ticks[i] = timestampNs / NANOS_PER_TICK;
+        block.x[i] = block.quantize(x);
+        block.y[i] = block.quantize(y);
+        block.z[i] = block.quantize(z);
+        block.count++;
+        sampleCount++;
+        if (block.count == BLOCK_SAMPLES
+                || block.ticks[i] - block.ticks[0] >= MAX_BLOCK_SPAN_TICKS) {
+            flush(block);
+        }
+    }
+
+    private void flush(Block block) throws IOException {
+        int n = block.count;
+        if (n == 0) {
+            return;
+        }
+
+        int length = 0;
+        long previous = block.ticks[0];
+        long previousDelta = 0;
+        length = putVarLong(payload, length, zigzag(previous));
+        for (int i = 1; i < n; i++) {
+            long delta = block.ticks[i] - previous;
+            length = putVarLong(payload, length, zigzag(delta - previousDelta));
+            previous = block.ticks[i];
+            previousDelta = delta;
+        }
+        length = putColumn(block.x, n, length);
+        length = putColumn(block.y, n, length);
+        length = putColumn(block.z, n, length);
+
+        int size = 0;
+        encoded[size++] = (byte) block.stream;
+        size = putVarLong(encoded, size, n);
+        size = putVarLong(encoded, size, length);
+        System.arraycopy(payload, 0, encoded, size, length);
+        size += length;
+
+        if (window.remaining() < size) {
+            map(windowStart + window.position());
+        }
+        window.put(encoded, 0, size);
+        block.count = 0;
+    }
+
+    private int putColumn(int[] values, int n, int offset) {
+        int previous = 0;
+        for (int i = 0; i < n; i++) {
+            offset = putVarLong(payload, offset, zigzag((long) values[i] - previous));
+            previous = values[i];
+        }
+        return offset;
+    }
+
+    private void map(long position) throws IOException {
+        window = channel.map(FileChannel.MapMode.READ_WRITE, position, MAP_WINDOW_BYTES);
+        window.order(ByteOrder.LITTLE_ENDIAN);
+        windowStart = position;
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static int putVarLong(byte[] target, int offset, long value) {
+        while ((value & ~0x7FL) != 0) {
+            target[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        target[offset++] = (byte) value;
+        return offset;
+    }
+
+    /**
+     * Flush the open blocks, trim the file to its written length and release it
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flush(accel);
+            flush(gyro);
+            long length = bytesWritten();
+            window.force();
+            channel.truncate(length);
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Open block of one sensor, preallocated once
+     */
+    private static final class Block {
+        final int stream;
+        final float step;
+        final long[] ticks = new long[BLOCK_SAMPLES];
+        final int[] x = new int[BLOCK_SAMPLES];
+        final int[] y = new int[BLOCK_SAMPLES];
+        final int[] z = new int[BLOCK_SAMPLES];
+        int count;
+
+        Block(int stream, float step) {
+            this.stream = stream;
+            this.step = step;
+        }
+
+        int quantize(float value) {
+            // Saturates on overflow and maps NaN to zero
+            return (int) Math.rint(value / step);
+        }
+    }
+}
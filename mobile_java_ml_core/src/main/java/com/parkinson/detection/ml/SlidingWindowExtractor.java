@@ -0,0 +1,244 @@
+package com.parkinson.detection.ml;
+
+import java.util.Arrays;
+
+/**
+ * Incremental feature extraction over overlapping windows for live scoring.
+ *
+ * Accelerometer and gyroscope samples are aligned by a {@link SensorResampler}
+ * (as in {@link FeatureExtractor}) into six-channel frames on a fixed-rate grid,
+ * so window and hop are counted in grid frames. Every frame updates running
+ * window sums for mean, standard deviation and cross-correlation, and a sliding
+ * DFT per channel for the spectral peak, so no work is deferred to the end of
+ * the window. Once the first window is full a feature vector is emitted every
+ * {@code hop} frames.
+ *
+ * The sliding DFT uses exact twiddles and double precision; rounding drift over
+ * a recording of a few minutes stays far below float resolution.
+ *
+ * The model is calibrated on {@link FeatureExtractor}, whose FFT peak is the unscaled
+ * magnitude over every frame it retains, so a steady tremor's peak grows with the
+ * recording. Window peaks are scaled by the frames that extractor would hold at the
+ * same point over the window size, which puts a steady signal's window features on
+ * the scale of the whole-recording features.
+ */
+public class SlidingWindowExtractor {
+
+    public static final int DEFAULT_WINDOW_SIZE = 256;
+    public static final int DEFAULT_HOP = DEFAULT_WINDOW_SIZE / 2;
+
+    private static final int CHANNELS = 6;
+
+    /**
+     * Receives the normalized features of each completed window
+     */
+    public interface WindowListener {
+        /**
+         * @param windowIndex Zero-based index of the window since the last clear
+         * @param features Normalized features; the array is reused for the next window
+         */
+        void onWindow(long windowIndex, float[] features);
+    }
+
+    private final int windowSize;
+    private final int hop;
+    private final int referenceFrames;
+    private final WindowListener listener;
+
+    // Aligns both sensors on the grid and calls addFrame for every grid point
+    private final SensorResampler resampler;
+
+    // Paired frames of the current window, channels ordered accel X/Y/Z then gyro X/Y/Z
+    private final double[][] window;
+    private long frameCount;
+    private long windowCount;
+
+    // Running window sums
+    private final double[] sums = new double[CHANNELS];
+    private final double[] squareSums = new double[CHANNELS];
+    private final double[] crossSums = new double[3];
+
+    // Sliding DFT state, bins 0 .. windowSize/2 - 1 per channel
+    private final double[][] binRe;
+    private final double[][] binIm;
+    private final double[] twiddleCos;
+    private final double[] twiddleSin;
+
+    private final float[] frame = new float[CHANNELS];
+    private final float[] features = new float[FeatureExtractor.FEATURE_COUNT];
+
+    public SlidingWindowExtractor(WindowListener listener) {
+        this(DEFAULT_WINDOW_SIZE, DEFAULT_HOP, listener);
+    }
+
+    public SlidingWindowExtractor(int windowSize, int hop, WindowListener listener) {
+        this(windowSize, hop, SensorResampler.DEFAULT_RATE_HZ, FeatureExtractor.DEFAULT_CAPACITY, listener);
+    }
+
+    /**
+     * @param windowSize Window length in grid frames
+     * @param hop Frames between consecutive windows
+     * @param rateHz Rate of the grid both sensors are resampled onto
+     * @param referenceFrames Capacity of the {@link FeatureExtractor} the model is calibrated on
+     */
+    public SlidingWindowExtractor(int windowSize, int hop, double rateHz, int referenceFrames,
+                                  WindowListener listener) {
+        if (windowSize < 4 || hop <= 0 || hop > windowSize) {
+            throw new IllegalArgumentException("Invalid window " + windowSize + " / hop " + hop);
+        }
+        if (referenceFrames < windowSize) {
+            throw new IllegalArgumentException("Reference of " + referenceFrames + " frames is shorter than the window");
+        }
+        this.windowSize = windowSize;
+        this.hop = hop;
+        this.referenceFrames = referenceFrames;
+        this.listener = listener;
+
+        resampler = new SensorResampler(rateHz, this::addFrame);
+        window = new double[CHANNELS][windowSize];
+
+        int bins = windowSize / 2;
+        binRe = new double[CHANNELS][bins];
+        binIm = new double[CHANNELS][bins];
+        twiddleCos = new double[bins];
+        twiddleSin = new double[bins];
+        for (int k = 0; k < bins; k++) {
+            double angle = 2 * Math.PI * k / windowSize;
+            twiddleCos[k] = Math.cos(angle);
+            twiddleSin[k] = Math.sin(angle);
+        }
+    }
+
+    /**
+     * Add an accelerometer sample
+     */
+    public void addAccelerometerData(long timestampNs, float x, float y, float z) {
+        resampler.addAccelerometer(timestampNs, x, y, z);
+    }
+
+    /**
+     * Add a gyroscope sample
+     */
+    public void addGyroscopeData(long timestampNs, float x, float y, float z) {
+        resampler.addGyroscope(timestampNs, x, y, z);
+    }
+
+    private void addFrame(long timestampNs, float accelX, float accelY, float accelZ,
+                          float gyroX, float gyroY, float gyroZ) {
+        frame[0] = accelX;
+        frame[1] = accelY;
+        frame[2] = accelZ;
+        frame[3] = gyroX;
+        frame[4] = gyroY;
+        frame[5] = gyroZ;
+
+        int slot = (int) (frameCount % windowSize);
+        boolean full = frameCount >= windowSize;
+
+        for (int axis = 0; axis < 3; axis++) {
+            int gyro = 3 + axis;
+            double accelValue = frame[axis];
+            double gyroValue = frame[gyro];
+            double accelOld = full ? window[axis][slot] : 0;
+            double gyroOld = full ? window[gyro][slot] : 0;
+
+            slideChannel(axis, slot, accelValue, accelOld);
+            slideChannel(gyro, slot, gyroValue, gyroOld);
+            crossSums[axis] += accelValue * gyroValue - accelOld * gyroOld;
+        }
+        frameCount++;
+
+        if (frameCount >= windowSize && (frameCount - windowSize) % hop == 0) {
+            emitWindow();
+        }
+    }
+
+    private void slideChannel(int channel, int slot, double value, double old) {
+        window[channel][slot] = value;
+        sums[channel] += value - old;
+        squareSums[channel] += value * value - old * old;
+        slideDft(channel, value - old);
+    }
+
+    /**
+     * X_k <- (X_k + x_new - x_old) * e^(2*pi*i*k/N)
+     */
+    private void slideDft(int channel, double delta) {
+        double[] re = binRe[channel];
+        double[] im = binIm[channel];
+        for (int k = 0; k < re.length; k++) {
+            double r = re[k] + delta;
+            double i = im[k];
+            re[k] = r * twiddleCos[k] - i * twiddleSin[k];
+            im[k] = r * twiddleSin[k] + i * twiddleCos[k];
+        }
+    }
+
+    private void emitWindow() {
+        double n = windowSize;
+        float peakScale = (float) (Math.min(frameCount, referenceFrames) / n);
+        for (int axis = 0; axis < 3; axis++) {
+            int gyro = 3 + axis;
+            double accelMean = sums[axis] / n;
+            double gyroMean = sums[gyro] / n;
+            double accelVar = Math.max(0, squareSums[axis] / n - accelMean * accelMean);
+            double gyroVar = Math.max(0, squareSums[gyro] / n - gyroMean * gyroMean);
+
+            features[axis] = (float) accelMean;
+            features[3 + axis] = (float) Math.sqrt(accelVar);
+            features[6 + axis] = (float) gyroMean;
+            features[9 + axis] = (float) Math.sqrt(gyroVar);
+            features[12 + axis] = peakMagnitude(axis) * peakScale;
+            features[15 + axis] = peakMagnitude(gyro) * peakScale;
+
+            double covariance = crossSums[axis] / n - accelMean * gyroMean;
+            double corr = covariance / Math.sqrt(accelVar * gyroVar);
+            features[18 + axis] = Double.isNaN(corr) || Double.isInfinite(corr) ? 0.0f : (float) corr;
+        }
+        FeatureExtractor.normalizeFeatures(features);
+
+        if (listener != null) {
+            listener.onWindow(windowCount, features);
+        }
+        windowCount++;
+    }
+
+    /**
+     * Largest bin magnitude excluding DC
+     */
+    private float peakMagnitude(int channel) {
+        double[] re = binRe[channel];
+        double[] im = binIm[channel];
+        double maxSquared = 0;
+        for (int k = 1; k < re.length; k++) {
+            double squared = re[k] * re[k] + im[k] * im[k];
+            if (squared > maxSquared) {
+                maxSquared = squared;
+            }
+        }
+        return (float) Math.sqrt(maxSquared);
+    }
+
+    /**
+     * Reset all state without releasing buffers
+     */
+    public void clear() {
+        resampler.clear();
+        frameCount = 0;
+        windowCount = 0;
+        for (int c = 0; c < CHANNELS; c++) {
+            sums[c] = 0;
+            squareSums[c] = 0;
+            Arrays.fill(binRe[c], 0);
+            Arrays.fill(binIm[c], 0);
+        }
+        Arrays.fill(crossSums, 0);
+    }
+
+    /**
+     * @return Number of windows emitted since the last clear
+     */
+    public long getWindowCount() {
+        return windowCount;
+    }
+}
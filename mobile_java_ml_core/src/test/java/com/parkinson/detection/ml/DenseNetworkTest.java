@@ -0,0 +1,114 @@
+package com.parkinson.detection.ml;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DenseNetworkTest {
+
+    /**
+     * tiny.dense holds 3 -> 2 (ReLU) -> 1 with a sigmoid output:
+     * W1 = [[1, -2, 0.5], [0.25, 1, -1]], b1 = [0.5, -1], W2 = [[2, -1]], b2 = [0.25].
+     * Every weight is exact in float, so the logits below are exact too.
+     */
+    private static final float[][] INPUTS = {
+            {1, 1, 2},    // hidden [0.5, 0] (second unit clipped), logit 1.25
+            {0, 1, 0},    // hidden [0, 0], logit 0.25
+            {2, 0, -1},   // hidden [2, 0.5], logit 3.75
+    };
+    private static final float[] LOGITS = {1.25f, 0.25f, 3.75f};
+
+    @Test
+    void readsTheFixtureShape() throws IOException {
+        DenseNetwork network = tiny();
+
+        assertEquals(3, network.inputSize());
+        assertEquals(1, network.outputSize());
+        assertEquals(3, network.maxWidth());
+    }
+
+    @Test
+    void evaluatesKnownOutputs() throws IOException {
+        DenseNetwork network = tiny();
+        float[] output = new float[1];
+        float[] scratchA = new float[network.maxWidth()];
+        float[] scratchB = new float[network.maxWidth()];
+
+        for (int row = 0; row < INPUTS.length; row++) {
+            network.evaluate(INPUTS[row], 1, output, scratchA, scratchB);
+            assertEquals(sigmoid(LOGITS[row]), output[0], 1e-7f, "row " + row);
+        }
+    }
+
+    @Test
+    void batchMatchesSingleRowsBitForBit() throws IOException {
+        DenseNetwork network = tiny();
+        Random random = new Random(21);
+        int rows = 50;
+        float[] input = new float[rows * 3];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = (float) random.nextGaussian();
+        }
+
+        float[] batch = new float[rows];
+        network.evaluate(input, rows, batch,
+                new float[rows * network.maxWidth()], new float[rows * network.maxWidth()]);
+
+        float[] single = new float[rows];
+        float[] output = new float[1];
+        for (int row = 0; row < rows; row++) {
+            float[] features = Arrays.copyOfRange(input, row * 3, row * 3 + 3);
+            network.evaluate(features, 1, output, new float[3], new float[3]);
+            single[row] = output[0];
+        }
+        assertArrayEquals(single, batch);
+    }
+
+    @Test
+    void rejectsAFileWithTheWrongMagic() throws IOException {
+        byte[] bytes = fixtureBytes();
+        bytes[0] ^= 1;
+
+        IOException e = assertThrows(IOException.class, () -> DenseNetwork.read(new ByteArrayInputStream(bytes)));
+        assertEquals("Not a dense model file", e.getMessage());
+    }
+
+    @Test
+    void rejectsATruncatedFile() throws IOException {
+        byte[] bytes = Arrays.copyOf(fixtureBytes(), 60);
+
+        assertThrows(IOException.class, () -> DenseNetwork.read(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    void rejectsLayersThatDoNotChain() {
+        DenseNetwork.Layer first = new DenseNetwork.Layer(2, 3, new float[6], new float[3], DenseNetwork.ACTIVATION_RELU);
+        DenseNetwork.Layer second = new DenseNetwork.Layer(2, 1, new float[2], new float[1], DenseNetwork.ACTIVATION_NONE);
+
+        assertThrows(IllegalArgumentException.class, () -> new DenseNetwork(Arrays.asList(first, second), true));
+    }
+
+    private static DenseNetwork tiny() throws IOException {
+        try (InputStream in = DenseNetworkTest.class.getResourceAsStream("/tiny.dense")) {
+            return DenseNetwork.read(in);
+        }
+    }
+
+    private static byte[] fixtureBytes() throws IOException {
+        try (InputStream in = DenseNetworkTest.class.getResourceAsStream("/tiny.dense")) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static float sigmoid(float logit) {
+        return (float) (1.0 / (1.0 + Math.exp(-logit)));
+    }
+}
@@ -0,0 +1,158 @@
+package com.parkinson.detection.ml;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FeatureExtractorTest {
+
+    private static final double RATE_HZ = 50.0;
+    private static final long PERIOD_NS = 20_000_000L;
+
+    @Test
+    void needsOneSecondOfAlignedData() {
+        FeatureExtractor extractor = new FeatureExtractor(256, RATE_HZ);
+        float[][] frames = frames(new Random(3), 40, 0);
+        feed(extractor, frames, 0);
+
+        assertFalse(extractor.hasEnoughData());
+        assertThrows(IllegalStateException.class, extractor::extractFeatures);
+
+        feed(extractor, frames(new Random(4), 20, 0), 40);
+        assertTrue(extractor.hasEnoughData());
+    }
+
+    @Test
+    void computesMomentsAndCorrelationOverTheRecording() {
+        int count = 400;
+        float[][] frames = frames(new Random(5), count, 0);
+        FeatureExtractor extractor = new FeatureExtractor(1024, RATE_HZ);
+        feed(extractor, frames, 0);
+
+        float[] features = extractor.extractFeatures();
+
+        float[] expected = new float[FeatureExtractor.FEATURE_COUNT];
+        for (int axis = 0; axis < 3; axis++) {
+            expected[axis] = (float) mean(frames[axis]);
+            expected[3 + axis] = (float) std(frames[axis]);
+            expected[6 + axis] = (float) mean(frames[3 + axis]);
+            expected[9 + axis] = (float) std(frames[3 + axis]);
+            expected[18 + axis] = (float) correlation(frames[axis], frames[3 + axis]);
+        }
+        float[] normalized = expected.clone();
+        FeatureExtractor.normalizeFeatures(normalized);
+        for (int i = 0; i < FeatureExtractor.FEATURE_COUNT; i++) {
+            if (i < 12 || i >= 18) {
+                assertEquals(normalized[i], features[i], 1e-3, "feature " + i);
+            }
+        }
+    }
+
+    @Test
+    void everyFeatureCoversTheSameWindowAfterWrapping() {
+        int capacity = 512;
+        int count = 5 * capacity + 123;
+        // The tremor frequency and level change partway through the recording
+        float[][] frames = frames(new Random(6), count, capacity);
+
+        FeatureExtractor streamed = new FeatureExtractor(capacity, RATE_HZ);
+        feed(streamed, frames, 0);
+        float[] windowed = streamed.extractFeatures();
+
+        // A fresh extractor that only ever saw the retained frames
+        float[][] tail = new float[6][capacity];
+        for (int channel = 0; channel < 6; channel++) {
+            System.arraycopy(frames[channel], count - capacity, tail[channel], 0, capacity);
+        }
+        FeatureExtractor fresh = new FeatureExtractor(capacity, RATE_HZ);
+        feed(fresh, tail, count - capacity);
+        float[] expected = fresh.extractFeatures();
+
+        assertArrayEquals(expected, windowed, 1e-3f);
+        for (int channel = 0; channel < 6; channel++) {
+            assertEquals(fresh.getFftPeakFrequency(channel), streamed.getFftPeakFrequency(channel), 1e-6);
+        }
+    }
+
+    @Test
+    void clearStartsANewRecording() {
+        float[][] frames = frames(new Random(7), 300, 0);
+        FeatureExtractor reused = new FeatureExtractor(256, RATE_HZ);
+        feed(reused, frames(new Random(8), 700, 100), 0);
+        reused.clear();
+        feed(reused, frames, 0);
+
+        FeatureExtractor fresh = new FeatureExtractor(256, RATE_HZ);
+        feed(fresh, frames, 0);
+
+        assertArrayEquals(fresh.extractFeatures(), reused.extractFeatures(), 1e-5f);
+    }
+
+    /**
+     * Feed grid-aligned samples, so resampling passes every frame through unchanged
+     */
+    private static void feed(FeatureExtractor extractor, float[][] frames, long firstFrame) {
+        for (int i = 0; i < frames[0].length; i++) {
+            long t = (firstFrame + i) * PERIOD_NS;
+            extractor.addAccelerometerData(t, frames[0][i], frames[1][i], frames[2][i]);
+            extractor.addGyroscopeData(t, frames[3][i], frames[4][i], frames[5][i]);
+        }
+    }
+
+    /**
+     * Six channels of noisy oscillation; after {@code switchAt} frames (if positive)
+     * the frequency and offset change
+     */
+    private static float[][] frames(Random random, int count, int switchAt) {
+        float[][] frames = new float[6][count];
+        for (int i = 0; i < count; i++) {
+            boolean late = switchAt > 0 && i >= switchAt;
+            double frequency = late ? 6.0 : 4.0;
+            double offset = late ? 0.8 : 0.0;
+            double phase = 2 * Math.PI * frequency * i / RATE_HZ;
+            for (int axis = 0; axis < 3; axis++) {
+                double tremor = Math.sin(phase + axis);
+                frames[axis][i] = (float) (offset + tremor + 0.3 * random.nextGaussian());
+                frames[3 + axis][i] = (float) (0.5 * tremor + 0.2 * random.nextGaussian());
+            }
+        }
+        return frames;
+    }
+
+    private static double mean(float[] values) {
+        double sum = 0;
+        for (float value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    private static double std(float[] values) {
+        double mean = mean(values);
+        double squares = 0;
+        for (float value : values) {
+            squares += (value - mean) * (value - mean);
+        }
+        return Math.sqrt(squares / values.length);
+    }
+
+    private static double correlation(float[] a, float[] b) {
+        double meanA = mean(a);
+        double meanB = mean(b);
+        double coMoment = 0;
+        double squaresA = 0;
+        double squaresB = 0;
+        for (int i = 0; i < a.length; i++) {
+            coMoment += (a[i] - meanA) * (b[i] - meanB);
+            squaresA += (a[i] - meanA) * (a[i] - meanA);
+            squaresB += (b[i] - meanB) * (b[i] - meanB);
+        }
+        return coMoment / Math.sqrt(squaresA * squaresB);
+    }
+}
@@ -0,0 +1,158 @@
+package com.parkinson.detection.ml;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FftEngineTest {
+
+    @Test
+    void paddedSizeIsTheNextPowerOfTwo() {
+        assertEquals(2, FftEngine.paddedSize(0));
+        assertEquals(2, FftEngine.paddedSize(2));
+        assertEquals(4, FftEngine.paddedSize(3));
+        assertEquals(256, FftEngine.paddedSize(256));
+        assertEquals(16384, FftEngine.paddedSize(15000));
+    }
+
+    @Test
+    void peaksMatchANaiveDft() {
+        Random random = new Random(11);
+        FftEngine engine = new FftEngine();
+        for (int length : new int[]{4, 7, 64, 100, 256, 1000, 4096}) {
+            double[] signal = new double[length];
+            for (int i = 0; i < length; i++) {
+                signal[i] = random.nextGaussian();
+            }
+            double[] expected = naivePeak(signal, FftEngine.paddedSize(length), 50.0);
+
+            float[] magnitude = new float[1];
+            float[] frequency = new float[1];
+            double[][] channels = {paddedCopy(signal)};
+            engine.computePeaks(channels, new int[]{length}, new double[]{50.0}, magnitude, frequency);
+
+            assertEquals(expected[0], magnitude[0], expected[0] * 1e-5, "magnitude, length " + length);
+            assertEquals(expected[1], frequency[0], 1e-4, "frequency, length " + length);
+        }
+    }
+
+    @Test
+    void findsTheFrequencyOfASine() {
+        int size = 1024;
+        double rateHz = 50.0;
+        int bin = 123;
+        double[] signal = new double[size];
+        for (int i = 0; i < size; i++) {
+            signal[i] = 0.7 + 2.0 * Math.sin(2 * Math.PI * bin * i / size);
+        }
+
+        float[] magnitude = new float[1];
+        float[] frequency = new float[1];
+        new FftEngine().computePeaks(new double[][]{signal}, new int[]{size}, new double[]{rateHz},
+                magnitude, frequency);
+
+        // DC is excluded from the search, a full-scale sine of amplitude A has |X| = A * N / 2
+        assertEquals(bin * rateHz / size, frequency[0], 1e-6);
+        assertEquals(2.0 * size / 2, magnitude[0], 1e-6 * size);
+    }
+
+    @Test
+    void channelsAreIndependent() {
+        int size = 256;
+        double[][] channels = new double[3][size];
+        int[] bins = {5, 40, 90};
+        for (int c = 0; c < 3; c++) {
+            for (int i = 0; i < size; i++) {
+                channels[c][i] = Math.cos(2 * Math.PI * bins[c] * i / size);
+            }
+        }
+        float[] magnitudes = new float[3];
+        float[] frequencies = new float[3];
+        new FftEngine().computePeaks(channels, new int[]{size, size, size}, new double[]{256, 256, 256},
+                magnitudes, frequencies);
+
+        for (int c = 0; c < 3; c++) {
+            assertEquals(bins[c], frequencies[c], 1e-9);
+        }
+    }
+
+    @Test
+    void rejectsChannelsTooShortForThePaddedSize() {
+        assertThrows(IllegalArgumentException.class, () -> new FftEngine().computePeaks(
+                new double[][]{new double[100]}, new int[]{100}, new double[]{50}, new float[1], new float[1]));
+    }
+
+    @Test
+    void concurrentCallsForNewSizesAgree() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            double[] signal = new double[3000];
+            Random random = new Random(12);
+            for (int i = 0; i < signal.length; i++) {
+                signal[i] = random.nextGaussian();
+            }
+            List<Future<float[]>> results = new ArrayList<>();
+            for (int task = 0; task < 64; task++) {
+                int length = 1 << (2 + task % 10);
+                results.add(pool.submit(() -> {
+                    float[] magnitude = new float[1];
+                    float[] frequency = new float[1];
+                    double[] data = new double[length];
+                    System.arraycopy(signal, 0, data, 0, length);
+                    new FftEngine().computePeaks(new double[][]{data}, new int[]{length}, new double[]{50},
+                            magnitude, frequency);
+                    return new float[]{length, magnitude[0], frequency[0]};
+                }));
+            }
+            for (Future<float[]> result : results) {
+                float[] value = result.get();
+                double[] data = new double[(int) value[0]];
+                System.arraycopy(signal, 0, data, 0, data.length);
+                double[] expected = naivePeak(data, data.length, 50);
+                assertEquals(expected[0], value[1], expected[0] * 1e-5);
+                assertEquals(expected[1], value[2], 1e-4);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static double[] paddedCopy(double[] signal) {
+        double[] copy = new double[FftEngine.paddedSize(signal.length)];
+        System.arraycopy(signal, 0, copy, 0, signal.length);
+        return copy;
+    }
+
+    /**
+     * Largest DFT bin in 1 .. size/2 - 1 of the zero-padded signal
+     *
+     * @return Magnitude and frequency of the peak
+     */
+    private static double[] naivePeak(double[] signal, int size, double rateHz) {
+        double best = 0;
+        int bestBin = 0;
+        for (int k = 1; k < size / 2; k++) {
+            double re = 0;
+            double im = 0;
+            for (int n = 0; n < signal.length; n++) {
+                double angle = -2 * Math.PI * k * n / size;
+                re += signal[n] * Math.cos(angle);
+                im += signal[n] * Math.sin(angle);
+            }
+            double magnitude = Math.hypot(re, im);
+            if (magnitude > best) {
+                best = magnitude;
+                bestBin = k;
+            }
+        }
+        return new double[]{best, bestBin * rateHz / size};
+    }
+}
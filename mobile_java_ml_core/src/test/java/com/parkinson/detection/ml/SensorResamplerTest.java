@@ -0,0 +1,154 @@
+package com.parkinson.detection.ml;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SensorResamplerTest {
+
+    private static final long PERIOD_NS = 20_000_000L;
+
+    @Test
+    void interpolatesJitteryStreamsOntoTheGrid() {
+        Recorder recorder = new Recorder();
+        SensorResampler resampler = new SensorResampler(50.0, recorder);
+        Random random = new Random(31);
+
+        // Linear signals are reproduced exactly by linear interpolation, whatever the jitter
+        long accelT = 3_000_000L;
+        long gyroT = 11_000_000L;
+        for (int i = 0; i < 500; i++) {
+            resampler.addAccelerometer(accelT, accel(accelT), 1f, -accel(accelT));
+            resampler.addGyroscope(gyroT, gyro(gyroT), 0f, 2f);
+            accelT += 5_000_000L + random.nextInt(10_000_000);
+            gyroT += 4_000_000L + random.nextInt(8_000_000);
+        }
+
+        assertTrue(recorder.frames.size() > 100);
+        for (int k = 0; k < recorder.frames.size(); k++) {
+            float[] frame = recorder.frames.get(k);
+            long t = recorder.timestamps.get(k);
+            // The grid starts at the first instant both streams have data
+            assertEquals(11_000_000L + k * PERIOD_NS, t);
+            assertEquals(accel(t), frame[0], 1e-3f);
+            assertEquals(1f, frame[1]);
+            assertEquals(-accel(t), frame[2], 1e-3f);
+            assertEquals(gyro(t), frame[3], 1e-3f);
+            assertEquals(2f, frame[5]);
+        }
+        assertEquals(recorder.frames.size(), resampler.frameCount());
+    }
+
+    @Test
+    void waitsForTheSlowerStream() {
+        Recorder recorder = new Recorder();
+        SensorResampler resampler = new SensorResampler(50.0, recorder);
+        for (int i = 0; i < 10; i++) {
+            resampler.addAccelerometer(i * PERIOD_NS, i, 0, 0);
+        }
+        resampler.addGyroscope(0, 0, 0, 0);
+        assertEquals(1, recorder.frames.size());
+
+        // A gyroscope sample at 2.5 periods releases frames 1 and 2 only
+        resampler.addGyroscope(5 * PERIOD_NS / 2, 5, 0, 0);
+        assertEquals(3, recorder.frames.size());
+        assertEquals(2 * PERIOD_NS, (long) recorder.timestamps.get(2));
+        assertEquals(2f, recorder.frames.get(2)[0]);
+        assertEquals(4f, recorder.frames.get(2)[3], 1e-6f);
+    }
+
+    @Test
+    void dropsSamplesWhoseTimestampDoesNotIncrease() {
+        Recorder recorder = new Recorder();
+        SensorResampler resampler = new SensorResampler(50.0, recorder);
+        resampler.addAccelerometer(0, 0, 0, 0);
+        resampler.addGyroscope(0, 0, 0, 0);
+        resampler.addAccelerometer(2 * PERIOD_NS, 2, 0, 0);
+        // Repeated and out-of-order samples would bend the interpolation if they were kept
+        resampler.addAccelerometer(2 * PERIOD_NS, 100, 0, 0);
+        resampler.addAccelerometer(PERIOD_NS, -100, 0, 0);
+        resampler.addGyroscope(2 * PERIOD_NS, 0, 0, 0);
+
+        assertEquals(3, recorder.frames.size());
+        assertEquals(1f, recorder.frames.get(1)[0], 1e-6f);
+        assertEquals(2f, recorder.frames.get(2)[0], 1e-6f);
+    }
+
+    @Test
+    void keepsEmittingAfterTheStagingBufferWraps() {
+        Recorder recorder = new Recorder();
+        SensorResampler resampler = new SensorResampler(50.0, recorder);
+        resampler.addAccelerometer(0, 0, 0, 0);
+        resampler.addGyroscope(0, 0, 0, 0);
+        // The accelerometer runs far ahead of a stalled gyroscope
+        for (int i = 1; i <= 3000; i++) {
+            resampler.addAccelerometer(i * PERIOD_NS, i, 0, 0);
+        }
+        assertEquals(1, recorder.frames.size());
+
+        resampler.addGyroscope(3000 * PERIOD_NS, 0, 0, 0);
+
+        assertEquals(3001, recorder.frames.size());
+        long previous = -1;
+        for (int k = 0; k < recorder.frames.size(); k++) {
+            long t = recorder.timestamps.get(k);
+            assertTrue(t > previous);
+            previous = t;
+        }
+        // Frames still covered by the staging buffer are interpolated normally
+        for (int k = 3000 - 1000; k <= 3000; k++) {
+            assertEquals(k, recorder.frames.get(k)[0], 1e-3f);
+        }
+    }
+
+    @Test
+    void clearRestartsTheGrid() {
+        Recorder recorder = new Recorder();
+        SensorResampler resampler = new SensorResampler(50.0, recorder);
+        for (int i = 0; i < 20; i++) {
+            resampler.addAccelerometer(i * PERIOD_NS, i, 0, 0);
+            resampler.addGyroscope(i * PERIOD_NS, i, 0, 0);
+        }
+        resampler.clear();
+        recorder.frames.clear();
+        recorder.timestamps.clear();
+
+        // Earlier timestamps are accepted again and start a new grid
+        resampler.addAccelerometer(7, 1, 0, 0);
+        resampler.addGyroscope(7, 1, 0, 0);
+        assertEquals(1, resampler.frameCount());
+        assertEquals(7L, (long) recorder.timestamps.get(0));
+    }
+
+    @Test
+    void rejectsNonPositiveRate() {
+        assertThrows(IllegalArgumentException.class, () -> new SensorResampler(0, new Recorder()));
+        assertThrows(IllegalArgumentException.class, () -> new SensorResampler(Double.NaN, new Recorder()));
+    }
+
+    private static float accel(long t) {
+        return 0.5f + t * 1e-9f;
+    }
+
+    private static float gyro(long t) {
+        return -1f + 2 * t * 1e-9f;
+    }
+
+    private static final class Recorder implements SensorResampler.FrameListener {
+        final List<Long> timestamps = new ArrayList<>();
+        final List<float[]> frames = new ArrayList<>();
+
+        @Override
+        public void onFrame(long timestampNs, float accelX, float accelY, float accelZ,
+                            float gyroX, float gyroY, float gyroZ) {
+            timestamps.add(timestampNs);
+            frames.add(new float[]{accelX, accelY, accelZ, gyroX, gyroY, gyroZ});
+        }
+    }
+}
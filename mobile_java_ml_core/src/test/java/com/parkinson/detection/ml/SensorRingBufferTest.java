@@ -0,0 +1,127 @@
+package com.parkinson.detection.ml;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SensorRingBufferTest {
+
+    private static final long PERIOD_NS = 20_000_000L;
+
+    @Test
+    void keepsTheLatestSamplesInChronologicalOrder() {
+        SensorRingBuffer buffer = new SensorRingBuffer(4);
+        for (int i = 0; i < 10; i++) {
+            buffer.add(i * PERIOD_NS, i, -i, 2 * i);
+        }
+
+        assertEquals(10, buffer.count());
+        assertEquals(4, buffer.size());
+        assertFalse(buffer.isRetained(5));
+        assertTrue(buffer.isRetained(6));
+        assertTrue(buffer.isRetained(9));
+        assertFalse(buffer.isRetained(10));
+
+        double[] x = new double[4];
+        assertEquals(4, buffer.copyAxis(SensorRingBuffer.AXIS_X, x));
+        assertArrayEquals(new double[]{6, 7, 8, 9}, x);
+        assertEquals(-7f, buffer.get(SensorRingBuffer.AXIS_Y, 7));
+        assertEquals(9 * PERIOD_NS, buffer.getTimestamp(9));
+        assertEquals(50.0, buffer.sampleRateHz(), 1e-9);
+    }
+
+    @Test
+    void statisticsMatchTwoPassBeforeTheBufferWraps() {
+        SensorRingBuffer buffer = new SensorRingBuffer(1000);
+        float[] values = randomValues(new Random(1), 700, 3f, 0.5f);
+        for (int i = 0; i < values.length; i++) {
+            buffer.add(i * PERIOD_NS, values[i], 0, 0);
+        }
+
+        assertEquals(mean(values, 0, values.length), buffer.mean(SensorRingBuffer.AXIS_X), 1e-9);
+        assertEquals(std(values, 0, values.length), buffer.std(SensorRingBuffer.AXIS_X), 1e-9);
+    }
+
+    @Test
+    void statisticsCoverOnlyTheRetainedWindowAfterWrapping() {
+        int capacity = 256;
+        SensorRingBuffer buffer = new SensorRingBuffer(capacity);
+        Random random = new Random(2);
+        // A level shift halfway through: whole-recording statistics would differ clearly
+        float[] early = randomValues(random, 5000, 0f, 1f);
+        float[] late = randomValues(random, 5000 + 37, 10f, 2f);
+        float[] values = new float[early.length + late.length];
+        System.arraycopy(early, 0, values, 0, early.length);
+        System.arraycopy(late, 0, values, early.length, late.length);
+
+        for (int i = 0; i < values.length; i++) {
+            buffer.add(i * PERIOD_NS, values[i], -values[i], 0);
+            if (i >= capacity && i % 97 == 0) {
+                int from = i + 1 - capacity;
+                assertEquals(mean(values, from, i + 1), buffer.mean(SensorRingBuffer.AXIS_X), 1e-6);
+                assertEquals(std(values, from, i + 1), buffer.std(SensorRingBuffer.AXIS_X), 1e-6);
+            }
+        }
+
+        int from = values.length - capacity;
+        assertEquals(mean(values, from, values.length), buffer.mean(SensorRingBuffer.AXIS_X), 1e-6);
+        assertEquals(-mean(values, from, values.length), buffer.mean(SensorRingBuffer.AXIS_Y), 1e-6);
+        assertEquals(std(values, from, values.length), buffer.std(SensorRingBuffer.AXIS_X), 1e-6);
+        assertEquals(0.0, buffer.std(SensorRingBuffer.AXIS_Z));
+    }
+
+    @Test
+    void clearResetsCountAndStatistics() {
+        SensorRingBuffer buffer = new SensorRingBuffer(8);
+        for (int i = 0; i < 20; i++) {
+            buffer.add(i * PERIOD_NS, i, i, i);
+        }
+        buffer.clear();
+
+        assertEquals(0, buffer.count());
+        assertEquals(0, buffer.size());
+        assertEquals(0.0, buffer.mean(SensorRingBuffer.AXIS_X));
+        assertEquals(0.0, buffer.std(SensorRingBuffer.AXIS_X));
+
+        buffer.add(0, 4, 4, 4);
+        buffer.add(PERIOD_NS, 6, 6, 6);
+        assertEquals(5.0, buffer.mean(SensorRingBuffer.AXIS_Z), 1e-12);
+        assertEquals(1.0, buffer.std(SensorRingBuffer.AXIS_Z), 1e-12);
+    }
+
+    @Test
+    void rejectsNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new SensorRingBuffer(0));
+    }
+
+    private static float[] randomValues(Random random, int count, float mean, float std) {
+        float[] values = new float[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = (float) (mean + std * random.nextGaussian());
+        }
+        return values;
+    }
+
+    private static double mean(float[] values, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        return sum / (to - from);
+    }
+
+    private static double std(float[] values, int from, int to) {
+        double mean = mean(values, from, to);
+        double squares = 0;
+        for (int i = from; i < to; i++) {
+            squares += (values[i] - mean) * (values[i] - mean);
+        }
+        return Math.sqrt(squares / (to - from));
+    }
+}
@@ -0,0 +1,194 @@
+package com.parkinson.detection.ml;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SensorTraceWriterTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    void roundTripsWithinTheQuantizationStep() throws IOException {
+        File target = new File(directory, "trace.bin");
+        Samples accel = new Samples(new Random(41), 5000, 5_000_000L, 9.81f);
+        Samples gyro = new Samples(new Random(42), 4000, 6_250_000L, 0f);
+        try (SensorTraceWriter writer = new SensorTraceWriter(target)) {
+            write(writer, accel, gyro);
+            assertEquals(9000, writer.sampleCount());
+        }
+
+        SensorTrace trace = SensorTrace.read(target);
+        assertMatches(accel, trace.accelerometer(), accel.count, SensorTraceWriter.DEFAULT_ACCEL_STEP);
+        assertMatches(gyro, trace.gyroscope(), gyro.count, SensorTraceWriter.DEFAULT_GYRO_STEP);
+        // Well under the CSV equivalent, and the file is trimmed to its content
+        assertTrue(target.length() < 9000 * 12, "trace is " + target.length() + " bytes");
+    }
+
+    @Test
+    void unclosedFileLosesAtMostOneSecondPerSensor() throws IOException {
+        File target = new File(directory, "crashed.bin");
+        // 50 Hz: a 256-sample block would hold five seconds
+        Samples accel = new Samples(new Random(43), 1000, 20_000_000L, 0.5f);
+        Samples gyro = new Samples(new Random(44), 1000, 20_000_000L, 0f);
+        SensorTraceWriter writer = new SensorTraceWriter(target);
+        try {
+            write(writer, accel, gyro);
+
+            // Read while the writer is still open, as after a crash
+            SensorTrace trace = SensorTrace.read(target);
+            assertRecoveredPrefix(accel, trace.accelerometer(), SensorTraceWriter.DEFAULT_ACCEL_STEP);
+            assertRecoveredPrefix(gyro, trace.gyroscope(), SensorTraceWriter.DEFAULT_GYRO_STEP);
+        } finally {
+            writer.close();
+        }
+
+        SensorTrace closed = SensorTrace.read(target);
+        assertEquals(1000, closed.accelerometer().size());
+        assertEquals(1000, closed.gyroscope().size());
+    }
+
+    @Test
+    void emptyTraceHasNoSamples() throws IOException {
+        File target = new File(directory, "empty.bin");
+        new SensorTraceWriter(target).close();
+
+        SensorTrace trace = SensorTrace.read(target);
+        assertEquals(0, trace.accelerometer().size());
+        assertEquals(0, trace.gyroscope().size());
+        assertEquals(SensorTraceWriter.HEADER_BYTES, target.length());
+    }
+
+    @Test
+    void rejectsAFileThatIsNotATrace() throws IOException {
+        File target = new File(directory, "other.bin");
+        try (RandomAccessFile file = new RandomAccessFile(target, "rw")) {
+            file.write(new byte[64]);
+        }
+
+        assertThrows(IOException.class, () -> SensorTrace.read(target));
+    }
+
+    @Test
+    void validateCountsSamplesWithoutDecoding() throws IOException {
+        File target = new File(directory, "valid.bin");
+        try (SensorTraceWriter writer = new SensorTraceWriter(target)) {
+            write(writer, new Samples(new Random(45), 700, 5_000_000L, 9.81f),
+                    new Samples(new Random(46), 600, 5_000_000L, 0f));
+        }
+
+        assertEquals(1300, SensorTrace.validate(target));
+    }
+
+    @Test
+    void validateRejectsADamagedBlock() throws IOException {
+        File target = new File(directory, "damaged.bin");
+        try (SensorTraceWriter writer = new SensorTraceWriter(target)) {
+            write(writer, new Samples(new Random(47), 300, 5_000_000L, 9.81f),
+                    new Samples(new Random(48), 300, 5_000_000L, 0f));
+        }
+        try (RandomAccessFile file = new RandomAccessFile(target, "rw")) {
+            // Split one varint into two inside the first block's payload
+            long position = SensorTraceWriter.HEADER_BYTES + 10;
+            file.seek(position);
+            int b = file.read();
+            file.seek(position);
+            file.write(b ^ 0x80);
+        }
+
+        assertThrows(IOException.class, () -> SensorTrace.validate(target));
+    }
+
+    @Test
+    void validateRejectsATruncatedFile() throws IOException {
+        File target = new File(directory, "truncated.bin");
+        try (SensorTraceWriter writer = new SensorTraceWriter(target)) {
+            write(writer, new Samples(new Random(49), 300, 5_000_000L, 9.81f),
+                    new Samples(new Random(50), 300, 5_000_000L, 0f));
+        }
+        try (RandomAccessFile file = new RandomAccessFile(target, "rw")) {
+            file.setLength(file.length() - 7);
+        }
+
+        assertThrows(IOException.class, () -> SensorTrace.validate(target));
+    }
+
+    @Test
+    void rejectsWritesAfterClose() throws IOException {
+        SensorTraceWriter writer = new SensorTraceWriter(new File(directory, "closed.bin"));
+        writer.close();
+
+        assertThrows(IllegalStateException.class, () -> writer.addAccelerometer(0, 0, 0, 0));
+    }
+
+    private static void write(SensorTraceWriter writer, Samples accel, Samples gyro) throws IOException {
+        int a = 0;
+        int g = 0;
+        // Interleave by time, as the sensors deliver them
+        while (a < accel.count || g < gyro.count) {
+            if (g >= gyro.count || (a < accel.count && accel.timestamps[a] <= gyro.timestamps[g])) {
+                writer.addAccelerometer(accel.timestamps[a], accel.x[a], accel.y[a], accel.z[a]);
+                a++;
+            } else {
+                writer.addGyroscope(gyro.timestamps[g], gyro.x[g], gyro.y[g], gyro.z[g]);
+                g++;
+            }
+        }
+    }
+
+    private static void assertRecoveredPrefix(Samples expected, SensorTrace.Stream actual, float step) {
+        int recovered = actual.size();
+        assertTrue(recovered < expected.count, "some samples should still be in the open block");
+        long lostNs = expected.timestamps[expected.count - 1] - expected.timestamps[recovered];
+        assertTrue(lostNs < 1_000_000_000L, "lost " + lostNs + " ns of samples");
+        assertMatches(expected, actual, recovered, step);
+    }
+
+    private static void assertMatches(Samples expected, SensorTrace.Stream actual, int count, float step) {
+        assertEquals(count, actual.size());
+        float tolerance = step / 2 * 1.01f;
+        for (int i = 0; i < count; i++) {
+            // Timestamps are kept at microsecond resolution
+            assertEquals(expected.timestamps[i] / 1000 * 1000, actual.timestampsNs[i], "timestamp " + i);
+            assertEquals(expected.x[i], actual.x[i], tolerance, "x " + i);
+            assertEquals(expected.y[i], actual.y[i], tolerance, "y " + i);
+            assertEquals(expected.z[i], actual.z[i], tolerance, "z " + i);
+        }
+    }
+
+    /**
+     * Noisy samples with a jittery timestamp around a nominal period
+     */
+    private static final class Samples {
+        final int count;
+        final long[] timestamps;
+        final float[] x;
+        final float[] y;
+        final float[] z;
+
+        Samples(Random random, int count, long periodNs, float offsetZ) {
+            this.count = count;
+            timestamps = new long[count];
+            x = new float[count];
+            y = new float[count];
+            z = new float[count];
+            long t = 1_700_000_000_123_456_789L;
+            for (int i = 0; i < count; i++) {
+                t += periodNs + random.nextInt(200_000) - 100_000;
+                timestamps[i] = t;
+                x[i] = (float) Math.sin(i * 0.3) + 0.05f * (float) random.nextGaussian();
+                y[i] = 0.2f * (float) random.nextGaussian();
+                z[i] = offsetZ + 0.1f * (float) random.nextGaussian();
+            }
+        }
+    }
+}
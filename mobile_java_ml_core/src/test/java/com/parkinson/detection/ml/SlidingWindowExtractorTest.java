@@ -0,0 +1,77 @@
+package com.parkinson.detection.ml;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SlidingWindowExtractorTest {
+
+    private static final double RATE_HZ = 50.0;
+    private static final long PERIOD_NS = 20_000_000L;
+    private static final int WINDOW = 256;
+    private static final int HOP = 128;
+    private static final int CAPACITY = 1024;
+
+    @Test
+    void firstWindowMatchesTheWholeRecordingFeatures() {
+        List<float[]> windows = new ArrayList<>();
+        SlidingWindowExtractor sliding = new SlidingWindowExtractor(WINDOW, HOP, RATE_HZ, CAPACITY,
+                (index, features) -> windows.add(features.clone()));
+        FeatureExtractor whole = new FeatureExtractor(CAPACITY, RATE_HZ);
+
+        feed(sliding, whole, WINDOW);
+
+        assertEquals(1, windows.size());
+        assertArrayEquals(whole.extractFeatures(), windows.get(0), 1e-3f);
+    }
+
+    @Test
+    void windowPeaksFollowTheWholeRecordingAsItGrows() {
+        List<float[]> windows = new ArrayList<>();
+        SlidingWindowExtractor sliding = new SlidingWindowExtractor(WINDOW, HOP, RATE_HZ, CAPACITY,
+                (index, features) -> windows.add(features.clone()));
+        FeatureExtractor whole = new FeatureExtractor(CAPACITY, RATE_HZ);
+
+        // Windows end at frames 256, 384, ..., 1024
+        feed(sliding, whole, CAPACITY);
+
+        assertEquals(7, windows.size());
+        float[] expected = whole.extractFeatures();
+        float[] last = windows.get(6);
+        for (int i = 12; i < 18; i++) {
+            assertEquals(expected[i], last[i], 1e-2f, "feature " + i);
+        }
+    }
+
+    @Test
+    void rejectsAReferenceShorterThanTheWindow() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SlidingWindowExtractor(WINDOW, HOP, RATE_HZ, WINDOW - 1, (index, features) -> { }));
+    }
+
+    /**
+     * A steady tremor on every channel, at a frequency that falls on a bin of both transforms
+     */
+    private static void feed(SlidingWindowExtractor sliding, FeatureExtractor whole, int frames) {
+        double hz = 16 * RATE_HZ / WINDOW;
+        for (int i = 0; i < frames; i++) {
+            long t = i * PERIOD_NS;
+            double phase = 2 * Math.PI * hz * i / RATE_HZ;
+            float ax = (float) (0.8 * Math.sin(phase));
+            float ay = (float) (0.3 * Math.cos(phase));
+            float az = (float) (9.81 + 0.2 * Math.sin(phase));
+            float gx = (float) (0.5 * Math.sin(phase + 0.4));
+            float gy = (float) (0.1 * Math.cos(phase));
+            float gz = (float) (0.05 * Math.sin(phase));
+            sliding.addAccelerometerData(t, ax, ay, az);
+            sliding.addGyroscopeData(t, gx, gy, gz);
+            whole.addAccelerometerData(t, ax, ay, az);
+            whole.addGyroscopeData(t, gx, gy, gz);
+        }
+    }
+}
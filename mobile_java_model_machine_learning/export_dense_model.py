@@ -0,0 +1,243 @@
+"""
+Export the Parkinson's detection network to the flat ``.dense`` weight format
+read by the pure-Java evaluator (``DenseNetwork`` in the app and the backend).
+
+File layout, all little-endian:
+
+    magic        4 bytes  b"PDNN"
+    version      int32    1
+    layer_count  int32
+    sigmoid      int32    1 if a sigmoid follows the last layer
+    per layer:
+        inputs       int32
+        outputs      int32
+        activation   int32    0 = none, 1 = relu
+        weights      float32[outputs * inputs]   row-major [out][in]
+        bias         float32[outputs]
+
+Two sources are supported:
+
+* ``.h5``     Keras model. Dropout is dropped and every BatchNormalization is
+              folded into the Dense layer that follows it (or the one before it
+              when it is the last layer), so the result is a plain dense chain.
+              Needs tensorflow.
+* ``.tflite`` Converted model. The converter has already folded batch norm, so
+              the FULLY_CONNECTED weights are copied as-is. Needs only the
+              standard library.
+
+Usage:
+    python export_dense_model.py best_parkinsons_model.h5 parkinsons_model.dense
+    python export_dense_model.py parkinsons_model.tflite parkinsons_model.dense
+"""
+
+import struct
+import sys
+
+MAGIC = b"PDNN"
+VERSION = 1
+ACTIVATION_NONE = 0
+ACTIVATION_RELU = 1
+
+
+def write_dense(path, layers, sigmoid):
+    """layers: list of (inputs, outputs, activation, weights[out*in], bias[out])"""
+    with open(path, "wb") as f:
+        f.write(MAGIC)
+        f.write(struct.pack("<iii", VERSION, len(layers), 1 if sigmoid else 0))
+        for inputs, outputs, activation, weights, bias in layers:
+            assert len(weights) == inputs * outputs and len(bias) == outputs
+            f.write(struct.pack("<iii", inputs, outputs, activation))
+            f.write(struct.pack("<%df" % len(weights), *weights))
+            f.write(struct.pack("<%df" % len(bias), *bias))
+
+
+def read_dense(path):
+    """Inverse of write_dense, used by the verification script"""
+    with open(path, "rb") as f:
+        data = f.read()
+    if data[:4] != MAGIC:
+        raise ValueError("Not a dense model file: %s" % path)
+    version, count, sigmoid = struct.unpack_from("<iii", data, 4)
+    if version != VERSION:
+        raise ValueError("Unsupported dense model version %d" % version)
+    pos = 16
+    layers = []
+    for _ in range(count):
+        inputs, outputs, activation = struct.unpack_from("<iii", data, pos)
+        pos += 12
+        weights = list(struct.unpack_from("<%df" % (inputs * outputs), data, pos))
+        pos += 4 * inputs * outputs
+        bias = list(struct.unpack_from("<%df" % outputs, data, pos))
+        pos += 4 * outputs
+        layers.append((inputs, outputs, activation, weights, bias))
+    return layers, sigmoid == 1
+
+
+# --- Keras .h5 source ---
+
+def layers_from_h5(path):
+    import numpy as np
+    import tensorflow as tf
+
+    model = tf.keras.models.load_model(path)
+    dense = []          # [kernel[in][out], bias[out], activation name]
+    pending_scale = None  # BatchNorm seen after the previous Dense, waiting for the next one
+    pending_shift = None
+
+    for layer in model.layers:
+        kind = layer.__class__.__name__
+        if kind == "Dropout" or kind == "InputLayer":
+            continue
+        if kind == "BatchNormalization":
+            gamma, beta, mean, var = [w.astype(np.float64) for w in layer.get_weights()]
+            scale = gamma / np.sqrt(var + layer.epsilon)
+            pending_scale, pending_shift = scale, beta - mean * scale
+            continue
+        if kind != "Dense":
+            raise ValueError("Unsupported Keras layer %s" % kind)
+
+        kernel, bias = [w.astype(np.float64) for w in layer.get_weights()]
+        if pending_scale is not None:
+            # W (a*x + c) + b = (W diag(a)) x + (W c + b)
+            bias = bias + pending_shift @ kernel
+            kernel = kernel * pending_scale[:, None]
+            pending_scale = pending_shift = None
+        dense.append([kernel, bias, layer.get_config()["activation"]])
+
+    if pending_scale is not None:
+        # Trailing batch norm folds into the last Dense instead
+        kernel, bias, activation = dense[-1]
+        if activation not in ("linear", "sigmoid"):
+            raise ValueError("Cannot fold trailing batch norm after %s" % activation)
+        dense[-1][0] = kernel * pending_scale[None, :]
+        dense[-1][1] = bias * pending_scale + pending_shift
+
+    layers = []
+    sigmoid = False
+    for index, (kernel, bias, activation) in enumerate(dense):
+        if activation == "relu":
+            code = ACTIVATION_RELU
+        elif activation == "linear":
+            code = ACTIVATION_NONE
+        elif activation == "sigmoid" and index == len(dense) - 1:
+            code, sigmoid = ACTIVATION_NONE, True
+        else:
+            raise ValueError("Unsupported activation %s" % activation)
+        inputs, outputs = kernel.shape
+        weights = kernel.T.astype(np.float32).ravel().tolist()
+        layers.append((inputs, outputs, code, weights, bias.astype(np.float32).tolist()))
+    return layers, sigmoid
+
+
+# --- TFLite flatbuffer source ---
+
+OP_FULLY_CONNECTED = 9
+OP_LOGISTIC = 14
+
+
+class _FlatBuffer:
+    def __init__(self, data):
+        self.data = data
+
+    def i32(self, pos):
+        return struct.unpack_from("<i", self.data, pos)[0]
+
+    def indirect(self, pos):
+        return pos + self.i32(pos)
+
+    def field(self, table, index):
+        vtable = table - self.i32(table)
+        size = struct.unpack_from("<H", self.data, vtable)[0]
+        entry = 4 + 2 * index
+        if entry >= size:
+            return None
+        offset = struct.unpack_from("<H", self.data, vtable + entry)[0]
+        return table + offset if offset else None
+
+    def vector(self, table, index):
+        pos = self.field(table, index)
+        if pos is None:
+            return None, 0
+        start = self.indirect(pos)
+        return start + 4, self.i32(start)
+
+    def tables(self, table, index):
+        start, count = self.vector(table, index)
+        return [self.indirect(start + 4 * i) for i in range(count)]
+
+    def ints(self, table, index):
+        start, count = self.vector(table, index)
+        return [self.i32(start + 4 * i) for i in range(count)]
+
+    def byte(self, table, index, default=0):
+        pos = self.field(table, index)
+        return self.data[pos] if pos is not None else default
+
+
+def layers_from_tflite(path):
+    with open(path, "rb") as f:
+        fb = _FlatBuffer(f.read())
+
+    model = fb.indirect(0)
+    opcodes = []
+    for code in fb.tables(model, 1):
+        builtin = fb.field(code, 3)
+        opcodes.append(max(fb.byte(code, 0), fb.i32(builtin) if builtin is not None else 0))
+    buffers = fb.tables(model, 4)
+    subgraph = fb.tables(model, 2)[0]
+    tensors = fb.tables(subgraph, 0)
+
+    def floats(tensor, count):
+        if fb.byte(tensor, 1) != 0:
+            raise ValueError("Only float32 tensors are supported")
+        buffer_index = fb.i32(fb.field(tensor, 2))
+        start, length = fb.vector(buffers[buffer_index], 0)
+        if length != 4 * count:
+            raise ValueError("Tensor data does not match its shape")
+        return list(struct.unpack_from("<%df" % count, fb.data, start))
+
+    layers = []
+    sigmoid = False
+    for op in fb.tables(subgraph, 3):
+        index_pos = fb.field(op, 0)
+        opcode = opcodes[fb.i32(index_pos) if index_pos is not None else 0]
+        if sigmoid:
+            raise ValueError("LOGISTIC must be the last operator")
+        if opcode == OP_LOGISTIC:
+            sigmoid = True
+            continue
+        if opcode != OP_FULLY_CONNECTED:
+            raise ValueError("Unsupported TFLite operator %d" % opcode)
+
+        inputs = fb.ints(op, 1)
+        outputs, width = fb.ints(tensors[inputs[1]], 0)
+        weights = floats(tensors[inputs[1]], outputs * width)
+        bias = floats(tensors[inputs[2]], outputs) if len(inputs) > 2 and inputs[2] >= 0 else [0.0] * outputs
+        options = fb.field(op, 4)
+        fused = fb.byte(fb.indirect(options), 0) if options is not None else 0
+        if fused not in (ACTIVATION_NONE, ACTIVATION_RELU):
+            raise ValueError("Unsupported fused activation %d" % fused)
+        layers.append((width, outputs, fused, weights, bias))
+    return layers, sigmoid
+
+
+def main(argv):
+    if len(argv) != 3:
+        print(__doc__)
+        return 1
+    source, output = argv[1], argv[2]
+    if source.endswith(".h5"):
+        layers, sigmoid = layers_from_h5(source)
+    elif source.endswith(".tflite"):
+        layers, sigmoid = layers_from_tflite(source)
+    else:
+        raise ValueError("Unknown model format: %s" % source)
+
+    write_dense(output, layers, sigmoid)
+    shape = " -> ".join(str(layer[0]) for layer in layers) + " -> %d" % layers[-1][1]
+    print("Wrote %s: %s%s" % (output, shape, " -> sigmoid" if sigmoid else ""))
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main(sys.argv))
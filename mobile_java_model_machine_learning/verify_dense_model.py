@@ -0,0 +1,97 @@
+"""
+Check the exported ``.dense`` weights against the TFLite model on the
+synthetic dataset.
+
+Each CSV row is standardized with ``parkinsons_scaler.pkl`` and scored twice:
+
+* by the TFLite interpreter, and
+* by a float32 replica of the Java ``DenseNetwork.evaluate`` loop. The replica
+  uses the same accumulation order (bias first, then inputs in order, product
+  rounded before each add) and the same double-precision sigmoid, so its output
+  is bit-identical to what the JVM and ART compute.
+
+The script reports how many rows match bit for bit and the largest difference in
+float32 ULPs. It exits non-zero if any row differs by more than ``--max-ulp``
+(0 by default, i.e. exact).
+
+Usage:
+    python verify_dense_model.py [--max-ulp N]
+"""
+
+import argparse
+import math
+import sys
+
+import joblib
+import numpy as np
+import pandas as pd
+import tensorflow as tf
+
+from export_dense_model import ACTIVATION_RELU, read_dense
+
+
+def java_evaluate(layers, sigmoid, x):
+    """Replicates DenseNetwork.evaluate for a [rows, inputs] float32 matrix"""
+    source = x.astype(np.float32)
+    for inputs, outputs, activation, weights, bias in layers:
+        w = np.asarray(weights, dtype=np.float32).reshape(outputs, inputs)
+        acc = np.tile(np.asarray(bias, dtype=np.float32), (source.shape[0], 1))
+        for i in range(inputs):
+            acc = acc + source[:, i:i + 1] * w[:, i]
+        if activation == ACTIVATION_RELU:
+            acc = np.where(acc < 0, np.float32(0), acc)
+        source = acc
+    if sigmoid:
+        source = np.array([[np.float32(1.0 / (1.0 + math.exp(-float(v)))) for v in row] for row in source],
+                          dtype=np.float32)
+    return source
+
+
+def tflite_evaluate(path, x):
+    interpreter = tf.lite.Interpreter(model_path=path)
+    input_index = interpreter.get_input_details()[0]["index"]
+    output_index = interpreter.get_output_details()[0]["index"]
+    interpreter.allocate_tensors()
+    out = np.empty((x.shape[0], 1), dtype=np.float32)
+    for row in range(x.shape[0]):
+        interpreter.set_tensor(input_index, x[row:row + 1].astype(np.float32))
+        interpreter.invoke()
+        out[row] = interpreter.get_tensor(output_index)[0]
+    return out
+
+
+def ulp_distance(a, b):
+    # Map float32 bit patterns onto a monotonic integer line
+    ia = a.view(np.int32).astype(np.int64)
+    ib = b.view(np.int32).astype(np.int64)
+    ia = np.where(ia < 0, -(ia & 0x7FFFFFFF), ia)
+    ib = np.where(ib < 0, -(ib & 0x7FFFFFFF), ib)
+    return np.abs(ia - ib)
+
+
+def main():
+    parser = argparse.ArgumentParser()
+    parser.add_argument("--data", default="parkinsons_synthetic_data.csv")
+    parser.add_argument("--scaler", default="parkinsons_scaler.pkl")
+    parser.add_argument("--tflite", default="parkinsons_model.tflite")
+    parser.add_argument("--dense", default="parkinsons_model.dense")
+    parser.add_argument("--max-ulp", type=int, default=0)
+    args = parser.parse_args()
+
+    df = pd.read_csv(args.data)
+    features = df.drop(columns=["label", "has_parkinson"]).values
+    x = joblib.load(args.scaler).transform(features).astype(np.float32)
+
+    layers, sigmoid = read_dense(args.dense)
+    expected = tflite_evaluate(args.tflite, x)
+    actual = java_evaluate(layers, sigmoid, x)
+
+    ulps = ulp_distance(expected.ravel(), actual.ravel())
+    exact = int((ulps == 0).sum())
+    print("Rows: %d, bit-identical: %d, max ULP difference: %d" % (len(ulps), exact, ulps.max()))
+    print("Max absolute difference: %g" % np.abs(expected - actual).max())
+    return 0 if ulps.max() <= args.max_ulp else 1
+
+
+if __name__ == "__main__":
+    sys.exit(main())
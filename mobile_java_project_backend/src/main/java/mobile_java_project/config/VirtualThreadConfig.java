@@ -0,0 +1,22 @@
+package mobile_java_project.config;
+
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Guard for the {@code virtual} profile. Before Java 21 Spring silently ignores
+ * {@code spring.threads.virtual.enabled}, which would leave Tomcat's worker pool and the
+ * concurrency limit both in place under a profile that claims otherwise, so startup fails.
+ */
+@Configuration
+@Profile("virtual")
+public class VirtualThreadConfig {
+
+    public VirtualThreadConfig() {
+        if (!JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)) {
+            throw new IllegalStateException("The virtual profile needs Java 21 or newer, running on Java "
+                    + System.getProperty("java.specification.version"));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package mobile_java_project.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mobile_java_project.security.CurrentUserIdArgumentResolver;
+import mobile_java_project.web.ConcurrencyLimitFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private final CurrentUserIdArgumentResolver currentUserIdArgumentResolver;
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(currentUserIdArgumentResolver);
+    }
+
+    /**
+     * Request concurrency limit, registered ahead of the security filters so rejected
+     * requests cost nothing. Unless set explicitly, the limit is the JDBC pool size times
+     * the permits per connection: requests also spend time outside transactions, so the
+     * pool stays busy without a long queue building up in front of it.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.concurrency.enabled", havingValue = "true")
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            DataSource dataSource,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.concurrency.max-concurrent:0}") int maxConcurrent,
+            @Value("${app.concurrency.permits-per-connection:4}") int permitsPerConnection,
+            @Value("${app.concurrency.queue-timeout-ms:500}") long queueTimeoutMillis) {
+        int limit = maxConcurrent > 0 ? maxConcurrent : poolSize(dataSource) * permitsPerConnection;
+        log.info("Limiting request concurrency to {}", limit);
+
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(limit, queueTimeoutMillis, objectMapper, meterRegistry));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            return hikari.getMaximumPoolSize();
+        }
+        return DEFAULT_POOL_SIZE;
+    }
+}
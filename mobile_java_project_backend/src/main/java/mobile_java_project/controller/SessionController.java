@@ -2,22 +2,31 @@ package mobile_java_project.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import mobile_java_project.dto.session.SessionBatchRequest;
+import mobile_java_project.dto.session.SessionBatchResponse;
+import mobile_java_project.dto.session.SessionChangesResponse;
 import mobile_java_project.dto.session.SessionCreateRequest;
+import mobile_java_project.dto.session.SessionPageResponse;
 import mobile_java_project.dto.session.SessionResponse;
-import mobile_java_project.entity.User;
-import mobile_java_project.repository.UserRepository;
+import mobile_java_project.dto.session.SessionScoreResponse;
+import mobile_java_project.dto.session.TraceUploadInitRequest;
+import mobile_java_project.dto.session.TraceUploadResponse;
+import mobile_java_project.security.CurrentUserId;
+import mobile_java_project.service.InferenceService;
 import mobile_java_project.service.SessionService;
+import mobile_java_project.service.TraceUploadService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -27,48 +36,64 @@ import java.util.List;
 public class SessionController {
 
     private final SessionService sessionService;
-    private final UserRepository userRepository;
+    private final InferenceService inferenceService;
+    private final TraceUploadService traceUploadService;
 
     @PostMapping("/save")
     @Operation(summary = "Save a new session", 
                description = "Saves a new session with sensor data and prediction")
     public ResponseEntity<SessionResponse> saveSession(
-            Authentication authentication,
+            @CurrentUserId Long userId,
             @Valid @RequestBody SessionCreateRequest request) {
         
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        
-        return ResponseEntity.ok(sessionService.saveSession(user.getId(), request));
+        return ResponseEntity.ok(sessionService.saveSession(userId, request));
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Save many sessions at once", 
+               description = "Saves up to 500 sessions in one transaction and reports the outcome of each")
+    public ResponseEntity<SessionBatchResponse> saveSessions(
+            @CurrentUserId Long userId,
+            @Valid @RequestBody SessionBatchRequest request) {
+        return ResponseEntity.ok(sessionService.saveSessions(userId, request.getSessions()));
+    }
+
+    @PostMapping("/score")
+    @Operation(summary = "Score session features", 
+               description = "Runs the server-side model on the 21 session features without saving them")
+    public ResponseEntity<SessionScoreResponse> scoreSession(@RequestBody SessionCreateRequest request) {
+        return ResponseEntity.ok(inferenceService.score(request));
     }
 
     @GetMapping("/history")
     @Operation(summary = "Get session history", 
                description = "Returns all sessions for the authenticated user")
-    public ResponseEntity<List<SessionResponse>> getSessionHistory(Authentication authentication) {
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        
-        return ResponseEntity.ok(sessionService.getUserSessions(user.getId()));
+    public ResponseEntity<List<SessionResponse>> getSessionHistory(@CurrentUserId Long userId) {
+        return ResponseEntity.ok(sessionService.getUserSessions(userId));
+    }
+
+    @GetMapping("/changes")
+    @Operation(summary = "Get session changes", 
+               description = "Returns sessions created or updated after the given cursor, oldest change first, "
+                       + "with the cursor to pass on the next call")
+    public ResponseEntity<SessionChangesResponse> getSessionChanges(
+            @CurrentUserId Long userId,
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(sessionService.getSessionChanges(userId, since, limit));
     }
 
     @GetMapping
     @Operation(summary = "Get paginated session history", 
                description = "Returns paginated sessions for the authenticated user with sorting and filtering options")
     public ResponseEntity<Page<SessionResponse>> getSessionsPaginated(
-            Authentication authentication,
+            @CurrentUserId Long userId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) Integer prediction,
             @RequestParam(defaultValue = "timestamp") String sort,
             @RequestParam(defaultValue = "desc") String direction) {
         
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        
         Sort.Direction sortDirection = direction.equalsIgnoreCase("asc") ? 
                 Sort.Direction.ASC : Sort.Direction.DESC;
         
@@ -76,13 +101,26 @@ public class SessionController {
         
         if (prediction != null) {
             return ResponseEntity.ok(
-                    sessionService.getUserSessionsByPrediction(user.getId(), prediction, pageable));
+                    sessionService.getUserSessionsByPrediction(userId, prediction, pageable));
         } else {
             return ResponseEntity.ok(
-                    sessionService.getUserSessionsPaginated(user.getId(), pageable));
+                    sessionService.getUserSessionsPaginated(userId, pageable));
         }
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "Scroll through session history", 
+               description = "Returns sessions newest first, continuing after the cursor of the previous page. "
+                       + "Unlike the paginated endpoint, deep pages cost no more than the first and no total is counted")
+    public ResponseEntity<SessionPageResponse> scrollSessions(
+            @CurrentUserId Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) Integer prediction) {
+        return ResponseEntity.ok(
+                sessionService.getUserSessionsPage(userId, prediction, cursor, size));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get session by ID", 
                description = "Returns a specific session by its ID")
@@ -90,4 +128,35 @@ public class SessionController {
             @PathVariable Long id) {
         return ResponseEntity.ok(sessionService.getSession(id));
     }
-} 
\ No newline at end of file
+
+    @PostMapping("/{id}/trace")
+    @Operation(summary = "Start or resume a raw trace upload", 
+               description = "Declares the trace size and returns the offset the next chunk must start at")
+    public ResponseEntity<TraceUploadResponse> initTraceUpload(
+            @CurrentUserId Long userId,
+            @PathVariable Long id,
+            @Valid @RequestBody TraceUploadInitRequest request) {
+        return ResponseEntity.ok(traceUploadService.initUpload(userId, id, request));
+    }
+
+    @PutMapping(value = "/{id}/trace", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Operation(summary = "Append a raw trace chunk", 
+               description = "Streams one chunk to storage; the offset must equal the bytes received so far")
+    public ResponseEntity<TraceUploadResponse> appendTraceChunk(
+            @CurrentUserId Long userId,
+            @PathVariable Long id,
+            @RequestParam long offset,
+            HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(traceUploadService.appendChunk(
+                userId, id, offset, request.getInputStream()));
+    }
+
+    @PostMapping("/{id}/trace/commit")
+    @Operation(summary = "Commit a raw trace upload", 
+               description = "Verifies the complete trace and attaches it to the session")
+    public ResponseEntity<TraceUploadResponse> commitTraceUpload(
+            @CurrentUserId Long userId,
+            @PathVariable Long id) throws IOException {
+        return ResponseEntity.ok(traceUploadService.commitUpload(userId, id));
+    }
+}
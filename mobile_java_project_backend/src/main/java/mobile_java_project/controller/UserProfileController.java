@@ -4,15 +4,12 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import mobile_java_project.dto.analysis.UserProfileResponse;
 import mobile_java_project.dto.analysis.UserProfileUpdateRequest;
-import mobile_java_project.entity.User;
-import mobile_java_project.repository.UserRepository;
+import mobile_java_project.security.CurrentUserId;
 import mobile_java_project.service.UserService;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -26,36 +23,25 @@ import java.nio.file.Paths;
 public class UserProfileController {
 
     private final UserService userService;
-    private final UserRepository userRepository;
     private static final String UPLOAD_DIR = "uploads/profile-pictures/";
 
     @GetMapping
-    public ResponseEntity<UserProfileResponse> getUserProfile(Authentication authentication) {
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-
-        return ResponseEntity.ok(userService.getUserProfile(user.getId()));
+    public ResponseEntity<UserProfileResponse> getUserProfile(@CurrentUserId Long userId) {
+        return ResponseEntity.ok(userService.getUserProfile(userId));
     }
 
     @PutMapping
     public ResponseEntity<UserProfileResponse> updateUserProfile(
-            Authentication authentication,
+            @CurrentUserId Long userId,
             @Valid @RequestBody UserProfileUpdateRequest request) {
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        return ResponseEntity.ok(userService.updateUserProfile(user.getId(), request));
+        return ResponseEntity.ok(userService.updateUserProfile(userId, request));
     }
 
     @PostMapping("/picture")
     public ResponseEntity<UserProfileResponse> uploadProfilePicture(
-            Authentication authentication,
+            @CurrentUserId Long userId,
             @RequestParam("image") MultipartFile file) {
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        return ResponseEntity.ok(userService.uploadProfilePicture(user.getId(), file));
+        return ResponseEntity.ok(userService.uploadProfilePicture(userId, file));
     }
 
     @GetMapping("/pictures/{filename}")
@@ -0,0 +1,23 @@
+package mobile_java_project.dto.session;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SessionBatchRequest {
+    
+    public static final int MAX_SESSIONS = 500;
+    
+    @NotEmpty(message = "At least one session is required")
+    @Size(max = MAX_SESSIONS, message = "At most " + MAX_SESSIONS + " sessions per batch")
+    private List<SessionCreateRequest> sessions;
+}
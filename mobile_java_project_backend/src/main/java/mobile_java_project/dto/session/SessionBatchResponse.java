@@ -0,0 +1,31 @@
+package mobile_java_project.dto.session;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SessionBatchResponse {
+    
+    private int saved;
+    private int failed;
+    private List<ItemResult> results; // One per submitted session, in request order
+    
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ItemResult {
+        private int index; // Position in the request
+        private Long id; // Null if the session was rejected
+        private Integer prediction;
+        private String predictionText;
+        private String error;
+    }
+}
@@ -0,0 +1,19 @@
+package mobile_java_project.dto.session;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SessionChangesResponse {
+    
+    private List<SessionResponse> sessions; // Created or updated after the cursor, oldest change first
+    private String cursor; // Pass back as "since" on the next call
+    private boolean hasMore; // Another page is ready, fetch it right away
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Data
 @Builder
@@ -13,6 +14,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 public class SessionCreateRequest {
     
+    private UUID clientId; // Device-generated identity, makes uploads idempotent
     private LocalDateTime timestamp;
     private int prediction; // 0 = No Parkinson's, 1 = Suspected Parkinson's
     
@@ -46,4 +48,19 @@ public class SessionCreateRequest {
     private Double crossCorrX;
     private Double crossCorrY;
     private Double crossCorrZ;
-} 
\ No newline at end of file
+    
+    /**
+     * Features in the order the model was trained on, matching the mobile FeatureExtractor
+     */
+    public Double[] featureValues() {
+        return new Double[]{
+                accelXMean, accelYMean, accelZMean,
+                accelXStd, accelYStd, accelZStd,
+                gyroXMean, gyroYMean, gyroZMean,
+                gyroXStd, gyroYStd, gyroZStd,
+                accelXFftPeak, accelYFftPeak, accelZFftPeak,
+                gyroXFftPeak, gyroYFftPeak, gyroZFftPeak,
+                crossCorrX, crossCorrY, crossCorrZ
+        };
+    }
+}
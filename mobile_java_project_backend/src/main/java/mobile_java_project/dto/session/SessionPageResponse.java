@@ -0,0 +1,18 @@
+package mobile_java_project.dto.session;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SessionPageResponse {
+    
+    private List<SessionResponse> sessions; // Newest first
+    private String nextCursor; // Pass back as "cursor" for the next page, null on the last page
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Data
 @Builder
@@ -15,6 +16,7 @@ public class SessionResponse {
     
     private Long id;
     private Long userId;
+    private UUID clientId;
     private LocalDateTime timestamp;
     private int prediction;
     private String predictionText; // "No Parkinson's" or "Suspected Parkinson's"
@@ -51,4 +53,5 @@ public class SessionResponse {
     private Double crossCorrZ;
     
     private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
 } 
\ No newline at end of file
@@ -0,0 +1,17 @@
+package mobile_java_project.dto.session;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SessionScoreResponse {
+    
+    private float probability; // Raw model output
+    private int prediction; // 0 = No Parkinson's, 1 = Suspected Parkinson's
+    private String predictionText;
+}
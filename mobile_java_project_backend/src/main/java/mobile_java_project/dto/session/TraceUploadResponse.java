@@ -0,0 +1,18 @@
+package mobile_java_project.dto.session;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TraceUploadResponse {
+    
+    private Long sessionId;
+    private long totalBytes;
+    private long receivedBytes; // Offset the next chunk must start at
+    private boolean committed;
+}
@@ -7,65 +7,80 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "sessions")
+@Table(name = "sessions", indexes = {
+        @Index(name = "ux_sessions_user_client", columnList = "user_id, client_id", unique = true),
+        @Index(name = "ix_sessions_user_updated", columnList = "user_id, updated_at, id"),
+        @Index(name = "ix_sessions_user_timestamp", columnList = "user_id, timestamp, id")
+})
 public class Session {
     
+    // Pooled sequence: one round trip per 50 ids and no per-row IDENTITY read, so inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sessions_seq")
+    @SequenceGenerator(name = "sessions_seq", sequenceName = "sessions_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
     
+    // Generated on the device, so a retried upload updates the same row
+    @Column(name = "client_id")
+    private UUID clientId;
+    
     @Column(nullable = false)
     private LocalDateTime timestamp;
     
     @Column(nullable = false)
     private int prediction; // 0 = No Parkinson's, 1 = Suspected Parkinson's
     
-    // Accelerometer features
-    private Double accelXMean;
-    private Double accelYMean;
-    private Double accelZMean;
-    
-    private Double accelXStd;
-    private Double accelYStd;
-    private Double accelZStd;
+    // The 21 features as little-endian floats, see FeatureBlob; null features are stored as NaN
+    @Column(name = "features")
+    private byte[] features;
     
-    private Double accelXFftPeak;
-    private Double accelYFftPeak;
-    private Double accelZFftPeak;
+    // FeatureBlob.SCHEMA_VERSION the features were written with
+    @Column(name = "feature_schema")
+    private Integer featureSchema;
     
-    // Gyroscope features
-    private Double gyroXMean;
-    private Double gyroYMean;
-    private Double gyroZMean;
+    // Raw sensor trace upload, declared size and optional checksum
+    @Column(name = "trace_size")
+    private Long traceSize;
     
-    private Double gyroXStd;
-    private Double gyroYStd;
-    private Double gyroZStd;
+    @Column(name = "trace_sha256", length = 64)
+    private String traceSha256;
     
-    private Double gyroXFftPeak;
-    private Double gyroYFftPeak;
-    private Double gyroZFftPeak;
-    
-    // Cross-correlation features
-    private Double crossCorrX;
-    private Double crossCorrY;
-    private Double crossCorrZ;
+    // Set once the uploaded trace has been verified and stored
+    @Column(name = "trace_committed_at")
+    private LocalDateTime traceCommittedAt;
     
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
+    // Change cursor for delta sync, bumped on every insert and update
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
+        updatedAt = now();
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = now();
+    }
+    
+    // Microseconds, as stored by PostgreSQL, so cursors compare equal to the stored value
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
     }
 } 
\ No newline at end of file
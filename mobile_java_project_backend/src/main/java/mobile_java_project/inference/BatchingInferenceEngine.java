@@ -0,0 +1,162 @@
+package mobile_java_project.inference;
+
+import com.parkinson.detection.ml.DenseNetwork;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro-batching front end for a {@link DenseNetwork}.
+ *
+ * Callers submit single feature rows and get a future back. A fixed set of worker
+ * threads, each owning its own interpreter scratch buffers, drains the shared queue:
+ * a worker takes the first pending row, then keeps collecting rows until the batch is
+ * full or the batch delay has elapsed, and scores the whole batch in one invocation.
+ * Under load concurrent requests therefore share invocations; when idle a lone
+ * request waits at most the batch delay.
+ */
+public class BatchingInferenceEngine implements AutoCloseable {
+
+    private final DenseNetwork network;
+    private final int maxBatchSize;
+    private final long maxBatchDelayNanos;
+
+    private final BlockingQueue<PendingRow> queue = new LinkedBlockingQueue<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public BatchingInferenceEngine(DenseNetwork network, int workerCount, int maxBatchSize, long maxBatchDelayMillis) {
+        if (workerCount <= 0 || maxBatchSize <= 0 || maxBatchDelayMillis < 0) {
+            throw new IllegalArgumentException("Worker count and batch size must be positive");
+        }
+        this.network = network;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxBatchDelayMillis);
+
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(new Worker(), "inference-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    public int featureCount() {
+        return network.inputSize();
+    }
+
+    /**
+     * Queue one feature row for scoring
+     *
+     * @return Future completed with the model output for the row
+     */
+    public CompletableFuture<Float> submit(float[] features) {
+        if (features.length != network.inputSize()) {
+            throw new IllegalArgumentException("Expected " + network.inputSize() + " features, got " + features.length);
+        }
+        if (!running) {
+            throw new IllegalStateException("Inference engine has been closed");
+        }
+        PendingRow row = new PendingRow(features.clone(), new CompletableFuture<>());
+        queue.add(row);
+        return row.result();
+    }
+
+    /**
+     * Stop the workers. Rows still queued are completed exceptionally.
+     */
+    @Override
+    public void close() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        PendingRow row;
+        while ((row = queue.poll()) != null) {
+            row.result().completeExceptionally(new IllegalStateException("Inference engine has been closed"));
+        }
+    }
+
+    private record PendingRow(float[] features, CompletableFuture<Float> result) {
+    }
+
+    /**
+     * One worker with its own buffers, sized once for a full batch
+     */
+    private final class Worker implements Runnable {
+        private final List<PendingRow> batch = new ArrayList<>(maxBatchSize);
+        private final float[] input = new float[maxBatchSize * network.inputSize()];
+        private final float[] output = new float[maxBatchSize * network.outputSize()];
+        private final float[] scratchA = new float[maxBatchSize * network.maxWidth()];
+        private final float[] scratchB = new float[maxBatchSize * network.maxWidth()];
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    collectBatch();
+                } catch (InterruptedException e) {
+                    failBatch(new IllegalStateException("Inference engine has been closed"));
+                    return;
+                }
+                scoreBatch();
+            }
+        }
+
+        private void collectBatch() throws InterruptedException {
+            batch.add(queue.take());
+            long deadline = System.nanoTime() + maxBatchDelayNanos;
+            while (batch.size() < maxBatchSize) {
+                // Take whatever is already queued without waiting
+                if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                    continue;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                PendingRow next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    break;
+                }
+                batch.add(next);
+            }
+        }
+
+        private void scoreBatch() {
+            int rows = batch.size();
+            int inputSize = network.inputSize();
+            int outputSize = network.outputSize();
+            try {
+                for (int r = 0; r < rows; r++) {
+                    System.arraycopy(batch.get(r).features(), 0, input, r * inputSize, inputSize);
+                }
+                network.evaluate(input, rows, output, scratchA, scratchB);
+                for (int r = 0; r < rows; r++) {
+                    batch.get(r).result().complete(output[r * outputSize]);
+                }
+            } catch (RuntimeException e) {
+                failBatch(e);
+            }
+            batch.clear();
+        }
+
+        private void failBatch(Throwable cause) {
+            for (PendingRow row : batch) {
+                row.result().completeExceptionally(cause);
+            }
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package mobile_java_project.inference;
+
+import com.parkinson.detection.ml.DenseNetwork;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a float32 TFLite flatbuffer into a {@link DenseNetwork}.
+ *
+ * There is no TFLite runtime for the server JVM, but the exported model is a chain of
+ * FULLY_CONNECTED operators (ReLU fused, batch norm already folded by the converter)
+ * ending in LOGISTIC. This reader walks the flatbuffer directly and accepts exactly
+ * that operator subset; anything else is rejected at startup.
+ */
+public final class TfliteModelReader {
+
+    // BuiltinOperator codes from the TFLite schema
+    private static final int OP_FULLY_CONNECTED = 9;
+    private static final int OP_LOGISTIC = 14;
+
+    // ActivationFunctionType codes
+    private static final int ACTIVATION_NONE = 0;
+    private static final int ACTIVATION_RELU = 1;
+
+    private static final int TENSOR_TYPE_FLOAT32 = 0;
+
+    private final ByteBuffer buffer;
+
+    private TfliteModelReader(ByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Memory-map a model resource and parse it. Resources packed inside a jar are
+     * copied to a temporary file first because they cannot be mapped in place.
+     */
+    public static DenseNetwork read(Resource resource) throws IOException {
+        Path path;
+        if (resource.isFile()) {
+            path = resource.getFile().toPath();
+        } else {
+            path = Files.createTempFile("model-", ".tflite");
+            path.toFile().deleteOnExit();
+            try (InputStream in = resource.getInputStream()) {
+                Files.copy(in, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(mapped);
+        }
+    }
+
+    public static DenseNetwork read(ByteBuffer model) {
+        return new TfliteModelReader(model).parse();
+    }
+
+    private DenseNetwork parse() {
+        int model = indirect(0);
+
+        List<Integer> opcodes = new ArrayList<>();
+        for (int code : tables(model, 1)) {
+            // Old models only fill the deprecated byte code, newer ones the int code
+            int deprecated = fieldOrZero(code, 0) == 0 ? 0 : buffer.get(field(code, 0));
+            int builtin = fieldOrZero(code, 3) == 0 ? 0 : buffer.getInt(field(code, 3));
+            opcodes.add(Math.max(deprecated, builtin));
+        }
+
+        int[] buffers = tables(model, 4);
+        int[] subgraphs = tables(model, 2);
+        if (subgraphs.length != 1) {
+            throw new IllegalStateException("Expected a single subgraph, found " + subgraphs.length);
+        }
+        int subgraph = subgraphs[0];
+        int[] tensors = tables(subgraph, 0);
+
+        List<DenseNetwork.Layer> layers = new ArrayList<>();
+        boolean sigmoid = false;
+        for (int operator : tables(subgraph, 3)) {
+            int opcode = opcodes.get(fieldOrZero(operator, 0) == 0 ? 0 : buffer.getInt(field(operator, 0)));
+            int[] inputs = ints(operator, 1);
+
+            if (sigmoid) {
+                throw new IllegalStateException("LOGISTIC must be the last operator");
+            }
+            if (opcode == OP_FULLY_CONNECTED) {
+                layers.add(readFullyConnected(operator, inputs, tensors, buffers));
+            } else if (opcode == OP_LOGISTIC) {
+                sigmoid = true;
+            } else {
+                throw new IllegalStateException("Unsupported TFLite operator " + opcode);
+            }
+        }
+        return new DenseNetwork(layers, sigmoid);
+    }
+
+    private DenseNetwork.Layer readFullyConnected(int operator, int[] inputs, int[] tensors, int[] buffers) {
+        int[] shape = ints(tensors[inputs[1]], 0);
+        int outputs = shape[0];
+        int inputSize = shape[1];
+        float[] weights = readFloats(tensors[inputs[1]], buffers, outputs * inputSize);
+        float[] bias = inputs.length > 2 && inputs[2] >= 0
+                ? readFloats(tensors[inputs[2]], buffers, outputs)
+                : new float[outputs];
+
+        int activation = ACTIVATION_NONE;
+        if (fieldOrZero(operator, 4) != 0) {
+            int options = indirect(field(operator, 4));
+            activation = fieldOrZero(options, 0) == 0 ? ACTIVATION_NONE : buffer.get(field(options, 0));
+            if (activation != ACTIVATION_NONE && activation != ACTIVATION_RELU) {
+                throw new IllegalStateException("Unsupported fused activation " + activation);
+            }
+        }
+        return new DenseNetwork.Layer(inputSize, outputs, weights, bias,
+                activation == ACTIVATION_RELU ? DenseNetwork.ACTIVATION_RELU : DenseNetwork.ACTIVATION_NONE);
+    }
+
+    private float[] readFloats(int tensor, int[] buffers, int count) {
+        int type = fieldOrZero(tensor, 1) == 0 ? TENSOR_TYPE_FLOAT32 : buffer.get(field(tensor, 1));
+        if (type != TENSOR_TYPE_FLOAT32) {
+            throw new IllegalStateException("Only float32 weights are supported, found type " + type);
+        }
+        int bufferIndex = buffer.getInt(field(tensor, 2));
+        int data = vector(buffers[bufferIndex], 0);
+        if (data < 0 || buffer.getInt(data - 4) != count * 4) {
+            throw new IllegalStateException("Constant tensor data does not match its shape");
+        }
+
+        float[] values = new float[count];
+        FloatBuffer floats = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN)
+                .position(data).slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+        floats.get(values);
+        return values;
+    }
+
+    // --- Flatbuffer primitives ---
+
+    /**
+     * Follow a uoffset stored at {@code position}
+     */
+    private int indirect(int position) {
+        return position + buffer.getInt(position);
+    }
+
+    /**
+     * Absolute position of a table field, or 0 when the field is absent
+     */
+    private int fieldOrZero(int table, int index) {
+        int vtable = table - buffer.getInt(table);
+        int vtableSize = buffer.getShort(vtable) & 0xFFFF;
+        int entry = 4 + 2 * index;
+        if (entry >= vtableSize) {
+            return 0;
+        }
+        int offset = buffer.getShort(vtable + entry) & 0xFFFF;
+        return offset == 0 ? 0 : table + offset;
+    }
+
+    private int field(int table, int index) {
+        int position = fieldOrZero(table, index);
+        if (position == 0) {
+            throw new IllegalStateException("Missing required flatbuffer field " + index);
+        }
+        return position;
+    }
+
+    /**
+     * Position of the first element of a vector field, or -1 when absent
+     */
+    private int vector(int table, int index) {
+        int position = fieldOrZero(table, index);
+        return position == 0 ? -1 : indirect(position) + 4;
+    }
+
+    private int length(int table, int index) {
+        int position = fieldOrZero(table, index);
+        return position == 0 ? 0 : buffer.getInt(indirect(position));
+    }
+
+    private int[] tables(int table, int index) {
+        int start = vector(table, index);
+        int[] result = new int[length(table, index)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = indirect(start + 4 * i);
+        }
+        return result;
+    }
+
+    private int[] ints(int table, int index) {
+        int start = vector(table, index);
+        int[] result = new int[length(table, index)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = buffer.getInt(start + 4 * i);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,245 @@
+package mobile_java_project.mail;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outbound mail queue.
+ *
+ * Callers hand over fully rendered messages and return immediately. A small set of
+ * worker threads drains the bounded queue in batches and sends each batch with one
+ * {@link JavaMailSender#send(MimeMessage...)} call, so a burst of messages shares one
+ * SMTP connection and handshake instead of opening one per message. Messages that
+ * fail are retried with exponential backoff up to a maximum number of attempts.
+ *
+ * Messages submitted inside a transaction are queued once it commits, so a rolled
+ * back registration sends nothing. When the queue is full new messages are dropped
+ * and logged. Outcomes are published as {@code mail.messages} metrics.
+ *
+ * The queue and pending retries live only in memory. A message that is queued or
+ * waiting for a retry when the application stops or crashes is lost; there is no
+ * persistent outbox. A lost password reset can be requested again; a lost
+ * verification mail cannot be resent yet.
+ */
+@Slf4j
+public class MailDispatcher implements AutoCloseable {
+
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final JavaMailSender mailSender;
+    private final String from;
+    private final int maxBatchSize;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+
+    private final BlockingQueue<Attempt> queue;
+    private final List<Thread> workers = new ArrayList<>();
+    private final ScheduledExecutorService retryScheduler;
+    private volatile boolean running = true;
+
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+    private final Counter rejected;
+
+    public MailDispatcher(JavaMailSender mailSender, String from, int workerCount, int queueCapacity,
+                          int maxBatchSize, int maxAttempts, long initialBackoffMillis, MeterRegistry meterRegistry) {
+        if (workerCount <= 0 || queueCapacity <= 0 || maxBatchSize <= 0 || maxAttempts <= 0 || initialBackoffMillis < 0) {
+            throw new IllegalArgumentException("Mail workers, queue capacity, batch size and attempts must be positive");
+        }
+        this.mailSender = mailSender;
+        this.from = from;
+        this.maxBatchSize = maxBatchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "mail-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.sent = counter(meterRegistry, "sent", "Mail messages accepted by the SMTP server");
+        this.retried = counter(meterRegistry, "retried", "Mail messages scheduled for another attempt");
+        this.failed = counter(meterRegistry, "failed", "Mail messages given up after the last attempt");
+        this.rejected = counter(meterRegistry, "rejected", "Mail messages dropped because the queue was full");
+        Gauge.builder("mail.queue.size", queue, Collection::size)
+                .description("Mail messages waiting to be sent")
+                .register(meterRegistry);
+
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(new Worker(), "mail-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result, String description) {
+        return Counter.builder("mail.messages")
+                .tag("result", result)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue a message, after the current transaction commits if there is one
+     */
+    public void submit(OutgoingMail mail) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(new Attempt(mail, 1));
+                }
+            });
+        } else {
+            enqueue(new Attempt(mail, 1));
+        }
+    }
+
+    private void enqueue(Attempt attempt) {
+        if (!running || !queue.offer(attempt)) {
+            rejected.increment();
+            log.warn("Mail queue is full or closed, dropping \"{}\" to {}", attempt.mail().subject(), attempt.mail().to());
+        }
+    }
+
+    /**
+     * Stop the workers. Messages still queued or waiting for a retry are dropped and logged.
+     */
+    @Override
+    public void close() {
+        running = false;
+        retryScheduler.shutdownNow();
+        workers.forEach(Thread::interrupt);
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Mail dispatcher closed with {} unsent messages", queue.size());
+        }
+    }
+
+    public record OutgoingMail(String to, String subject, String html) {
+    }
+
+    private record Attempt(OutgoingMail mail, int number) {
+    }
+
+    private final class Worker implements Runnable {
+        private final List<Attempt> batch = new ArrayList<>(maxBatchSize);
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    return;
+                }
+                // Whatever else is already queued goes out over the same connection
+                queue.drainTo(batch, maxBatchSize - 1);
+                sendBatch();
+                batch.clear();
+            }
+        }
+
+        private void sendBatch() {
+            Map<MimeMessage, Attempt> messages = new IdentityHashMap<>(batch.size() * 2);
+            for (Attempt attempt : batch) {
+                try {
+                    messages.put(toMimeMessage(attempt.mail()), attempt);
+                } catch (MessagingException e) {
+                    failed.increment();
+                    log.error("Cannot build mail \"{}\" to {}: {}", attempt.mail().subject(), attempt.mail().to(), e.getMessage());
+                }
+            }
+            if (messages.isEmpty()) {
+                return;
+            }
+
+            Map<Object, Exception> failures;
+            try {
+                mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+                failures = Map.of();
+            } catch (MailSendException e) {
+                failures = e.getFailedMessages().isEmpty() ? allFailed(messages, e) : e.getFailedMessages();
+            } catch (MailException e) {
+                failures = allFailed(messages, e);
+            }
+
+            sent.increment(messages.size() - failures.size());
+            for (Map.Entry<Object, Exception> failure : failures.entrySet()) {
+                Attempt attempt = messages.get(failure.getKey());
+                if (attempt != null) {
+                    retryOrGiveUp(attempt, failure.getValue());
+                }
+            }
+        }
+
+        private MimeMessage toMimeMessage(OutgoingMail mail) throws MessagingException {
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, false, "UTF-8");
+            helper.setFrom(from);
+            helper.setTo(mail.to());
+            helper.setSubject(mail.subject());
+            helper.setText(mail.html(), true);
+            return message;
+        }
+
+        private Map<Object, Exception> allFailed(Map<MimeMessage, Attempt> messages, Exception e) {
+            Map<Object, Exception> failures = new IdentityHashMap<>(messages.size() * 2);
+            for (MimeMessage message : messages.keySet()) {
+                failures.put(message, e);
+            }
+            return failures;
+        }
+
+        private void retryOrGiveUp(Attempt attempt, Exception e) {
+            OutgoingMail mail = attempt.mail();
+            if (attempt.number() >= maxAttempts || !running) {
+                failed.increment();
+                log.error("Failed to send \"{}\" to {} after {} attempts: {}",
+                        mail.subject(), mail.to(), attempt.number(), e.getMessage());
+                return;
+            }
+            long delay = Math.min(MAX_BACKOFF_MILLIS, initialBackoffMillis << Math.min(attempt.number() - 1, 20));
+            try {
+                retryScheduler.schedule(() -> enqueue(new Attempt(mail, attempt.number() + 1)), delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException closed) {
+                failed.increment();
+                return;
+            }
+            retried.increment();
+            log.warn("Sending \"{}\" to {} failed, retrying in {} ms: {}", mail.subject(), mail.to(), delay, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package mobile_java_project.mail;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * HTML mail body with {@code {name}} placeholders, parsed once into literal fragments.
+ *
+ * Values known at startup, such as configured URLs, are bound with {@link #with} so
+ * only the per-recipient values are filled in for each message. Every value is HTML
+ * escaped.
+ */
+public final class MailTemplate {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{(\\w+)}");
+
+    // literals.length == names.length + 1, literal i precedes placeholder i
+    private final String[] literals;
+    private final String[] names;
+    private final int literalLength;
+
+    private MailTemplate(List<String> literals, List<String> names) {
+        this.literals = literals.toArray(new String[0]);
+        this.names = names.toArray(new String[0]);
+        int length = 0;
+        for (String literal : this.literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    public static MailTemplate parse(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        Matcher matcher = PLACEHOLDER.matcher(source);
+        int start = 0;
+        while (matcher.find()) {
+            literals.add(source.substring(start, matcher.start()));
+            names.add(matcher.group(1));
+            start = matcher.end();
+        }
+        literals.add(source.substring(start));
+        return new MailTemplate(literals, names);
+    }
+
+    /**
+     * @return Template with every occurrence of the placeholder replaced by the value
+     */
+    public MailTemplate with(String name, String value) {
+        String escaped = HtmlUtils.htmlEscape(value);
+        List<String> mergedLiterals = new ArrayList<>();
+        List<String> mergedNames = new ArrayList<>();
+        StringBuilder literal = new StringBuilder(literals[0]);
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                literal.append(escaped);
+            } else {
+                mergedLiterals.add(literal.toString());
+                mergedNames.add(names[i]);
+                literal.setLength(0);
+            }
+            literal.append(literals[i + 1]);
+        }
+        mergedLiterals.add(literal.toString());
+        return new MailTemplate(mergedLiterals, mergedNames);
+    }
+
+    /**
+     * Fill in the remaining placeholders
+     *
+     * @throws IllegalArgumentException if a placeholder has no value
+     */
+    public String render(Map<String, String> values) {
+        StringBuilder out = new StringBuilder(literalLength + 32 * names.length);
+        out.append(literals[0]);
+        for (int i = 0; i < names.length; i++) {
+            String value = values.get(names[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("No value for mail template placeholder " + names[i]);
+            }
+            out.append(HtmlUtils.htmlEscape(value)).append(literals[i + 1]);
+        }
+        return out.toString();
+    }
+}
@@ -2,18 +2,62 @@ package mobile_java_project.repository;
 
 import mobile_java_project.entity.Session;
 import mobile_java_project.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 @Repository
 public interface SessionRepository extends JpaRepository<Session, Long> {
     
     List<Session> findByUserOrderByTimestampDesc(User user);
     
+    Optional<Session> findByUserIdAndClientId(Long userId, UUID clientId);
+    
+    List<Session> findByUserIdAndClientIdIn(Long userId, Collection<UUID> clientIds);
+    
+    // Change feed in (updated_at, id) order, read off ix_sessions_user_updated
+    List<Session> findByUserIdOrderByUpdatedAtAscIdAsc(Long userId, Limit limit);
+    
+    @Query("SELECT s FROM Session s WHERE s.user.id = :userId"
+            + " AND (s.updatedAt > :updatedAt OR (s.updatedAt = :updatedAt AND s.id > :id))"
+            + " ORDER BY s.updatedAt, s.id")
+    List<Session> findChangedAfter(@Param("userId") Long userId,
+                                   @Param("updatedAt") LocalDateTime updatedAt,
+                                   @Param("id") Long id,
+                                   Limit limit);
+    
+    // History pages newest first, seeking on ix_sessions_user_timestamp instead of skipping rows
+    List<Session> findByUserIdOrderByTimestampDescIdDesc(Long userId, Limit limit);
+    
+    List<Session> findByUserIdAndPredictionOrderByTimestampDescIdDesc(Long userId, int prediction, Limit limit);
+    
+    @Query("SELECT s FROM Session s WHERE s.user.id = :userId"
+            + " AND (s.timestamp < :timestamp OR (s.timestamp = :timestamp AND s.id < :id))"
+            + " ORDER BY s.timestamp DESC, s.id DESC")
+    List<Session> findPageBefore(@Param("userId") Long userId,
+                                 @Param("timestamp") LocalDateTime timestamp,
+                                 @Param("id") Long id,
+                                 Limit limit);
+    
+    @Query("SELECT s FROM Session s WHERE s.user.id = :userId AND s.prediction = :prediction"
+            + " AND (s.timestamp < :timestamp OR (s.timestamp = :timestamp AND s.id < :id))"
+            + " ORDER BY s.timestamp DESC, s.id DESC")
+    List<Session> findPageBeforeByPrediction(@Param("userId") Long userId,
+                                             @Param("prediction") int prediction,
+                                             @Param("timestamp") LocalDateTime timestamp,
+                                             @Param("id") Long id,
+                                             Limit limit);
+    
     Page<Session> findByUser(User user, Pageable pageable);
     
     Page<Session> findByUserAndPrediction(User user, int prediction, Pageable pageable);
@@ -13,5 +13,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     boolean existsByEmail(String email);
     
+    boolean existsByEmailAndEnabledTrue(String email);
+    
     Optional<User> findByVerificationToken(String token);
 } 
\ No newline at end of file
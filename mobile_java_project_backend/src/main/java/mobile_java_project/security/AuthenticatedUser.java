@@ -0,0 +1,27 @@
+package mobile_java_project.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Principal of a request authenticated by JWT, carrying the user id from the token's
+ * {@code userId} claim so controllers need no lookup by email
+ */
+public class AuthenticatedUser extends User {
+
+    private final Long userId;
+
+    public AuthenticatedUser(Long userId, String email, Collection<? extends GrantedAuthority> authorities) {
+        super(email, "", authorities);
+        this.userId = userId;
+    }
+
+    /**
+     * @return The user id, or null for a token issued without the claim
+     */
+    public Long getUserId() {
+        return userId;
+    }
+}
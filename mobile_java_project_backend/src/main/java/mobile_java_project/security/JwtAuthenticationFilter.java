@@ -1,10 +1,12 @@
 package mobile_java_project.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import mobile_java_project.repository.UserRepository;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
@@ -18,6 +20,8 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final UserRepository userRepository;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -25,14 +29,36 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         String token = getTokenFromRequest(request);
         
-        if (StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)) {
-            Authentication authentication = jwtTokenProvider.getAuthentication(token);
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+        if (StringUtils.hasText(token)) {
+            Authentication authentication = verifiedTokenCache.get(token, this::isUserEnabled);
+            if (authentication == null) {
+                // Verified once; the same claims build the authentication
+                Claims claims = jwtTokenProvider.getValidClaims(token);
+                if (claims != null) {
+                    authentication = jwtTokenProvider.getAuthentication(claims, token);
+                    if (!isUserEnabled(authentication)) {
+                        authentication = null;
+                    } else if (claims.getExpiration() != null) {
+                        verifiedTokenCache.put(token, authentication, claims.getExpiration().getTime());
+                    }
+                }
+            }
+            if (authentication != null) {
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            }
         }
         
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * A valid signature is not enough: the account may have been disabled or removed since the
+     * token was issued
+     */
+    private boolean isUserEnabled(Authentication authentication) {
+        return userRepository.existsByEmailAndEnabledTrue(authentication.getName());
+    }
+
     private String getTokenFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         
@@ -1,9 +1,12 @@
 package mobile_java_project.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -19,6 +22,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.stream.Collectors;
 
 @Component
@@ -34,9 +38,20 @@ public class JwtTokenProvider {
     @Value("${jwt.refresh-expiration}")
     private long refreshExpiration;
     
+    // Derived once from the secret; the parser is immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+    
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+    
     private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
     
     public String generateAccessToken(UserDetails userDetails) {
@@ -93,49 +108,52 @@ public class JwtTokenProvider {
                 .compact();
     }
     
+    /**
+     * Verify a token's signature and expiry and read its claims
+     * 
+     * @param token The compact JWT
+     * @return The claims, or null if the token is invalid or expired
+     */
+    public Claims getValidClaims(String token) {
+        try {
+            return jwtParser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
     public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        
-        return claims.getSubject();
+        return jwtParser.parseClaimsJws(token).getBody().getSubject();
     }
     
     public Authentication getAuthentication(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        
-        Collection<? extends GrantedAuthority> authorities = Arrays.stream(
-                claims.get("authorities").toString().split(","))
+        return getAuthentication(jwtParser.parseClaimsJws(token).getBody(), token);
+    }
+    
+    /**
+     * Build the authentication for claims that have already been verified
+     */
+    public Authentication getAuthentication(Claims claims, String token) {
+        Object authorityClaim = claims.get("authorities");
+        Collection<? extends GrantedAuthority> authorities = authorityClaim == null ? List.of() : Arrays.stream(
+                authorityClaim.toString().split(","))
                 .filter(auth -> !auth.isEmpty())
                 .map(SimpleGrantedAuthority::new)
                 .collect(Collectors.toList());
         
-        org.springframework.security.core.userdetails.User principal = 
-                new org.springframework.security.core.userdetails.User(claims.getSubject(), "", authorities);
+        Object userIdClaim = claims.get("userId");
+        Long userId = userIdClaim instanceof Number ? ((Number) userIdClaim).longValue() : null;
+        AuthenticatedUser principal = new AuthenticatedUser(userId, claims.getSubject(), authorities);
         
         return new UsernamePasswordAuthenticationToken(principal, token, authorities);
     }
     
     public boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token);
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
+        return getValidClaims(token) != null;
     }
     
     public long getExpirationFromToken(String token) {
-        Date expiration = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
+        Date expiration = jwtParser.parseClaimsJws(token)
                 .getBody()
                 .getExpiration();
         
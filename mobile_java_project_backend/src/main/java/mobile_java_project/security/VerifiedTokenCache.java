@@ -0,0 +1,170 @@
+package mobile_java_project.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Bounded cache of bearer tokens whose signature has already been verified, mapped to the
+ * authentication built from their claims. Clients reuse one access token for many requests,
+ * so repeat requests skip the HS512 check and the claim parsing.
+ *
+ * Entries are keyed by the SHA-256 digest of the token and expire with the token. A cached
+ * token is not trusted blindly: once an entry is older than {@code jwt.cache.recheck-interval}
+ * the caller's check runs again, so a disabled user is locked out within that interval rather
+ * than when the token expires. When the cache is full, expired entries are dropped first, then
+ * those closest to expiry.
+ * Hits, misses and size are published as {@code jwt.token.cache.*} metrics.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final int maxSize;
+    private final long recheckIntervalMs;
+    private final LongSupplier clock;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Autowired
+    public VerifiedTokenCache(@Value("${jwt.cache.max-size:10000}") int maxSize,
+                              @Value("${jwt.cache.recheck-interval:60000}") long recheckIntervalMs,
+                              MeterRegistry meterRegistry) {
+        this(maxSize, recheckIntervalMs, meterRegistry, System::currentTimeMillis);
+    }
+
+    VerifiedTokenCache(int maxSize, long recheckIntervalMs, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.recheckIntervalMs = recheckIntervalMs;
+        this.clock = clock;
+        FunctionCounter.builder("jwt.token.cache.requests", hits, AtomicLong::get)
+                .tag("result", "hit")
+                .description("Bearer tokens found in the verified token cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("jwt.token.cache.requests", misses, AtomicLong::get)
+                .tag("result", "miss")
+                .description("Bearer tokens that had to be verified")
+                .register(meterRegistry);
+        Gauge.builder("jwt.token.cache.size", entries, Map::size)
+                .description("Verified tokens currently cached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param stillValid Re-run on an entry that has not been checked for the recheck interval
+     * @return The cached authentication, or null if the token is unknown, has expired or
+     *         failed the re-check
+     */
+    public Authentication get(String token, Predicate<Authentication> stillValid) {
+        if (maxSize <= 0) {
+            return null;
+        }
+        String key = digest(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        long now = clock.getAsLong();
+        if (entry.expiresAt <= now) {
+            entries.remove(key, entry);
+            misses.incrementAndGet();
+            return null;
+        }
+        if (now - entry.checkedAt >= recheckIntervalMs) {
+            if (!stillValid.test(entry.authentication)) {
+                entries.remove(key, entry);
+                misses.incrementAndGet();
+                return null;
+            }
+            entry.checkedAt = now;
+        }
+        hits.incrementAndGet();
+        return entry.authentication;
+    }
+
+    /**
+     * Cache the authentication of a verified token until the token expires
+     *
+     * @param expiresAt Token expiry in epoch milliseconds
+     */
+    public void put(String token, Authentication authentication, long expiresAt) {
+        long now = clock.getAsLong();
+        if (maxSize <= 0 || expiresAt <= now) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        entries.put(digest(token), new Entry(authentication, expiresAt, now));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drop expired entries and, if that is not enough, the tenth of the cache closest to expiry.
+     * One thread sweeps at a time; the others insert without waiting.
+     */
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = clock.getAsLong();
+            entries.values().removeIf(entry -> entry.expiresAt <= now);
+            int excess = entries.size() - (maxSize - maxSize / 10) + 1;
+            if (excess > 0) {
+                List<Map.Entry<String, Entry>> byExpiry = new ArrayList<>(entries.entrySet());
+                byExpiry.sort(Comparator.comparingLong(e -> e.getValue().expiresAt));
+                for (int i = 0; i < excess && i < byExpiry.size(); i++) {
+                    entries.remove(byExpiry.get(i).getKey(), byExpiry.get(i).getValue());
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class Entry {
+        final Authentication authentication;
+        final long expiresAt;
+        // When the caller last confirmed the token may still be used
+        volatile long checkedAt;
+
+        Entry(Authentication authentication, long expiresAt, long checkedAt) {
+            this.authentication = authentication;
+            this.expiresAt = expiresAt;
+            this.checkedAt = checkedAt;
+        }
+    }
+}
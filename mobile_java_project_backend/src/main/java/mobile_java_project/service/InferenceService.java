@@ -0,0 +1,33 @@
+package mobile_java_project.service;
+
+import mobile_java_project.dto.session.SessionCreateRequest;
+import mobile_java_project.dto.session.SessionScoreResponse;
+import mobile_java_project.exception.BadRequestException;
+
+import java.util.List;
+
+public interface InferenceService {
+    
+    /**
+     * Score the features of a session with the bundled model
+     * 
+     * @param request Session carrying the 21 normalized features
+     * @return Probability and binary prediction
+     * @throws BadRequestException if any feature is missing
+     */
+    SessionScoreResponse score(SessionCreateRequest request);
+    
+    /**
+     * Score several sessions, sharing model invocations between them
+     * 
+     * @param requests Sessions carrying all 21 normalized features
+     * @return One response per request, in the same order
+     * @throws BadRequestException if any feature is missing
+     */
+    List<SessionScoreResponse> scoreAll(List<SessionCreateRequest> requests);
+    
+    /**
+     * @return true if every model feature is present in the request
+     */
+    boolean hasAllFeatures(SessionCreateRequest request);
+}
@@ -1,6 +1,9 @@
 package mobile_java_project.service;
 
+import mobile_java_project.dto.session.SessionBatchResponse;
+import mobile_java_project.dto.session.SessionChangesResponse;
 import mobile_java_project.dto.session.SessionCreateRequest;
+import mobile_java_project.dto.session.SessionPageResponse;
 import mobile_java_project.dto.session.SessionResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -18,6 +21,16 @@ public interface SessionService {
      */
     SessionResponse saveSession(Long userId, SessionCreateRequest sessionCreateRequest);
     
+    /**
+     * Save many sessions for one user in a single transaction with batched inserts.
+     * Invalid entries are rejected individually and do not block the others.
+     * 
+     * @param userId The ID of the user creating the sessions
+     * @param requests The sessions to save
+     * @return Per-session results in request order
+     */
+    SessionBatchResponse saveSessions(Long userId, List<SessionCreateRequest> requests);
+    
     /**
      * Get a session by ID
      * 
@@ -34,6 +47,16 @@ public interface SessionService {
      */
     List<SessionResponse> getUserSessions(Long userId);
     
+    /**
+     * Get the sessions of a user created or updated after a change cursor
+     * 
+     * @param userId The ID of the user
+     * @param since Cursor from the previous call, or null for a full download
+     * @param limit Maximum number of sessions to return
+     * @return The changed sessions and the cursor to resume from
+     */
+    SessionChangesResponse getSessionChanges(Long userId, String since, int limit);
+    
     /**
      * Get paginated sessions for a user
      * 
@@ -43,6 +66,18 @@ public interface SessionService {
      */
     Page<SessionResponse> getUserSessionsPaginated(Long userId, Pageable pageable);
     
+    /**
+     * Get one page of a user's sessions, newest first, starting after a cursor.
+     * Each page costs the same however deep it is and no total count is computed.
+     * 
+     * @param userId The ID of the user
+     * @param prediction Optional prediction value to filter by (0 or 1)
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param size Maximum number of sessions to return
+     * @return The page and the cursor of the next one
+     */
+    SessionPageResponse getUserSessionsPage(Long userId, Integer prediction, String cursor, int size);
+    
     /**
      * Get paginated sessions for a user filtered by prediction
      * 
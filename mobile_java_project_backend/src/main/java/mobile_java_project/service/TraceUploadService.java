@@ -0,0 +1,42 @@
+package mobile_java_project.service;
+
+import mobile_java_project.dto.session.TraceUploadInitRequest;
+import mobile_java_project.dto.session.TraceUploadResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface TraceUploadService {
+    
+    /**
+     * Start or resume the raw trace upload of a session. Calling it again with the
+     * same size returns the current offset, so an interrupted upload can continue.
+     * 
+     * @param userId The ID of the user owning the session
+     * @param sessionId The ID of the session
+     * @param request Declared size and optional checksum of the trace
+     * @return Upload status with the offset of the next chunk
+     */
+    TraceUploadResponse initUpload(Long userId, Long sessionId, TraceUploadInitRequest request);
+    
+    /**
+     * Append one chunk, streamed straight to disk
+     * 
+     * @param userId The ID of the user owning the session
+     * @param sessionId The ID of the session
+     * @param offset Position of the chunk, which must equal the bytes received so far
+     * @param body Chunk content
+     * @return Upload status after the chunk is durably stored
+     * @throws mobile_java_project.exception.ConflictException if the offset does not match
+     */
+    TraceUploadResponse appendChunk(Long userId, Long sessionId, long offset, InputStream body) throws IOException;
+    
+    /**
+     * Verify the complete trace and make it the session's stored trace
+     * 
+     * @param userId The ID of the user owning the session
+     * @param sessionId The ID of the session
+     * @return Final upload status
+     */
+    TraceUploadResponse commitUpload(Long userId, Long sessionId) throws IOException;
+}
@@ -1,5 +1,6 @@
 package mobile_java_project.service.impl;
 
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -86,11 +87,12 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public AuthResponse refreshToken(String refreshToken) {
-        if (!jwtTokenProvider.validateToken(refreshToken)) {
+        Claims claims = jwtTokenProvider.getValidClaims(refreshToken);
+        if (claims == null) {
             throw new IllegalArgumentException("Invalid refresh token");
         }
         
-        String email = jwtTokenProvider.getEmailFromToken(refreshToken);
+        String email = claims.getSubject();
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         
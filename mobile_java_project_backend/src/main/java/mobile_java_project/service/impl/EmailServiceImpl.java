@@ -1,128 +1,161 @@
 package mobile_java_project.service.impl;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import mobile_java_project.entity.User;
+import mobile_java_project.mail.MailDispatcher;
+import mobile_java_project.mail.MailTemplate;
+import mobile_java_project.service.EmailService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import mobile_java_project.entity.User;
-import mobile_java_project.service.EmailService;
+
+import java.util.HashMap;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmailServiceImpl implements EmailService {
 
+    private static final String VERIFICATION_SUBJECT = "AI-Gest - Please Verify Your Email";
+    private static final String VERIFICATION_TEMPLATE = "<div style='font-family: Arial, sans-serif; max-width: 600px;'>"
+            + "<h2>Hello {firstName},</h2>"
+            + "<p>Thank you for registering with AI-Gest. Please click on the link below to verify your email address:</p>"
+            + "<p><a href='{frontendUrl}/verify-email?token={token}'>Verify Your Email</a></p>"
+            + "<p>If you're using our mobile app, you can also <a href='{deepLink}/verify?token={token}'>verify on your device</a>.</p>"
+            + "<p>This link will expire in 24 hours.</p>"
+            + "<p>If you did not create an account, please ignore this email.</p>"
+            + "<p>Regards,<br/>The AI-Gest Team</p>"
+            + "</div>";
+
+    private static final String PASSWORD_RESET_SUBJECT = "AI-Gest - Password Reset Request";
+    private static final String PASSWORD_RESET_TEMPLATE = "<div style='font-family: Arial, sans-serif; max-width: 600px;'>"
+            + "<h2>Hello {firstName},</h2>"
+            + "<p>You have requested to reset your password. Please click on the link below to create a new password:</p>"
+            + "<p><a href='{frontendUrl}/reset-password?token={token}'>Reset Your Password</a></p>"
+            + "<p>If you're using our mobile app, you can also <a href='{deepLink}/reset?token={token}'>reset on your device</a>.</p>"
+            + "<p>This link will expire in 2 hours.</p>"
+            + "<p>If you did not request a password reset, please ignore this email or contact support.</p>"
+            + "<p>Regards,<br/>The AI-Gest Team</p>"
+            + "</div>";
+
+    private static final String ANALYSIS_RESULT_SUBJECT = "AI-Gest - Analysis Results Available";
+    private static final String ANALYSIS_RESULT_TEMPLATE = "<div style='font-family: Arial, sans-serif; max-width: 600px;'>"
+            + "<h2>Hello {firstName},</h2>"
+            + "<p>The analysis for your recent movement session is now complete.</p>"
+            + "<p>Probability Score: <strong>{score}</strong></p>"
+            + "<p>To view the detailed results, please click on the link below:</p>"
+            + "<p><a href='{frontendUrl}/sessions/{sessionId}/analysis'>View Analysis Results</a></p>"
+            + "<p>If you're using our mobile app, you can also <a href='{deepLink}/sessions/{sessionId}/analysis'>view on your device</a>.</p>"
+            + "<p>Remember, this is not a medical diagnosis. Please consult with a healthcare professional for interpretation.</p>"
+            + "<p>Regards,<br/>The AI-Gest Team</p>"
+            + "</div>";
+
     private final JavaMailSender mailSender;
+    private final MeterRegistry meterRegistry;
     
     @Value("${spring.mail.username}")
     private String fromEmail;
     
-    @Value("${server.servlet.context-path}")
-    private String contextPath;
-    
     @Value("${app.frontend.url:http://localhost:3000}")
     private String frontendUrl;
     
     @Value("${app.mobile.deep-link:aigest://auth}")
     private String mobileDeepLink;
 
+    @Value("${app.mail.workers:2}")
+    private int workers;
+
+    @Value("${app.mail.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${app.mail.max-batch-size:20}")
+    private int maxBatchSize;
+
+    @Value("${app.mail.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.mail.initial-backoff-ms:2000}")
+    private long initialBackoffMs;
+
+    private MailTemplate verificationTemplate;
+    private MailTemplate passwordResetTemplate;
+    private MailTemplate analysisResultTemplate;
+    private MailDispatcher dispatcher;
+
+    @PostConstruct
+    public void init() {
+        // The configured links are the same for every message, render them once
+        verificationTemplate = withLinks(MailTemplate.parse(VERIFICATION_TEMPLATE));
+        passwordResetTemplate = withLinks(MailTemplate.parse(PASSWORD_RESET_TEMPLATE));
+        analysisResultTemplate = withLinks(MailTemplate.parse(ANALYSIS_RESULT_TEMPLATE));
+        dispatcher = new MailDispatcher(mailSender, fromEmail, workers, queueCapacity,
+                maxBatchSize, maxAttempts, initialBackoffMs, meterRegistry);
+        log.info("Mail dispatcher started with {} workers", workers);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+    }
+
+    private MailTemplate withLinks(MailTemplate template) {
+        return template.with("frontendUrl", frontendUrl).with("deepLink", mobileDeepLink);
+    }
+
     @Override
-    @Async
     public void sendVerificationEmail(User user) {
-        try {
-            // Web verification URL
-            String webVerificationUrl = frontendUrl + "/verify-email?token=" + user.getVerificationToken();
-            
-            // Mobile deep link for verification
-            String mobileVerificationUrl = mobileDeepLink + "/verify?token=" + user.getVerificationToken();
-            
-            String subject = "AI-Gest - Please Verify Your Email";
-            String content = "<div style='font-family: Arial, sans-serif; max-width: 600px;'>"
-                    + "<h2>Hello " + user.getFirstName() + ",</h2>"
-                    + "<p>Thank you for registering with AI-Gest. Please click on the link below to verify your email address:</p>"
-                    + "<p><a href='" + webVerificationUrl + "'>Verify Your Email</a></p>"
-                    + "<p>If you're using our mobile app, you can also <a href='" + mobileVerificationUrl + "'>verify on your device</a>.</p>"
-                    + "<p>This link will expire in 24 hours.</p>"
-                    + "<p>If you did not create an account, please ignore this email.</p>"
-                    + "<p>Regards,<br/>The AI-Gest Team</p>"
-                    + "</div>";
-            
-            sendEmail(user.getEmail(), subject, content);
-        } catch (Exception e) {
-            log.error("Failed to send verification email to {}: {}", user.getEmail(), e.getMessage());
-        }
+        Map<String, String> values = new HashMap<>(4);
+        values.put("firstName", firstName(user));
+        values.put("token", user.getVerificationToken());
+        send(user, VERIFICATION_SUBJECT, verificationTemplate, values);
     }
 
     @Override
-    @Async
     public void sendPasswordResetEmail(User user) {
-        try {
-            // Web reset URL
-            String webResetUrl = frontendUrl + "/reset-password?token=" + user.getVerificationToken();
-            
-            // Mobile deep link for password reset
-            String mobileResetUrl = mobileDeepLink + "/reset?token=" + user.getVerificationToken();
-            
-            String subject = "AI-Gest - Password Reset Request";
-            String content = "<div style='font-family: Arial, sans-serif; max-width: 600px;'>"
-                    + "<h2>Hello " + user.getFirstName() + ",</h2>"
-                    + "<p>You have requested to reset your password. Please click on the link below to create a new password:</p>"
-                    + "<p><a href='" + webResetUrl + "'>Reset Your Password</a></p>"
-                    + "<p>If you're using our mobile app, you can also <a href='" + mobileResetUrl + "'>reset on your device</a>.</p>"
-                    + "<p>This link will expire in 2 hours.</p>"
-                    + "<p>If you did not request a password reset, please ignore this email or contact support.</p>"
-                    + "<p>Regards,<br/>The AI-Gest Team</p>"
-                    + "</div>";
-            
-            sendEmail(user.getEmail(), subject, content);
-        } catch (Exception e) {
-            log.error("Failed to send password reset email to {}: {}", user.getEmail(), e.getMessage());
-        }
+        Map<String, String> values = new HashMap<>(4);
+        values.put("firstName", firstName(user));
+        values.put("token", user.getVerificationToken());
+        send(user, PASSWORD_RESET_SUBJECT, passwordResetTemplate, values);
     }
 
     @Override
-    @Async
     public void sendAnalysisResultEmail(User user, Long sessionId, double probabilityScore) {
-        try {
-            // Web result URL
-            String webResultUrl = frontendUrl + "/sessions/" + sessionId + "/analysis";
-            
-            // Mobile deep link for viewing results
-            String mobileResultUrl = mobileDeepLink + "/sessions/" + sessionId + "/analysis";
-            
-            String subject = "AI-Gest - Analysis Results Available";
-            String content = "<div style='font-family: Arial, sans-serif; max-width: 600px;'>"
-                    + "<h2>Hello " + user.getFirstName() + ",</h2>"
-                    + "<p>The analysis for your recent movement session is now complete.</p>"
-                    + "<p>Probability Score: <strong>" + String.format("%.2f", probabilityScore) + "</strong></p>"
-                    + "<p>To view the detailed results, please click on the link below:</p>"
-                    + "<p><a href='" + webResultUrl + "'>View Analysis Results</a></p>"
-                    + "<p>If you're using our mobile app, you can also <a href='" + mobileResultUrl + "'>view on your device</a>.</p>"
-                    + "<p>Remember, this is not a medical diagnosis. Please consult with a healthcare professional for interpretation.</p>"
-                    + "<p>Regards,<br/>The AI-Gest Team</p>"
-                    + "</div>";
-            
-            sendEmail(user.getEmail(), subject, content);
-        } catch (Exception e) {
-            log.error("Failed to send analysis results email to {}: {}", user.getEmail(), e.getMessage());
+        Map<String, String> values = new HashMap<>(4);
+        values.put("firstName", firstName(user));
+        values.put("score", String.format("%.2f", probabilityScore));
+        values.put("sessionId", sessionId != null ? sessionId.toString() : null);
+        send(user, ANALYSIS_RESULT_SUBJECT, analysisResultTemplate, values);
+    }
+
+    /**
+     * Render and queue a message. A message missing its recipient, token or session id
+     * would carry a dead link, so it is logged and not sent; mail never fails the caller.
+     */
+    private void send(User user, String subject, MailTemplate template, Map<String, String> values) {
+        if (user.getEmail() == null || values.containsValue(null)) {
+            log.error("Not sending \"{}\" to {}: missing {}", subject, user.getEmail(),
+                    user.getEmail() == null ? "recipient" : missing(values));
+            return;
         }
+        dispatcher.submit(new MailDispatcher.OutgoingMail(user.getEmail(), subject, template.render(values)));
     }
-    
-    private void sendEmail(String to, String subject, String content) throws MessagingException {
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-        
-        helper.setFrom(fromEmail);
-        helper.setTo(to);
-        helper.setSubject(subject);
-        helper.setText(content, true);
-        
-        mailSender.send(message);
-        log.info("Email sent to {} with subject: {}", to, subject);
+
+    private static String missing(Map<String, String> values) {
+        return values.entrySet().stream()
+                .filter(entry -> entry.getValue() == null)
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElse("");
+    }
+
+    private static String firstName(User user) {
+        return user.getFirstName() != null ? user.getFirstName() : "";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,131 @@
+package mobile_java_project.service.impl;
+
+import com.parkinson.detection.ml.DenseNetwork;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mobile_java_project.dto.session.SessionCreateRequest;
+import mobile_java_project.dto.session.SessionScoreResponse;
+import mobile_java_project.exception.BadRequestException;
+import mobile_java_project.inference.BatchingInferenceEngine;
+import mobile_java_project.inference.TfliteModelReader;
+import mobile_java_project.service.InferenceService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InferenceServiceImpl implements InferenceService {
+
+    private static final float THRESHOLD = 0.5f;
+
+    private final ResourceLoader resourceLoader;
+
+    @Value("${app.inference.model-path:classpath:parkinsons_model.tflite}")
+    private String modelPath;
+
+    @Value("${app.inference.pool-size:2}")
+    private int poolSize;
+
+    @Value("${app.inference.max-batch-size:32}")
+    private int maxBatchSize;
+
+    @Value("${app.inference.max-batch-delay-ms:2}")
+    private long maxBatchDelayMs;
+
+    private BatchingInferenceEngine engine;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Resource resource = resourceLoader.getResource(modelPath);
+        DenseNetwork network;
+        if (modelPath.endsWith(".tflite")) {
+            network = TfliteModelReader.read(resource);
+        } else {
+            try (InputStream in = resource.getInputStream()) {
+                network = DenseNetwork.read(in);
+            }
+        }
+        engine = new BatchingInferenceEngine(network, poolSize, maxBatchSize, maxBatchDelayMs);
+        log.info("Loaded inference model {} with {} workers", modelPath, poolSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (engine != null) {
+            engine.close();
+        }
+    }
+
+    @Override
+    public SessionScoreResponse score(SessionCreateRequest request) {
+        return toResponse(await(engine.submit(toFeatures(request))));
+    }
+
+    @Override
+    public List<SessionScoreResponse> scoreAll(List<SessionCreateRequest> requests) {
+        // Queue every row before waiting so the engine can score them in shared batches
+        List<CompletableFuture<Float>> pending = new ArrayList<>(requests.size());
+        for (SessionCreateRequest request : requests) {
+            pending.add(engine.submit(toFeatures(request)));
+        }
+        List<SessionScoreResponse> responses = new ArrayList<>(pending.size());
+        for (CompletableFuture<Float> result : pending) {
+            responses.add(toResponse(await(result)));
+        }
+        return responses;
+    }
+
+    private static float await(CompletableFuture<Float> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scoring session", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to score session", e.getCause());
+        }
+    }
+
+    private static SessionScoreResponse toResponse(float probability) {
+        int prediction = probability >= THRESHOLD ? 1 : 0;
+        return SessionScoreResponse.builder()
+                .probability(probability)
+                .prediction(prediction)
+                .predictionText(prediction == 0 ? "No Parkinson's" : "Suspected Parkinson's")
+                .build();
+    }
+
+    @Override
+    public boolean hasAllFeatures(SessionCreateRequest request) {
+        for (Double value : request.featureValues()) {
+            if (value == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private float[] toFeatures(SessionCreateRequest request) {
+        Double[] values = request.featureValues();
+        float[] features = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                throw new BadRequestException("Missing feature at index " + i);
+            }
+            features[i] = values[i].floatValue();
+        }
+        return features;
+    }
+}
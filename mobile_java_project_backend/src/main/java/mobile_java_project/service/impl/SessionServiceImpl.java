@@ -1,64 +1,224 @@
 package mobile_java_project.service.impl;
 
+import com.parkinson.detection.ml.FeatureBlob;
 import lombok.RequiredArgsConstructor;
+import mobile_java_project.dto.session.SessionBatchResponse;
+import mobile_java_project.dto.session.SessionChangesResponse;
 import mobile_java_project.dto.session.SessionCreateRequest;
+import mobile_java_project.dto.session.SessionCursor;
+import mobile_java_project.dto.session.SessionPageResponse;
 import mobile_java_project.dto.session.SessionResponse;
+import mobile_java_project.dto.session.SessionScoreResponse;
 import mobile_java_project.entity.Session;
 import mobile_java_project.entity.User;
+import mobile_java_project.exception.BadRequestException;
+import mobile_java_project.exception.ConflictException;
 import mobile_java_project.exception.ResourceNotFoundException;
 import mobile_java_project.repository.SessionRepository;
 import mobile_java_project.repository.UserRepository;
+import mobile_java_project.service.InferenceService;
 import mobile_java_project.service.SessionService;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.FloatBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class SessionServiceImpl implements SessionService {
 
+    private static final int MAX_CHANGES_PAGE = 500;
+    private static final int MAX_HISTORY_PAGE = 100;
+
+    // Unique index on (user_id, client_id), see the Session entity
+    private static final String CLIENT_ID_INDEX = "ux_sessions_user_client";
+
+    // A transaction still open while a page is read can commit rows stamped earlier than
+    // rows already returned. Once caught up, the cursor stays this far behind the clock so
+    // such rows are sent on the next call; clients merge the repeats.
+    private static final Duration CHANGES_SETTLE_TIME = Duration.ofSeconds(5);
+
     private final SessionRepository sessionRepository;
     private final UserRepository userRepository;
+    private final InferenceService inferenceService;
 
     @Override
     @Transactional
     public SessionResponse saveSession(Long userId, SessionCreateRequest request) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        // The id comes from the verified token, a reference is enough for the foreign key
+        User user = userRepository.getReferenceById(userId);
+
+        // Score on the server when the features are complete, otherwise keep the client's prediction
+        int prediction = inferenceService.hasAllFeatures(request)
+                ? inferenceService.score(request).getPrediction()
+                : request.getPrediction();
+
+        // A retried upload of the same device session updates the row it created
+        Session session = request.getClientId() == null ? null
+                : sessionRepository.findByUserIdAndClientId(userId, request.getClientId()).orElse(null);
+        if (session == null) {
+            session = toEntity(user, request, prediction);
+            insert(List.of(session));
+        } else {
+            applyRequest(session, request, prediction);
+            session = sessionRepository.save(session);
+        }
+        return mapToSessionResponse(session);
+    }
+
+    @Override
+    @Transactional
+    public SessionBatchResponse saveSessions(Long userId, List<SessionCreateRequest> requests) {
+        // The id comes from the verified token, a reference is enough for the foreign key
+        User user = userRepository.getReferenceById(userId);
+
+        List<SessionBatchResponse.ItemResult> results = new ArrayList<>(requests.size());
+        List<Integer> accepted = new ArrayList<>(requests.size());
+        List<SessionCreateRequest> scorable = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            SessionCreateRequest request = requests.get(i);
+            String error = validate(request);
+            results.add(SessionBatchResponse.ItemResult.builder().index(i).error(error).build());
+            if (error == null) {
+                accepted.add(i);
+                if (inferenceService.hasAllFeatures(request)) {
+                    scorable.add(request);
+                }
+            }
+        }
+
+        // Sessions already uploaded by an earlier attempt, found with one query
+        Map<UUID, Session> byClientId = new HashMap<>();
+        List<UUID> clientIds = new ArrayList<>();
+        for (int i : accepted) {
+            if (requests.get(i).getClientId() != null) {
+                clientIds.add(requests.get(i).getClientId());
+            }
+        }
+        if (!clientIds.isEmpty()) {
+            for (Session existing : sessionRepository.findByUserIdAndClientIdIn(userId, clientIds)) {
+                byClientId.put(existing.getClientId(), existing);
+            }
+        }
+
+        // Score every complete session together, then keep the client's prediction for the rest
+        List<SessionScoreResponse> scores = inferenceService.scoreAll(scorable);
+        List<Session> targets = new ArrayList<>(accepted.size());
+        List<Session> created = new ArrayList<>();
+        int scored = 0;
+        for (int i : accepted) {
+            SessionCreateRequest request = requests.get(i);
+            int prediction = inferenceService.hasAllFeatures(request)
+                    ? scores.get(scored++).getPrediction()
+                    : request.getPrediction();
+            Session session = request.getClientId() == null ? null : byClientId.get(request.getClientId());
+            if (session == null) {
+                session = toEntity(user, request, prediction);
+                created.add(session);
+                if (request.getClientId() != null) {
+                    byClientId.put(request.getClientId(), session);
+                }
+            } else {
+                applyRequest(session, request, prediction);
+            }
+            targets.add(session);
+        }
+
+        // Ids come from the pooled sequence, so the inserts go out as JDBC batches
+        insert(created);
+        for (int k = 0; k < accepted.size(); k++) {
+            Session session = targets.get(k);
+            SessionBatchResponse.ItemResult result = results.get(accepted.get(k));
+            result.setId(session.getId());
+            result.setPrediction(session.getPrediction());
+            result.setPredictionText(predictionText(session.getPrediction()));
+        }
+
+        return SessionBatchResponse.builder()
+                .saved(accepted.size())
+                .failed(requests.size() - accepted.size())
+                .results(results)
+                .build();
+    }
+
+    /**
+     * @return Reason the session cannot be stored, or null if it is valid
+     */
+    private static String validate(SessionCreateRequest request) {
+        if (request == null) {
+            return "Session is empty";
+        }
+        if (request.getTimestamp() == null) {
+            return "Timestamp is required";
+        }
+        if (request.getPrediction() != 0 && request.getPrediction() != 1) {
+            return "Prediction must be 0 or 1";
+        }
+        return null;
+    }
+
+    /**
+     * Insert new sessions and flush right away. A concurrent upload of the same device
+     * session can insert its client UUID between our lookup and this insert; that race
+     * becomes a conflict the client retries, and the retry finds the stored row. Any
+     * other integrity violation is a genuine error and is passed on.
+     */
+    private void insert(List<Session> sessions) {
+        try {
+            sessionRepository.saveAllAndFlush(sessions);
+        } catch (DataIntegrityViolationException e) {
+            if (isClientIdConflict(e)) {
+                throw new ConflictException("Session is already being uploaded, please retry");
+            }
+            throw e;
+        }
+    }
 
+    private static boolean isClientIdConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return CLIENT_ID_INDEX.equalsIgnoreCase(violation.getConstraintName());
+            }
+        }
+        return false;
+    }
+
+    private static SessionCursor decodeCursor(String token) {
+        try {
+            return SessionCursor.decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
+    private static Session toEntity(User user, SessionCreateRequest request, int prediction) {
         Session session = Session.builder()
                 .user(user)
-                .timestamp(request.getTimestamp())
-                .prediction(request.getPrediction())
-                .accelXMean(request.getAccelXMean())
-                .accelYMean(request.getAccelYMean())
-                .accelZMean(request.getAccelZMean())
-                .accelXStd(request.getAccelXStd())
-                .accelYStd(request.getAccelYStd())
-                .accelZStd(request.getAccelZStd())
-                .accelXFftPeak(request.getAccelXFftPeak())
-                .accelYFftPeak(request.getAccelYFftPeak())
-                .accelZFftPeak(request.getAccelZFftPeak())
-                .gyroXMean(request.getGyroXMean())
-                .gyroYMean(request.getGyroYMean())
-                .gyroZMean(request.getGyroZMean())
-                .gyroXStd(request.getGyroXStd())
-                .gyroYStd(request.getGyroYStd())
-                .gyroZStd(request.getGyroZStd())
-                .gyroXFftPeak(request.getGyroXFftPeak())
-                .gyroYFftPeak(request.getGyroYFftPeak())
-                .gyroZFftPeak(request.getGyroZFftPeak())
-                .crossCorrX(request.getCrossCorrX())
-                .crossCorrY(request.getCrossCorrY())
-                .crossCorrZ(request.getCrossCorrZ())
+                .clientId(request.getClientId())
                 .build();
+        applyRequest(session, request, prediction);
+        return session;
+    }
 
-        Session savedSession = sessionRepository.save(session);
-        return mapToSessionResponse(savedSession);
+    private static void applyRequest(Session session, SessionCreateRequest request, int prediction) {
+        session.setTimestamp(request.getTimestamp());
+        session.setPrediction(prediction);
+        session.setFeatures(FeatureBlob.encode(request.featureValues()));
+        session.setFeatureSchema(FeatureBlob.SCHEMA_VERSION);
     }
 
     @Override
@@ -70,8 +230,7 @@ public class SessionServiceImpl implements SessionService {
 
     @Override
     public List<SessionResponse> getUserSessions(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = userRepository.getReferenceById(userId);
         
         return sessionRepository.findByUserOrderByTimestampDesc(user)
                 .stream()
@@ -79,10 +238,76 @@ public class SessionServiceImpl implements SessionService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public SessionChangesResponse getSessionChanges(Long userId, String since, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_CHANGES_PAGE));
+        SessionCursor after = since == null || since.isBlank() ? null : decodeCursor(since);
+
+        // One extra row tells whether another page follows, without a count query
+        List<Session> rows = after == null
+                ? sessionRepository.findByUserIdOrderByUpdatedAtAscIdAsc(userId, Limit.of(size + 1))
+                : sessionRepository.findChangedAfter(userId, after.getPosition(), after.getId(), Limit.of(size + 1));
+        boolean hasMore = rows.size() > size;
+        if (hasMore) {
+            rows = rows.subList(0, size);
+        }
+
+        SessionCursor next = after;
+        if (!rows.isEmpty()) {
+            Session last = rows.get(rows.size() - 1);
+            next = new SessionCursor(last.getUpdatedAt(), last.getId());
+        }
+        if (!hasMore) {
+            LocalDateTime settled = LocalDateTime.now().minus(CHANGES_SETTLE_TIME).truncatedTo(ChronoUnit.MICROS);
+            if (next == null || next.getPosition().isAfter(settled)) {
+                next = new SessionCursor(settled, 0);
+            }
+        }
+
+        return SessionChangesResponse.builder()
+                .sessions(rows.stream().map(this::mapToSessionResponse).collect(Collectors.toList()))
+                .cursor(next.encode())
+                .hasMore(hasMore)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SessionPageResponse getUserSessionsPage(Long userId, Integer prediction, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_HISTORY_PAGE));
+        SessionCursor after = cursor == null || cursor.isBlank() ? null : decodeCursor(cursor);
+
+        // One extra row tells whether another page follows, without a count query
+        Limit limit = Limit.of(pageSize + 1);
+        List<Session> rows;
+        if (after == null) {
+            rows = prediction == null
+                    ? sessionRepository.findByUserIdOrderByTimestampDescIdDesc(userId, limit)
+                    : sessionRepository.findByUserIdAndPredictionOrderByTimestampDescIdDesc(userId, prediction, limit);
+        } else {
+            rows = prediction == null
+                    ? sessionRepository.findPageBefore(userId, after.getPosition(), after.getId(), limit)
+                    : sessionRepository.findPageBeforeByPrediction(
+                            userId, prediction, after.getPosition(), after.getId(), limit);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            Session last = rows.get(pageSize - 1);
+            nextCursor = new SessionCursor(last.getTimestamp(), last.getId()).encode();
+        }
+
+        return SessionPageResponse.builder()
+                .sessions(rows.stream().map(this::mapToSessionResponse).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
     @Override
     public Page<SessionResponse> getUserSessionsPaginated(Long userId, Pageable pageable) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = userRepository.getReferenceById(userId);
         
         return sessionRepository.findByUser(user, pageable)
                 .map(this::mapToSessionResponse);
@@ -90,44 +315,51 @@ public class SessionServiceImpl implements SessionService {
 
     @Override
     public Page<SessionResponse> getUserSessionsByPrediction(Long userId, int prediction, Pageable pageable) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = userRepository.getReferenceById(userId);
         
         return sessionRepository.findByUserAndPrediction(user, prediction, pageable)
                 .map(this::mapToSessionResponse);
     }
     
     private SessionResponse mapToSessionResponse(Session session) {
-        String predictionText = session.getPrediction() == 0 ? "No Parkinson's" : "Suspected Parkinson's";
+        String predictionText = predictionText(session.getPrediction());
+        // Read in place through a float view of the blob
+        FloatBuffer features = FeatureBlob.view(session.getFeatures() != null ? session.getFeatures() : new byte[0]);
         
         return SessionResponse.builder()
                 .id(session.getId())
                 .userId(session.getUser().getId())
+                .clientId(session.getClientId())
                 .timestamp(session.getTimestamp())
                 .prediction(session.getPrediction())
                 .predictionText(predictionText)
-                .accelXMean(session.getAccelXMean())
-                .accelYMean(session.getAccelYMean())
-                .accelZMean(session.getAccelZMean())
-                .accelXStd(session.getAccelXStd())
-                .accelYStd(session.getAccelYStd())
-                .accelZStd(session.getAccelZStd())
-                .accelXFftPeak(session.getAccelXFftPeak())
-                .accelYFftPeak(session.getAccelYFftPeak())
-                .accelZFftPeak(session.getAccelZFftPeak())
-                .gyroXMean(session.getGyroXMean())
-                .gyroYMean(session.getGyroYMean())
-                .gyroZMean(session.getGyroZMean())
-                .gyroXStd(session.getGyroXStd())
-                .gyroYStd(session.getGyroYStd())
-                .gyroZStd(session.getGyroZStd())
-                .gyroXFftPeak(session.getGyroXFftPeak())
-                .gyroYFftPeak(session.getGyroYFftPeak())
-                .gyroZFftPeak(session.getGyroZFftPeak())
-                .crossCorrX(session.getCrossCorrX())
-                .crossCorrY(session.getCrossCorrY())
-                .crossCorrZ(session.getCrossCorrZ())
+                .accelXMean(FeatureBlob.valueAt(features, 0))
+                .accelYMean(FeatureBlob.valueAt(features, 1))
+                .accelZMean(FeatureBlob.valueAt(features, 2))
+                .accelXStd(FeatureBlob.valueAt(features, 3))
+                .accelYStd(FeatureBlob.valueAt(features, 4))
+                .accelZStd(FeatureBlob.valueAt(features, 5))
+                .gyroXMean(FeatureBlob.valueAt(features, 6))
+                .gyroYMean(FeatureBlob.valueAt(features, 7))
+                .gyroZMean(FeatureBlob.valueAt(features, 8))
+                .gyroXStd(FeatureBlob.valueAt(features, 9))
+                .gyroYStd(FeatureBlob.valueAt(features, 10))
+                .gyroZStd(FeatureBlob.valueAt(features, 11))
+                .accelXFftPeak(FeatureBlob.valueAt(features, 12))
+                .accelYFftPeak(FeatureBlob.valueAt(features, 13))
+                .accelZFftPeak(FeatureBlob.valueAt(features, 14))
+                .gyroXFftPeak(FeatureBlob.valueAt(features, 15))
+                .gyroYFftPeak(FeatureBlob.valueAt(features, 16))
+                .gyroZFftPeak(FeatureBlob.valueAt(features, 17))
+                .crossCorrX(FeatureBlob.valueAt(features, 18))
+                .crossCorrY(FeatureBlob.valueAt(features, 19))
+                .crossCorrZ(FeatureBlob.valueAt(features, 20))
                 .createdAt(session.getCreatedAt())
+                .updatedAt(session.getUpdatedAt())
                 .build();
     }
-} 
\ No newline at end of file
+
+    private static String predictionText(int prediction) {
+        return prediction == 0 ? "No Parkinson's" : "Suspected Parkinson's";
+    }
+}
@@ -0,0 +1,288 @@
+package mobile_java_project.service.impl;
+
+import com.parkinson.detection.ml.SensorTrace;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import mobile_java_project.dto.session.TraceUploadInitRequest;
+import mobile_java_project.dto.session.TraceUploadResponse;
+import mobile_java_project.entity.Session;
+import mobile_java_project.exception.BadRequestException;
+import mobile_java_project.exception.ConflictException;
+import mobile_java_project.exception.ResourceNotFoundException;
+import mobile_java_project.repository.SessionRepository;
+import mobile_java_project.service.TraceUploadService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+/**
+ * Chunked, resumable upload of raw sensor traces.
+ *
+ * Chunks are appended to {@code <sessionId>.pdt.part} through a {@link FileChannel},
+ * copying from the request stream without holding the chunk in memory. The length of
+ * the part file is the acknowledged offset: every chunk is forced to disk before it
+ * is acknowledged, and bytes that arrived before a dropped connection are kept, so a
+ * client resumes from whatever the server reports. On commit the file's block
+ * structure is checked in place and, once the session row is committed, the file is
+ * renamed to {@code <sessionId>.pdt}. A rename lost to a crash is redone by the next
+ * commit call, which is idempotent.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TraceUploadServiceImpl implements TraceUploadService {
+
+    private static final String TRACE_EXTENSION = ".pdt";
+    private static final String PART_EXTENSION = ".pdt.part";
+
+    private final SessionRepository sessionRepository;
+
+    @Value("${app.trace.dir:uploads/traces/}")
+    private String traceDir;
+
+    @Value("${app.trace.max-bytes:67108864}")
+    private long maxBytes;
+
+    private Path directory;
+
+    @PostConstruct
+    public void init() throws IOException {
+        directory = Paths.get(traceDir).toAbsolutePath().normalize();
+        Files.createDirectories(directory);
+    }
+
+    @Override
+    @Transactional
+    public TraceUploadResponse initUpload(Long userId, Long sessionId, TraceUploadInitRequest request) {
+        if (request.getTotalBytes() > maxBytes) {
+            throw new BadRequestException("Trace exceeds the maximum size of " + maxBytes + " bytes");
+        }
+        Session session = findOwnedSession(userId, sessionId);
+        String sha256 = request.getSha256() != null ? request.getSha256().toLowerCase() : null;
+        boolean sameUpload = request.getTotalBytes().equals(session.getTraceSize())
+                && (sha256 == null || sha256.equals(session.getTraceSha256()));
+
+        if (session.getTraceCommittedAt() != null) {
+            if (!sameUpload) {
+                throw new ConflictException("A different trace is already stored for this session");
+            }
+            return toResponse(session);
+        }
+
+        Path part = partFile(sessionId);
+        try {
+            if (!sameUpload) {
+                // New or changed upload, start over
+                Files.deleteIfExists(part);
+                session.setTraceSize(request.getTotalBytes());
+                session.setTraceSha256(sha256);
+                sessionRepository.save(session);
+            }
+            if (!Files.exists(part)) {
+                Files.createFile(part);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot prepare trace upload for session " + sessionId, e);
+        }
+        return toResponse(session);
+    }
+
+    @Override
+    public TraceUploadResponse appendChunk(Long userId, Long sessionId, long offset, InputStream body) throws IOException {
+        Session session = findOwnedSession(userId, sessionId);
+        requireOpenUpload(session);
+        long total = session.getTraceSize();
+
+        Path part = partFile(sessionId);
+        if (!Files.exists(part)) {
+            throw new ConflictException("Trace upload has not been started");
+        }
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.WRITE);
+             FileLock lock = lockUpload(channel)) {
+            long received = channel.size();
+            if (offset != received) {
+                throw new ConflictException("Expected offset " + received + " but got " + offset);
+            }
+
+            // Ask for one byte more than allowed so an oversized chunk is detected
+            ReadableByteChannel source = Channels.newChannel(body);
+            long limit = total - received + 1;
+            long written = 0;
+            long count;
+            while (written < limit && (count = channel.transferFrom(source, received + written, limit - written)) > 0) {
+                written += count;
+            }
+            if (received + written > total) {
+                channel.truncate(received);
+                throw new BadRequestException("Chunk runs past the declared trace size of " + total + " bytes");
+            }
+            channel.force(false);
+            return toResponse(session, received + written);
+        }
+    }
+
+    @Override
+    @Transactional
+    public TraceUploadResponse commitUpload(Long userId, Long sessionId) throws IOException {
+        Session session = findOwnedSession(userId, sessionId);
+        if (session.getTraceCommittedAt() != null) {
+            // Finish a rename that did not happen after an earlier commit
+            publish(sessionId);
+            return toResponse(session);
+        }
+        requireOpenUpload(session);
+
+        Path part = partFile(sessionId);
+        long received = Files.exists(part) ? Files.size(part) : 0;
+        if (received != session.getTraceSize()) {
+            throw new ConflictException("Trace incomplete: received " + received + " of " + session.getTraceSize() + " bytes");
+        }
+        if (session.getTraceSha256() != null && !session.getTraceSha256().equals(sha256(part))) {
+            // Corrupted somewhere along the way, the client has to send it again
+            Files.delete(part);
+            Files.createFile(part);
+            throw new BadRequestException("Trace checksum does not match, upload restarted");
+        }
+        try {
+            SensorTrace.validate(part.toFile());
+        } catch (IOException | RuntimeException e) {
+            throw new BadRequestException("Uploaded file is not a valid sensor trace", e);
+        }
+
+        session.setTraceCommittedAt(LocalDateTime.now());
+        sessionRepository.save(session);
+        // Rename only once the row is durable, so a rollback leaves the upload resumable
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    try {
+                        publish(sessionId);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Cannot store trace for session " + sessionId, e);
+                    }
+                }
+            });
+        } else {
+            publish(sessionId);
+        }
+        log.debug("Stored {} byte trace for session {}", received, sessionId);
+        return toResponse(session);
+    }
+
+    /**
+     * Move a committed part file to its final name; does nothing if it was already moved
+     */
+    private void publish(Long sessionId) throws IOException {
+        Path part = partFile(sessionId);
+        if (Files.exists(part)) {
+            Files.move(part, traceFile(sessionId), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private Session findOwnedSession(Long userId, Long sessionId) {
+        Session session = sessionRepository.findById(sessionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Session not found"));
+        if (!session.getUser().getId().equals(userId)) {
+            throw new ResourceNotFoundException("Session not found");
+        }
+        return session;
+    }
+
+    private static void requireOpenUpload(Session session) {
+        if (session.getTraceSize() == null) {
+            throw new ConflictException("Trace upload has not been started");
+        }
+        if (session.getTraceCommittedAt() != null) {
+            throw new ConflictException("Trace has already been committed");
+        }
+    }
+
+    /**
+     * Only one chunk of a trace may be written at a time, across threads and instances
+     */
+    private static FileLock lockUpload(FileChannel channel) throws IOException {
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            throw new ConflictException("Another chunk of this trace is being uploaded");
+        }
+        return lock;
+    }
+
+    private static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private Path partFile(Long sessionId) {
+        return directory.resolve(sessionId + PART_EXTENSION);
+    }
+
+    private Path traceFile(Long sessionId) {
+        return directory.resolve(sessionId + TRACE_EXTENSION);
+    }
+
+    private TraceUploadResponse toResponse(Session session) {
+        long received;
+        if (session.getTraceCommittedAt() != null) {
+            received = session.getTraceSize();
+        } else {
+            try {
+                Path part = partFile(session.getId());
+                received = Files.exists(part) ? Files.size(part) : 0;
+            } catch (IOException e) {
+                received = 0;
+            }
+        }
+        return toResponse(session, received);
+    }
+
+    private static TraceUploadResponse toResponse(Session session, long received) {
+        return TraceUploadResponse.builder()
+                .sessionId(session.getId())
+                .totalBytes(session.getTraceSize())
+                .receivedBytes(received)
+                .committed(session.getTraceCommittedAt() != null)
+                .build();
+    }
+}
@@ -0,0 +1,120 @@
+package mobile_java_project.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import mobile_java_project.exception.ErrorResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Caps the number of requests handled at once.
+ *
+ * On platform threads Tomcat's worker pool bounded concurrency by itself. On virtual
+ * threads every connection gets its own thread, so thousands of requests can end up
+ * queued on the JDBC pool until they time out. The limit is derived from the pool size:
+ * a request waits at most the queue timeout for a permit and is otherwise answered with
+ * 503 and a Retry-After header, which clients treat like any other transient failure.
+ *
+ * Only routes that hold a JDBC connection for most of their time are limited: the
+ * {@code /api} endpoints, except trace chunks and profile pictures, which stream to and
+ * from disk. Auth endpoints spend their time in BCrypt and SMTP and would only crowd the
+ * pool's permits, and actuator endpoints must answer while the limit is reached.
+ *
+ * In-flight requests and rejections are published as {@code http.server.concurrency.*}
+ * metrics.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+    private static final Pattern TRACE_CHUNK = Pattern.compile("/api/sessions/[^/]+/trace/?");
+
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long queueTimeoutNanos;
+    private final ObjectMapper objectMapper;
+    private final Counter rejected;
+
+    public ConcurrencyLimitFilter(int maxConcurrent, long queueTimeoutMillis,
+                                  ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        if (maxConcurrent <= 0 || queueTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Concurrency limit must be positive");
+        }
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMillis);
+        this.objectMapper = objectMapper;
+        this.rejected = Counter.builder("http.server.concurrency.rejected")
+                .description("Requests turned away because the concurrency limit was reached")
+                .register(meterRegistry);
+        Gauge.builder("http.server.concurrency.in-flight", this, ConcurrencyLimitFilter::inFlight)
+                .description("Requests currently holding a concurrency permit")
+                .register(meterRegistry);
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    private int inFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!path.startsWith("/api/")) {
+            return true;
+        }
+        return path.startsWith("/api/profile/picture")
+                || ("PUT".equals(request.getMethod()) && TRACE_CHUNK.matcher(path).matches());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            reject(request, response);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Server is busy, please retry",
+                "uri=" + request.getRequestURI(),
+                LocalDateTime.now()
+        );
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
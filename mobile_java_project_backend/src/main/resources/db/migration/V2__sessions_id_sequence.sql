@@ -0,0 +1,12 @@
+-- Session ids move from IDENTITY to a pooled sequence so Hibernate can batch inserts.
+-- Versioned 2 so it also runs on databases baselined at version 1 by baseline-on-migrate.
+CREATE SEQUENCE IF NOT EXISTS sessions_seq START WITH 1 INCREMENT BY 50;
+
+-- Continue after the ids already handed out by the identity column. The pooled optimizer
+-- reads each sequence value as the top of a block of 50, hence the offset.
+DO $$
+BEGIN
+    IF to_regclass('sessions') IS NOT NULL THEN
+        PERFORM setval('sessions_seq', COALESCE((SELECT MAX(id) FROM sessions), 0) + 50, false);
+    END IF;
+END $$;
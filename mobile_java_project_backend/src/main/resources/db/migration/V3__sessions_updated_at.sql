@@ -0,0 +1,10 @@
+-- Change cursor for GET /api/sessions/changes. Rows written before the column existed
+-- take their creation time so a first delta sync still returns them.
+DO $$
+BEGIN
+    IF to_regclass('sessions') IS NOT NULL THEN
+        ALTER TABLE sessions ADD COLUMN IF NOT EXISTS updated_at timestamp(6);
+        UPDATE sessions SET updated_at = COALESCE(created_at, now()) WHERE updated_at IS NULL;
+        CREATE INDEX IF NOT EXISTS ix_sessions_user_updated ON sessions (user_id, updated_at, id);
+    END IF;
+END $$;
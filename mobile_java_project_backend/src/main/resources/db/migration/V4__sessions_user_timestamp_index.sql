@@ -0,0 +1,7 @@
+-- Serves keyset paging of the session history, newest first, by a backward index scan.
+DO $$
+BEGIN
+    IF to_regclass('sessions') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS ix_sessions_user_timestamp ON sessions (user_id, timestamp, id);
+    END IF;
+END $$;
@@ -0,0 +1,37 @@
+-- The 21 feature columns are packed into one little-endian float4 blob (see FeatureBlob),
+-- with the layout version alongside. The old columns are copied, not dropped, so the data
+-- stays readable by the previous release; new rows leave them null.
+CREATE OR REPLACE FUNCTION pg_temp.float4_le(value double precision) RETURNS bytea AS $$
+    SELECT CASE
+        WHEN value IS NULL THEN '\x0000c07f'::bytea -- NaN marks a missing feature
+        ELSE (SELECT substring(b FROM 4 FOR 1) || substring(b FROM 3 FOR 1)
+                  || substring(b FROM 2 FOR 1) || substring(b FROM 1 FOR 1)
+              FROM float4send(value::real) AS b)
+    END
+$$ LANGUAGE sql IMMUTABLE;
+
+DO $$
+BEGIN
+    IF to_regclass('sessions') IS NOT NULL THEN
+        ALTER TABLE sessions ADD COLUMN IF NOT EXISTS features bytea;
+        ALTER TABLE sessions ADD COLUMN IF NOT EXISTS feature_schema integer;
+
+        IF EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_name = 'sessions' AND column_name = 'accelxmean') THEN
+            UPDATE sessions SET
+                features = pg_temp.float4_le(accelxmean) || pg_temp.float4_le(accelymean)
+                    || pg_temp.float4_le(accelzmean) || pg_temp.float4_le(accelxstd)
+                    || pg_temp.float4_le(accelystd) || pg_temp.float4_le(accelzstd)
+                    || pg_temp.float4_le(gyroxmean) || pg_temp.float4_le(gyroymean)
+                    || pg_temp.float4_le(gyrozmean) || pg_temp.float4_le(gyroxstd)
+                    || pg_temp.float4_le(gyroystd) || pg_temp.float4_le(gyrozstd)
+                    || pg_temp.float4_le(accelxfft_peak) || pg_temp.float4_le(accelyfft_peak)
+                    || pg_temp.float4_le(accelzfft_peak) || pg_temp.float4_le(gyroxfft_peak)
+                    || pg_temp.float4_le(gyroyfft_peak) || pg_temp.float4_le(gyrozfft_peak)
+                    || pg_temp.float4_le(cross_corrx) || pg_temp.float4_le(cross_corry)
+                    || pg_temp.float4_le(cross_corrz),
+                feature_schema = 1
+            WHERE features IS NULL;
+        END IF;
+    END IF;
+END $$;
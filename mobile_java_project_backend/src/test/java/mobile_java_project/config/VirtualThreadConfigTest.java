@@ -0,0 +1,21 @@
+package mobile_java_project.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.system.JavaVersion;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VirtualThreadConfigTest {
+
+    @Test
+    void virtualProfileNeedsJava21() {
+        if (JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)) {
+            assertThatCode(VirtualThreadConfig::new).doesNotThrowAnyException();
+        } else {
+            assertThatThrownBy(VirtualThreadConfig::new)
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("Java 21");
+        }
+    }
+}
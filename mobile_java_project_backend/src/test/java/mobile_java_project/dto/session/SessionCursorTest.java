@@ -0,0 +1,42 @@
+package mobile_java_project.dto.session;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SessionCursorTest {
+
+    @Test
+    void roundTripsAtMicrosecondPrecision() {
+        SessionCursor cursor = new SessionCursor(LocalDateTime.of(2026, 3, 14, 15, 9, 26, 535_897_000), 9_007_199_254_740_993L);
+
+        assertThat(SessionCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void roundTripsBeforeTheEpoch() {
+        SessionCursor cursor = new SessionCursor(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000), 0);
+
+        assertThat(SessionCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        String token = new SessionCursor(LocalDateTime.of(2026, 10, 17, 8, 30), 42).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void rejectsTokensItDidNotProduce() {
+        for (String token : new String[]{"", "not a cursor", "MTIz", "YWJjOjQy", "***"}) {
+            assertThatThrownBy(() -> SessionCursor.decode(token))
+                    .as(token)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package mobile_java_project.inference;
+
+import com.parkinson.detection.ml.DenseNetwork;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TfliteModelReaderTest {
+
+    @Test
+    void bundledDenseExportMatchesTheTfliteWeights() throws IOException {
+        DenseNetwork fromTflite = TfliteModelReader.read(new ClassPathResource("parkinsons_model.tflite"));
+        DenseNetwork fromDense;
+        try (InputStream in = new ClassPathResource("parkinsons_model.dense").getInputStream()) {
+            fromDense = DenseNetwork.read(in);
+        }
+
+        assertEquals(21, fromTflite.inputSize());
+        assertEquals(1, fromTflite.outputSize());
+        assertEquals(fromTflite.maxWidth(), fromDense.maxWidth());
+
+        int rows = 500;
+        float[] input = new float[rows * 21];
+        Random random = new Random(7);
+        for (int i = 0; i < input.length; i++) {
+            input[i] = (float) (2 * random.nextGaussian());
+        }
+        assertArrayEquals(evaluate(fromTflite, input, rows), evaluate(fromDense, input, rows));
+    }
+
+    private static float[] evaluate(DenseNetwork network, float[] input, int rows) {
+        float[] output = new float[rows];
+        network.evaluate(input, rows, output,
+                new float[rows * network.maxWidth()], new float[rows * network.maxWidth()]);
+        return output;
+    }
+}
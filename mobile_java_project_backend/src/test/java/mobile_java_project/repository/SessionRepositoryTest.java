@@ -0,0 +1,112 @@
+package mobile_java_project.repository;
+
+import mobile_java_project.entity.Role;
+import mobile_java_project.entity.Session;
+import mobile_java_project.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keyset queries against PostgreSQL, whose timestamp precision the cursors depend on
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class SessionRepositoryTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void changesAfterACursorBreakTiesOnId() {
+        User user = user("changes@example.com");
+        User other = user("other@example.com");
+        LocalDateTime t1 = LocalDateTime.of(2026, 5, 1, 12, 0, 0, 123_456_000);
+        LocalDateTime t2 = t1.plusNanos(1_000);
+
+        Session a = session(user, t1);
+        Session b = session(user, t1);
+        Session c = session(user, t2);
+        session(other, t2);
+
+        // Equal update times: only rows with a larger id follow the cursor
+        List<Session> afterA = sessionRepository.findChangedAfter(user.getId(), t1, a.getId(), Limit.of(10));
+        assertThat(afterA).extracting(Session::getId).containsExactly(b.getId(), c.getId());
+
+        List<Session> afterB = sessionRepository.findChangedAfter(user.getId(), t1, b.getId(), Limit.of(10));
+        assertThat(afterB).extracting(Session::getId).containsExactly(c.getId());
+
+        // A settle-window cursor has id 0 and re-sends every row stamped after it
+        List<Session> settled = sessionRepository.findChangedAfter(user.getId(), t1.minusSeconds(5), 0L, Limit.of(10));
+        assertThat(settled).extracting(Session::getId).containsExactly(a.getId(), b.getId(), c.getId());
+    }
+
+    @Test
+    void firstPageIsOrderedByUpdateTimeThenId() {
+        User user = user("order@example.com");
+        LocalDateTime t = LocalDateTime.of(2026, 5, 2, 8, 0);
+        Session late = session(user, t.plusSeconds(1));
+        Session first = session(user, t);
+        Session second = session(user, t);
+
+        List<Session> page = sessionRepository.findByUserIdOrderByUpdatedAtAscIdAsc(user.getId(), Limit.of(2));
+
+        assertThat(page).extracting(Session::getId).containsExactly(first.getId(), second.getId());
+        assertThat(late.getId()).isLessThan(first.getId());
+    }
+
+    private User user(String email) {
+        return userRepository.saveAndFlush(User.builder()
+                .email(email)
+                .password("x")
+                .firstName("Test")
+                .lastName("User")
+                .role(Role.USER)
+                .enabled(true)
+                .build());
+    }
+
+    /**
+     * Save a session, then pin updated_at in the table. The managed entity is left alone:
+     * marking it dirty would let @PreUpdate stamp the clock again on the next flush.
+     */
+    private Session session(User user, LocalDateTime updatedAt) {
+        Session session = sessionRepository.saveAndFlush(Session.builder()
+                .user(user)
+                .timestamp(updatedAt)
+                .prediction(0)
+                .build());
+        jdbcTemplate.update("UPDATE sessions SET updated_at = ? WHERE id = ?", updatedAt, session.getId());
+        return session;
+    }
+}
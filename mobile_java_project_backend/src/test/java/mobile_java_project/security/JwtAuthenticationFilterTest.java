@@ -0,0 +1,98 @@
+package mobile_java_project.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mobile_java_project.entity.Role;
+import mobile_java_project.entity.User;
+import mobile_java_project.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtAuthenticationFilterTest {
+
+    private static final String EMAIL = "patient@example.com";
+    private static final long RECHECK_MS = 60_000L;
+
+    private final AtomicLong now = new AtomicLong(System.currentTimeMillis());
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final JwtTokenProvider tokenProvider = new JwtTokenProvider();
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(tokenProvider,
+            new VerifiedTokenCache(100, RECHECK_MS, new SimpleMeterRegistry(), now::get), userRepository);
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret",
+                "aTestSecretThatIsLongEnoughForHs512SigningOfTheTokensInTheseTestsOnly");
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpiration", 3_600_000L);
+        tokenProvider.init();
+        token = tokenProvider.generateAccessToken(User.builder()
+                .id(3L).email(EMAIL).firstName("Pat").lastName("Ient").role(Role.USER).enabled(true).build());
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authenticatesAnEnabledUser() throws Exception {
+        when(userRepository.existsByEmailAndEnabledTrue(EMAIL)).thenReturn(true);
+
+        Authentication authentication = authenticate(token);
+
+        assertThat(authentication).isNotNull();
+        assertThat(((AuthenticatedUser) authentication.getPrincipal()).getUserId()).isEqualTo(3L);
+    }
+
+    @Test
+    void rejectsAValidTokenOfADisabledUser() throws Exception {
+        when(userRepository.existsByEmailAndEnabledTrue(EMAIL)).thenReturn(false);
+
+        assertThat(authenticate(token)).isNull();
+    }
+
+    @Test
+    void cachedTokenIsRejectedOnceTheUserIsDisabled() throws Exception {
+        when(userRepository.existsByEmailAndEnabledTrue(EMAIL)).thenReturn(true);
+        assertThat(authenticate(token)).isNotNull();
+        assertThat(authenticate(token)).isNotNull();
+        // The second request was served from the cache without another lookup
+        verify(userRepository, times(1)).existsByEmailAndEnabledTrue(EMAIL);
+
+        when(userRepository.existsByEmailAndEnabledTrue(EMAIL)).thenReturn(false);
+        now.addAndGet(RECHECK_MS);
+
+        assertThat(authenticate(token)).isNull();
+    }
+
+    @Test
+    void ignoresATamperedToken() throws Exception {
+        when(userRepository.existsByEmailAndEnabledTrue(EMAIL)).thenReturn(true);
+
+        assertThat(authenticate(token.substring(0, token.length() - 2) + "xx")).isNull();
+    }
+
+    private Authentication authenticate(String bearer) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/sessions");
+        request.addHeader("Authorization", "Bearer " + bearer);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,126 @@
+package mobile_java_project.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTest {
+
+    private static final long RECHECK_MS = 60_000L;
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void returnsTheCachedAuthenticationUntilTheTokenExpires() {
+        VerifiedTokenCache cache = cache(10);
+        Authentication authentication = authentication("a@example.com");
+        cache.put("token", authentication, now.get() + 1000);
+
+        assertThat(cache.get("token", auth -> true)).isSameAs(authentication);
+
+        now.addAndGet(1000);
+        assertThat(cache.get("token", auth -> true)).isNull();
+        assertThat(cache.size()).isZero();
+        assertThat(meterRegistry.get("jwt.token.cache.requests").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("jwt.token.cache.requests").tag("result", "miss").functionCounter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void doesNotCacheAnExpiredToken() {
+        VerifiedTokenCache cache = cache(10);
+        cache.put("token", authentication("a@example.com"), now.get());
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void rechecksAnEntryOnlyOncePerInterval() {
+        VerifiedTokenCache cache = cache(10);
+        cache.put("token", authentication("a@example.com"), now.get() + 10 * RECHECK_MS);
+        AtomicInteger checks = new AtomicInteger();
+
+        cache.get("token", auth -> checks.incrementAndGet() > 0);
+        now.addAndGet(RECHECK_MS - 1);
+        cache.get("token", auth -> checks.incrementAndGet() > 0);
+        assertThat(checks).hasValue(0);
+
+        now.addAndGet(1);
+        assertThat(cache.get("token", auth -> checks.incrementAndGet() > 0)).isNotNull();
+        assertThat(cache.get("token", auth -> checks.incrementAndGet() > 0)).isNotNull();
+        assertThat(checks).hasValue(1);
+    }
+
+    @Test
+    void dropsAnEntryThatFailsTheRecheck() {
+        VerifiedTokenCache cache = cache(10);
+        cache.put("token", authentication("a@example.com"), now.get() + 10 * RECHECK_MS);
+
+        now.addAndGet(RECHECK_MS);
+        assertThat(cache.get("token", auth -> false)).isNull();
+        assertThat(cache.size()).isZero();
+        // A later lookup cannot get the revoked entry back
+        assertThat(cache.get("token", auth -> true)).isNull();
+    }
+
+    @Test
+    void staysWithinItsBoundAndEvictsTheEntriesClosestToExpiry() {
+        VerifiedTokenCache cache = cache(10);
+        for (int i = 0; i < 10; i++) {
+            cache.put("token" + i, authentication("u" + i + "@example.com"), now.get() + 1000 + i);
+        }
+        assertThat(cache.size()).isEqualTo(10);
+
+        cache.put("late", authentication("late@example.com"), now.get() + 5000);
+
+        // The tenth closest to expiry makes room, plus one for the new entry
+        assertThat(cache.size()).isEqualTo(9);
+        assertThat(cache.get("token0", auth -> true)).isNull();
+        assertThat(cache.get("token1", auth -> true)).isNull();
+        assertThat(cache.get("token2", auth -> true)).isNotNull();
+        assertThat(cache.get("late", auth -> true)).isNotNull();
+    }
+
+    @Test
+    void evictsExpiredEntriesBeforeLiveOnes() {
+        VerifiedTokenCache cache = cache(4);
+        cache.put("old", authentication("old@example.com"), now.get() + 10);
+        for (int i = 0; i < 3; i++) {
+            cache.put("token" + i, authentication("u" + i + "@example.com"), now.get() + 1000);
+        }
+
+        now.addAndGet(10);
+        cache.put("new", authentication("new@example.com"), now.get() + 1000);
+
+        assertThat(cache.size()).isEqualTo(4);
+        for (int i = 0; i < 3; i++) {
+            assertThat(cache.get("token" + i, auth -> true)).isNotNull();
+        }
+    }
+
+    @Test
+    void zeroSizeDisablesTheCache() {
+        VerifiedTokenCache cache = cache(0);
+        cache.put("token", authentication("a@example.com"), now.get() + 1000);
+
+        assertThat(cache.get("token", auth -> true)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    private VerifiedTokenCache cache(int maxSize) {
+        return new VerifiedTokenCache(maxSize, RECHECK_MS, meterRegistry, now::get);
+    }
+
+    private static Authentication authentication(String email) {
+        return new UsernamePasswordAuthenticationToken(new AuthenticatedUser(1L, email, List.of()), "token", List.of());
+    }
+}
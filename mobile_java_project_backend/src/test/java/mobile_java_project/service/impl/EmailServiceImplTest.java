@@ -0,0 +1,84 @@
+package mobile_java_project.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import mobile_java_project.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmailServiceImplTest {
+
+    private final JavaMailSender mailSender = mock(JavaMailSender.class);
+    private final EmailServiceImpl service = new EmailServiceImpl(mailSender, new SimpleMeterRegistry());
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "fromEmail", "noreply@example.com");
+        ReflectionTestUtils.setField(service, "frontendUrl", "https://app.example.com");
+        ReflectionTestUtils.setField(service, "mobileDeepLink", "aigest://auth");
+        ReflectionTestUtils.setField(service, "workers", 1);
+        ReflectionTestUtils.setField(service, "queueCapacity", 10);
+        ReflectionTestUtils.setField(service, "maxBatchSize", 5);
+        ReflectionTestUtils.setField(service, "maxAttempts", 1);
+        ReflectionTestUtils.setField(service, "initialBackoffMs", 0L);
+        service.init();
+        when(mailSender.createMimeMessage()).thenReturn(new MimeMessage((Session) null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void sendsWithAMissingFirstName() throws Exception {
+        User user = user("first@example.com", null, "abc123");
+
+        service.sendVerificationEmail(user);
+
+        ArgumentCaptor<MimeMessage[]> sent = ArgumentCaptor.forClass(MimeMessage[].class);
+        verify(mailSender, timeout(2000)).send(sent.capture());
+        String html = (String) sent.getValue()[0].getContent();
+        assertThat(html).contains("Hello ,").contains("verify-email?token=abc123");
+    }
+
+    @Test
+    void skipsAMessageWithoutItsToken() {
+        assertThatCode(() -> service.sendVerificationEmail(user("a@example.com", "Ann", null)))
+                .doesNotThrowAnyException();
+        assertThatCode(() -> service.sendPasswordResetEmail(user("a@example.com", "Ann", null)))
+                .doesNotThrowAnyException();
+        assertThatCode(() -> service.sendAnalysisResultEmail(user("a@example.com", "Ann", null), null, 0.5))
+                .doesNotThrowAnyException();
+
+        verify(mailSender, after(200).never()).send(any(MimeMessage[].class));
+    }
+
+    @Test
+    void skipsAMessageWithoutARecipient() {
+        assertThatCode(() -> service.sendPasswordResetEmail(user(null, "Ann", "abc123")))
+                .doesNotThrowAnyException();
+
+        verify(mailSender, after(200).never()).send(any(MimeMessage[].class));
+        verify(mailSender, never()).createMimeMessage();
+    }
+
+    private static User user(String email, String firstName, String token) {
+        return User.builder().email(email).firstName(firstName).verificationToken(token).build();
+    }
+}
@@ -0,0 +1,142 @@
+package mobile_java_project.service.impl;
+
+import mobile_java_project.dto.session.SessionChangesResponse;
+import mobile_java_project.dto.session.SessionCreateRequest;
+import mobile_java_project.dto.session.SessionCursor;
+import mobile_java_project.entity.Session;
+import mobile_java_project.entity.User;
+import mobile_java_project.exception.BadRequestException;
+import mobile_java_project.exception.ConflictException;
+import mobile_java_project.repository.SessionRepository;
+import mobile_java_project.repository.UserRepository;
+import mobile_java_project.service.InferenceService;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class SessionServiceImplTest {
+
+    private static final long USER_ID = 5L;
+
+    private final SessionRepository sessionRepository = mock(SessionRepository.class);
+    private final SessionServiceImpl service = new SessionServiceImpl(
+            sessionRepository, mock(UserRepository.class), mock(InferenceService.class));
+
+    @Test
+    void caughtUpCursorStaysBehindTheSettleWindow() {
+        LocalDateTime before = LocalDateTime.now();
+        when(sessionRepository.findByUserIdOrderByUpdatedAtAscIdAsc(USER_ID, Limit.of(11)))
+                .thenReturn(List.of(session(3, before.minusSeconds(1))));
+
+        SessionChangesResponse response = service.getSessionChanges(USER_ID, null, 10);
+
+        assertThat(response.isHasMore()).isFalse();
+        assertThat(response.getSessions()).hasSize(1);
+        // The row is still inside the window, so the next call sends it again
+        SessionCursor cursor = SessionCursor.decode(response.getCursor());
+        assertThat(cursor.getId()).isZero();
+        assertThat(cursor.getPosition())
+                .isBefore(before.minusSeconds(1))
+                .isAfter(before.minus(Duration.ofSeconds(10)));
+    }
+
+    @Test
+    void settledRowsMoveTheCursorToTheLastOne() {
+        LocalDateTime updatedAt = LocalDateTime.now().minusHours(1).truncatedTo(ChronoUnit.MICROS);
+        when(sessionRepository.findByUserIdOrderByUpdatedAtAscIdAsc(USER_ID, Limit.of(11)))
+                .thenReturn(List.of(session(1, updatedAt.minusMinutes(1)), session(7, updatedAt)));
+
+        SessionChangesResponse response = service.getSessionChanges(USER_ID, null, 10);
+
+        assertThat(SessionCursor.decode(response.getCursor())).isEqualTo(new SessionCursor(updatedAt, 7));
+    }
+
+    @Test
+    void fullPageKeepsTheExactPositionEvenInsideTheWindow() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        when(sessionRepository.findByUserIdOrderByUpdatedAtAscIdAsc(USER_ID, Limit.of(3)))
+                .thenReturn(List.of(session(1, now), session(2, now), session(3, now)));
+
+        SessionChangesResponse response = service.getSessionChanges(USER_ID, null, 2);
+
+        assertThat(response.isHasMore()).isTrue();
+        assertThat(response.getSessions()).hasSize(2);
+        assertThat(SessionCursor.decode(response.getCursor())).isEqualTo(new SessionCursor(now, 2));
+    }
+
+    @Test
+    void resumesAfterTheDecodedPosition() {
+        LocalDateTime position = LocalDateTime.of(2026, 1, 2, 3, 4, 5, 6_000);
+        String since = new SessionCursor(position, 44).encode();
+        when(sessionRepository.findChangedAfter(eq(USER_ID), any(), anyLong(), any())).thenReturn(List.of());
+
+        SessionChangesResponse response = service.getSessionChanges(USER_ID, since, 10);
+
+        verify(sessionRepository).findChangedAfter(USER_ID, position, 44L, Limit.of(11));
+        // Nothing new and already settled: the client keeps its position
+        assertThat(response.getCursor()).isEqualTo(since);
+    }
+
+    @Test
+    void rejectsAMalformedCursorAsABadRequest() {
+        assertThatThrownBy(() -> service.getSessionChanges(USER_ID, "not a cursor", 10))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(sessionRepository);
+    }
+
+    @Test
+    void losingTheClientIdRaceIsAConflict() {
+        when(sessionRepository.saveAllAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate key",
+                new ConstraintViolationException("duplicate key", new SQLException(), "ux_sessions_user_client")));
+
+        assertThatThrownBy(() -> service.saveSessions(USER_ID, List.of(request(UUID.randomUUID()))))
+                .isInstanceOf(ConflictException.class);
+        assertThatThrownBy(() -> service.saveSession(USER_ID, request(UUID.randomUUID())))
+                .isInstanceOf(ConflictException.class);
+    }
+
+    @Test
+    void otherIntegrityViolationsAreNotRetryableConflicts() {
+        DataIntegrityViolationException notNull = new DataIntegrityViolationException("null value",
+                new ConstraintViolationException("null value", new SQLException(), null));
+        when(sessionRepository.saveAllAndFlush(any())).thenThrow(notNull);
+
+        assertThatThrownBy(() -> service.saveSessions(USER_ID, List.of(request(UUID.randomUUID()))))
+                .isSameAs(notNull);
+    }
+
+    private static SessionCreateRequest request(UUID clientId) {
+        return SessionCreateRequest.builder()
+                .clientId(clientId)
+                .timestamp(LocalDateTime.now())
+                .prediction(1)
+                .build();
+    }
+
+    private static Session session(long id, LocalDateTime updatedAt) {
+        return Session.builder()
+                .id(id)
+                .user(User.builder().id(USER_ID).build())
+                .timestamp(updatedAt)
+                .updatedAt(updatedAt)
+                .build();
+    }
+}
@@ -0,0 +1,130 @@
+package mobile_java_project.service.impl;
+
+import com.parkinson.detection.ml.SensorTraceWriter;
+import mobile_java_project.entity.Session;
+import mobile_java_project.entity.User;
+import mobile_java_project.exception.BadRequestException;
+import mobile_java_project.repository.SessionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TraceUploadServiceImplTest {
+
+    private static final long USER_ID = 3L;
+    private static final long SESSION_ID = 17L;
+
+    @TempDir
+    Path directory;
+
+    private final SessionRepository sessionRepository = mock(SessionRepository.class);
+    private TraceUploadServiceImpl service;
+    private Session session;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        service = new TraceUploadServiceImpl(sessionRepository);
+        ReflectionTestUtils.setField(service, "traceDir", directory.toString());
+        service.init();
+
+        session = Session.builder()
+                .id(SESSION_ID)
+                .user(User.builder().id(USER_ID).build())
+                .build();
+        when(sessionRepository.findById(SESSION_ID)).thenReturn(Optional.of(session));
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void commitRenamesOnlyAfterTheTransactionCommits() throws IOException {
+        uploaded(validTrace());
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertThat(service.commitUpload(USER_ID, SESSION_ID).isCommitted()).isTrue();
+        verify(sessionRepository).save(session);
+        assertThat(part()).exists();
+        assertThat(trace()).doesNotExist();
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertThat(part()).doesNotExist();
+        assertThat(trace()).exists();
+    }
+
+    @Test
+    void repeatedCommitFinishesAnInterruptedRename() throws IOException {
+        uploaded(validTrace());
+        session.setTraceCommittedAt(LocalDateTime.now());
+
+        assertThat(service.commitUpload(USER_ID, SESSION_ID).isCommitted()).isTrue();
+        assertThat(trace()).exists();
+
+        // Nothing left to do the second time
+        assertThat(service.commitUpload(USER_ID, SESSION_ID).isCommitted()).isTrue();
+        verify(sessionRepository, never()).save(session);
+    }
+
+    @Test
+    void rejectsAFileThatIsNotATraceAndKeepsTheUpload() throws IOException {
+        byte[] bytes = validTrace();
+        // Split a varint in the first block, just past the 16-byte header
+        bytes[16 + 10] ^= (byte) 0x80;
+        uploaded(bytes);
+
+        assertThatThrownBy(() -> service.commitUpload(USER_ID, SESSION_ID))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(session.getTraceCommittedAt()).isNull();
+        assertThat(part()).exists();
+        verify(sessionRepository, never()).save(session);
+    }
+
+    private void uploaded(byte[] bytes) throws IOException {
+        Files.write(part(), bytes);
+        session.setTraceSize((long) bytes.length);
+    }
+
+    private byte[] validTrace() throws IOException {
+        Path file = directory.resolve("source.bin");
+        try (SensorTraceWriter writer = new SensorTraceWriter(file.toFile())) {
+            for (int i = 0; i < 600; i++) {
+                writer.addAccelerometer(i * 20_000_000L, (float) Math.sin(i * 0.1), 0.1f, 9.81f);
+                writer.addGyroscope(i * 20_000_000L, 0.01f * i, 0f, -0.2f);
+            }
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        Files.delete(file);
+        return bytes;
+    }
+
+    private Path part() {
+        return directory.resolve(SESSION_ID + ".pdt.part");
+    }
+
+    private Path trace() {
+        return directory.resolve(SESSION_ID + ".pdt");
+    }
+}
@@ -0,0 +1,74 @@
+package mobile_java_project.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(
+            1, 0, new ObjectMapper().registerModule(new JavaTimeModule()), meterRegistry);
+
+    @Test
+    void limitsJdbcBoundApiRoutes() {
+        assertThat(filter.shouldNotFilter(request("GET", "/api/sessions/history"))).isFalse();
+        assertThat(filter.shouldNotFilter(request("POST", "/api/sessions/batch"))).isFalse();
+        assertThat(filter.shouldNotFilter(request("POST", "/api/sessions/12/trace/commit"))).isFalse();
+        assertThat(filter.shouldNotFilter(request("POST", "/api/sessions/12/trace"))).isFalse();
+        assertThat(filter.shouldNotFilter(request("PUT", "/api/profile"))).isFalse();
+    }
+
+    @Test
+    void leavesAuthStreamingAndActuatorRoutesAlone() {
+        assertThat(filter.shouldNotFilter(request("POST", "/auth/login"))).isTrue();
+        assertThat(filter.shouldNotFilter(request("POST", "/auth/register"))).isTrue();
+        assertThat(filter.shouldNotFilter(request("PUT", "/api/sessions/12/trace"))).isTrue();
+        assertThat(filter.shouldNotFilter(request("POST", "/api/profile/picture"))).isTrue();
+        assertThat(filter.shouldNotFilter(request("GET", "/api/profile/pictures/a.png"))).isTrue();
+        assertThat(filter.shouldNotFilter(request("GET", "/actuator/health"))).isTrue();
+    }
+
+    @Test
+    void rejectsARequestOverTheLimitWith503() throws Exception {
+        MockHttpServletResponse inner = new MockHttpServletResponse();
+        // The outer request holds the only permit while the inner one arrives
+        MockFilterChain holding = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                try {
+                    filter.doFilter(request("GET", "/api/sessions/history"), inner, new MockFilterChain());
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+        MockHttpServletResponse outer = new MockHttpServletResponse();
+
+        filter.doFilter(request("GET", "/api/sessions/history"), outer, holding);
+
+        assertThat(outer.getStatus()).isEqualTo(200);
+        assertThat(inner.getStatus()).isEqualTo(503);
+        assertThat(inner.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(meterRegistry.get("http.server.concurrency.rejected").counter().count()).isEqualTo(1);
+        // The permit is released afterwards
+        MockHttpServletResponse after = new MockHttpServletResponse();
+        filter.doFilter(request("GET", "/api/sessions/history"), after, new MockFilterChain());
+        assertThat(after.getStatus()).isEqualTo(200);
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/v1" + path);
+        request.setContextPath("/api/v1");
+        return request;
+    }
+}
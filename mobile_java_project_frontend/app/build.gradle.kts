@@ -15,6 +15,10 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        // Score with the bundled parkinsons_model.dense instead of TFLite. Keep this off
+        // until verify_dense_model.py has passed against the TFLite interpreter.
+        buildConfigField("boolean", "USE_DENSE_MODEL", "false")
     }
 
     buildTypes {
@@ -46,17 +50,21 @@ dependencies {
     implementation(libs.activity)
     implementation(libs.constraintlayout)
     implementation("androidx.core:core:1.12.0")
+    implementation(project(":ml-core"))
     implementation ("org.tensorflow:tensorflow-lite:2.13.0")
     implementation("org.tensorflow:tensorflow-lite-support:0.4.3")
     implementation("org.tensorflow:tensorflow-lite-metadata:0.1.0-rc2")
 
-    implementation("org.apache.commons:commons-math3:3.6.1")
 
     implementation("androidx.swiperefreshlayout:swiperefreshlayout:1.1.0")
 
     // Add Room database dependencies
     implementation("androidx.room:room-runtime:2.6.1")
     annotationProcessor("androidx.room:room-compiler:2.6.1")
+    implementation("androidx.room:room-paging:2.6.1")
+    
+    // Paged lists backed by Room
+    implementation("androidx.paging:paging-runtime:3.2.1")
     
     // Add Retrofit and networking dependencies
     implementation("com.squareup.retrofit2:retrofit:2.9.0")
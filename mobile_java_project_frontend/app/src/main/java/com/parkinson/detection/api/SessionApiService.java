@@ -3,10 +3,12 @@ package com.parkinson.detection.api;
 import java.util.List;
 
 import com.parkinson.detection.model.Session;
+import okhttp3.RequestBody;
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.GET;
 import retrofit2.http.POST;
+import retrofit2.http.PUT;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
 
@@ -24,6 +26,45 @@ public interface SessionApiService {
     @POST("api/sessions/save")
     Call<Session> saveSession(@Body Session session);
     
+    /**
+     * Save many sessions in one request
+     * 
+     * @param request The sessions to save
+     * @return Per-session results with server-assigned IDs
+     */
+    @POST("api/sessions/batch")
+    Call<SessionBatchResponse> saveSessions(@Body SessionBatchRequest request);
+    
+    /**
+     * Start or resume the raw trace upload of a session
+     * 
+     * @param id The server session ID
+     * @param init Size and checksum of the trace
+     * @return Upload status with the offset to continue from
+     */
+    @POST("api/sessions/{id}/trace")
+    Call<TraceUploadStatus> initTraceUpload(@Path("id") Long id, @Body TraceUploadInit init);
+    
+    /**
+     * Append one chunk of a raw trace
+     * 
+     * @param id The server session ID
+     * @param offset Position of the chunk in the trace
+     * @param chunk Chunk bytes as application/octet-stream
+     * @return Upload status after the chunk
+     */
+    @PUT("api/sessions/{id}/trace")
+    Call<TraceUploadStatus> appendTraceChunk(@Path("id") Long id, @Query("offset") long offset, @Body RequestBody chunk);
+    
+    /**
+     * Commit a fully uploaded raw trace
+     * 
+     * @param id The server session ID
+     * @return Final upload status
+     */
+    @POST("api/sessions/{id}/trace/commit")
+    Call<TraceUploadStatus> commitTraceUpload(@Path("id") Long id);
+    
     /**
      * Get all sessions for the authenticated user
      * 
@@ -32,6 +73,16 @@ public interface SessionApiService {
     @GET("api/sessions/history")
     Call<List<Session>> getSessionHistory();
     
+    /**
+     * Get sessions created or updated on the server after a cursor
+     * 
+     * @param since Cursor from the previous response, or null for everything
+     * @param limit Maximum number of sessions in the page
+     * @return Changed sessions and the cursor to continue from
+     */
+    @GET("api/sessions/changes")
+    Call<SessionChangesResponse> getSessionChanges(@Query("since") String since, @Query("limit") int limit);
+    
     /**
      * Get a specific session by ID
      * 
@@ -0,0 +1,20 @@
+package com.parkinson.detection.api;
+
+import java.util.List;
+
+import com.parkinson.detection.model.Session;
+
+/**
+ * Body of the batch session upload
+ */
+public class SessionBatchRequest {
+    private final List<Session> sessions;
+
+    public SessionBatchRequest(List<Session> sessions) {
+        this.sessions = sessions;
+    }
+
+    public List<Session> getSessions() {
+        return sessions;
+    }
+}
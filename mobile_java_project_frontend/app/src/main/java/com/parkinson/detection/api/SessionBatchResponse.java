@@ -0,0 +1,47 @@
+package com.parkinson.detection.api;
+
+import java.util.List;
+
+/**
+ * Per-session outcome of a batch upload, results in request order
+ */
+public class SessionBatchResponse {
+    private int saved;
+    private int failed;
+    private List<ItemResult> results;
+
+    public int getSaved() {
+        return saved;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<ItemResult> getResults() {
+        return results;
+    }
+
+    public static class ItemResult {
+        private int index;
+        private Long id; // Server ID, null if the session was rejected
+        private Integer prediction;
+        private String error;
+
+        public int getIndex() {
+            return index;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public Integer getPrediction() {
+            return prediction;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.parkinson.detection.api;
+
+import java.util.List;
+
+import com.parkinson.detection.model.Session;
+
+/**
+ * One page of sessions changed on the server since a cursor, oldest change first
+ */
+public class SessionChangesResponse {
+    private List<Session> sessions;
+    private String cursor; // Opaque, sent back as "since" on the next call
+    private boolean hasMore;
+
+    public List<Session> getSessions() {
+        return sessions;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+}
@@ -0,0 +1,22 @@
+package com.parkinson.detection.api;
+
+/**
+ * Declares the size and checksum of a raw trace before its chunks are sent
+ */
+public class TraceUploadInit {
+    private final long totalBytes;
+    private final String sha256;
+
+    public TraceUploadInit(long totalBytes, String sha256) {
+        this.totalBytes = totalBytes;
+        this.sha256 = sha256;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+}
@@ -0,0 +1,27 @@
+package com.parkinson.detection.api;
+
+/**
+ * Server-side state of a raw trace upload
+ */
+public class TraceUploadStatus {
+    private Long sessionId;
+    private long totalBytes;
+    private long receivedBytes; // Offset the next chunk must start at
+    private boolean committed;
+
+    public Long getSessionId() {
+        return sessionId;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getReceivedBytes() {
+        return receivedBytes;
+    }
+
+    public boolean isCommitted() {
+        return committed;
+    }
+}
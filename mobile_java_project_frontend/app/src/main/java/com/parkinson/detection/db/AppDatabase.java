@@ -1,6 +1,7 @@
 package com.parkinson.detection.db;
 
 import android.content.Context;
+import android.database.Cursor;
 
 import androidx.room.Database;
 import androidx.room.Room;
@@ -10,12 +11,13 @@ import androidx.room.migration.Migration;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 import androidx.annotation.NonNull;
 
+import com.parkinson.detection.ml.FeatureBlob;
 import com.parkinson.detection.model.Session;
 
 /**
  * Room database for the application
  */
-@Database(entities = {Session.class}, version = 2, exportSchema = false)
+@Database(entities = {Session.class}, version = 7, exportSchema = false)
 @TypeConverters({DateTimeConverter.class})
 public abstract class AppDatabase extends RoomDatabase {
     
@@ -31,6 +33,101 @@ public abstract class AppDatabase extends RoomDatabase {
         }
     };
     
+    // Migration from version 2 to 3 to reference the raw sensor trace file
+    private static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE sessions ADD COLUMN traceFile TEXT");
+        }
+    };
+    
+    // Migration from version 3 to 4 to persist the per-session sync state
+    private static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE sessions ADD COLUMN syncState INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE sessions ADD COLUMN syncAttempts INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE sessions ADD COLUMN nextSyncAt INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE sessions ADD COLUMN serverId INTEGER");
+            database.execSQL("ALTER TABLE sessions ADD COLUMN traceUploaded INTEGER NOT NULL DEFAULT 0");
+            // Local ids were not reliably the server's, so synced rows wait for the change feed
+            // to tell which server session they are
+            database.execSQL("UPDATE sessions SET syncState = 2 WHERE isSynced = 1");
+        }
+    };
+    
+    // Migration from version 4 to 5 to give every session a client-generated UUID
+    private static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE sessions ADD COLUMN clientId TEXT");
+            // Random version 4 UUIDs for the existing rows
+            database.execSQL("UPDATE sessions SET clientId = lower(hex(randomblob(4)) || '-' || hex(randomblob(2)) "
+                    + "|| '-4' || substr(hex(randomblob(2)), 2) || '-' "
+                    + "|| substr('89ab', 1 + (abs(random()) % 4), 1) || substr(hex(randomblob(2)), 2) "
+                    + "|| '-' || hex(randomblob(6)))");
+            database.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS index_sessions_clientId ON sessions (clientId)");
+        }
+    };
+    
+    // Migration from version 5 to 6 to index the list, filter and sync queries
+    private static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_sessions_timestamp ON sessions (timestamp)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_sessions_prediction_timestamp "
+                    + "ON sessions (prediction, timestamp)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_sessions_syncState_nextSyncAt "
+                    + "ON sessions (syncState, nextSyncAt)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_sessions_serverId ON sessions (serverId)");
+        }
+    };
+    
+    // Migration from version 6 to 7 to pack the 21 feature columns into one FeatureBlob column.
+    // SQLite before 3.35 cannot drop columns, so the table is rebuilt.
+    private static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE sessions_new (id INTEGER PRIMARY KEY AUTOINCREMENT, clientId TEXT, "
+                    + "userId INTEGER, timestamp INTEGER, prediction INTEGER NOT NULL, predictionText TEXT, "
+                    + "durationMs INTEGER, features BLOB, featureSchema INTEGER NOT NULL, createdAt INTEGER, "
+                    + "traceFile TEXT, isSynced INTEGER NOT NULL, syncState INTEGER NOT NULL, "
+                    + "syncAttempts INTEGER NOT NULL, nextSyncAt INTEGER NOT NULL, serverId INTEGER, "
+                    + "traceUploaded INTEGER NOT NULL)");
+            database.execSQL("INSERT INTO sessions_new (id, clientId, userId, timestamp, prediction, "
+                    + "predictionText, durationMs, featureSchema, createdAt, traceFile, isSynced, syncState, "
+                    + "syncAttempts, nextSyncAt, serverId, traceUploaded) "
+                    + "SELECT id, clientId, userId, timestamp, prediction, predictionText, durationMs, "
+                    + FeatureBlob.SCHEMA_VERSION + ", createdAt, traceFile, isSynced, syncState, syncAttempts, "
+                    + "nextSyncAt, serverId, traceUploaded FROM sessions");
+            
+            // Columns in FeatureBlob order
+            try (Cursor cursor = database.query("SELECT id, accelXMean, accelYMean, accelZMean, "
+                    + "accelXStd, accelYStd, accelZStd, gyroXMean, gyroYMean, gyroZMean, "
+                    + "gyroXStd, gyroYStd, gyroZStd, accelXFftPeak, accelYFftPeak, accelZFftPeak, "
+                    + "gyroXFftPeak, gyroYFftPeak, gyroZFftPeak, crossCorrX, crossCorrY, crossCorrZ FROM sessions")) {
+                Double[] features = new Double[cursor.getColumnCount() - 1];
+                while (cursor.moveToNext()) {
+                    for (int i = 0; i < features.length; i++) {
+                        features[i] = cursor.isNull(i + 1) ? null : cursor.getDouble(i + 1);
+                    }
+                    database.execSQL("UPDATE sessions_new SET features = ? WHERE id = ?",
+                            new Object[]{FeatureBlob.encode(features), cursor.getLong(0)});
+                }
+            }
+            
+            database.execSQL("DROP TABLE sessions");
+            database.execSQL("ALTER TABLE sessions_new RENAME TO sessions");
+            database.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS index_sessions_clientId ON sessions (clientId)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_sessions_timestamp ON sessions (timestamp)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_sessions_prediction_timestamp "
+                    + "ON sessions (prediction, timestamp)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_sessions_syncState_nextSyncAt "
+                    + "ON sessions (syncState, nextSyncAt)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_sessions_serverId ON sessions (serverId)");
+        }
+    };
+    
     public abstract SessionDao sessionDao();
     
     public static synchronized AppDatabase getInstance(Context context) {
@@ -39,8 +136,9 @@ public abstract class AppDatabase extends RoomDatabase {
                     context.getApplicationContext(),
                     AppDatabase.class,
                     DATABASE_NAME)
-                    .addMigrations(MIGRATION_1_2) // Add the migration
-                    .fallbackToDestructiveMigration() // As a fallback if migration fails
+                    // Every version has a migration; a missing one fails loudly instead of wiping recordings
+                    .addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6,
+                            MIGRATION_6_7)
                     .build();
         }
         return instance;
@@ -1,16 +1,23 @@
 package com.parkinson.detection.db;
 
 import androidx.lifecycle.LiveData;
+import androidx.paging.PagingSource;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import com.parkinson.detection.model.Session;
+import com.parkinson.detection.model.SessionStats;
+import com.parkinson.detection.model.SessionSummary;
+import com.parkinson.detection.model.SyncState;
 
 /**
  * Data Access Object for Session entities
@@ -37,16 +44,29 @@ public interface SessionDao {
     void delete(Session session);
     
     /**
-     * Get all sessions ordered by timestamp descending
+     * List rows of all sessions, newest first, loaded page by page
      */
-    @Query("SELECT * FROM sessions ORDER BY timestamp DESC")
-    LiveData<List<Session>> getAllSessions();
+    @Query("SELECT id, timestamp, prediction, durationMs FROM sessions ORDER BY timestamp DESC, id DESC")
+    PagingSource<Integer, SessionSummary> getSessionSummaries();
     
     /**
-     * Get sessions that have not been synced
+     * List rows of the sessions with a given prediction, newest first, loaded page by page
      */
-    @Query("SELECT * FROM sessions WHERE isSynced = 0")
-    List<Session> getUnsyncedSessions();
+    @Query("SELECT id, timestamp, prediction, durationMs FROM sessions WHERE prediction = :prediction "
+            + "ORDER BY timestamp DESC, id DESC")
+    PagingSource<Integer, SessionSummary> getSessionSummariesByPrediction(int prediction);
+    
+    /**
+     * Number of sessions and time of the latest one
+     */
+    @Query("SELECT COUNT(*) AS count, MAX(timestamp) AS lastTimestamp FROM sessions")
+    LiveData<SessionStats> getSessionStats();
+    
+    /**
+     * IDs of the sessions not yet stored on the server, read from the sync state index
+     */
+    @Query("SELECT id FROM sessions WHERE syncState IN (0, 1) ORDER BY id")
+    List<Long> getUnsyncedSessionIds();
     
     /**
      * Get session by ID
@@ -55,8 +75,100 @@ public interface SessionDao {
     Session getSessionById(long id);
     
     /**
-     * Get sessions filtered by prediction
+     * Get session by its client-generated UUID
+     */
+    @Query("SELECT * FROM sessions WHERE clientId = :clientId")
+    Session getSessionByClientId(String clientId);
+    
+    /**
+     * Get session by the ID the backend assigned to it
+     */
+    @Query("SELECT * FROM sessions WHERE serverId = :serverId")
+    Session getSessionByServerId(long serverId);
+    
+    /**
+     * A session synced before server IDs were recorded, recorded within the given range
+     */
+    @Query("SELECT * FROM sessions WHERE serverId IS NULL AND syncState = 2 "
+            + "AND timestamp >= :from AND timestamp < :to ORDER BY timestamp LIMIT 1")
+    Session getUnresolvedSyncedSession(LocalDateTime from, LocalDateTime to);
+    
+    /**
+     * Sessions waiting for upload whose backoff delay has passed, oldest first
+     */
+    @Query("SELECT * FROM sessions WHERE syncState = 0 AND nextSyncAt <= :now ORDER BY id LIMIT :limit")
+    List<Session> getSessionsDueForSync(long now, int limit);
+    
+    /**
+     * Synced sessions with a raw trace still to upload, once their server ID is known
+     */
+    @Query("SELECT * FROM sessions WHERE syncState = 2 AND serverId IS NOT NULL AND traceFile IS NOT NULL "
+            + "AND traceUploaded = 0 AND nextSyncAt <= :now ORDER BY id LIMIT :limit")
+    List<Session> getTracesDueForUpload(long now, int limit);
+    
+    /**
+     * Earliest scheduled retry among pending sessions and traces, or null if none
+     */
+    @Query("SELECT MIN(nextSyncAt) FROM sessions WHERE syncState = 0 "
+            + "OR (syncState = 2 AND serverId IS NOT NULL AND traceFile IS NOT NULL AND traceUploaded = 0)")
+    Long getNextSyncAt();
+    
+    @Query("UPDATE sessions SET syncState = :syncState WHERE id IN (:ids)")
+    void setSyncState(List<Long> ids, int syncState);
+    
+    /**
+     * Return uploads interrupted by process death to the pending state
+     */
+    @Query("UPDATE sessions SET syncState = 0 WHERE syncState = 1")
+    int resetInFlight();
+    
+    @Query("UPDATE sessions SET syncState = 2, isSynced = 1, serverId = :serverId, "
+            + "syncAttempts = 0, nextSyncAt = 0 WHERE id = :id")
+    void markSynced(long id, long serverId);
+    
+    @Query("UPDATE sessions SET syncState = :syncState, syncAttempts = :attempts, nextSyncAt = :nextSyncAt "
+            + "WHERE id = :id")
+    void scheduleRetry(long id, int syncState, int attempts, long nextSyncAt);
+    
+    /**
+     * Nothing more to send for this session's trace, whether it was stored or given up on
+     */
+    @Query("UPDATE sessions SET traceUploaded = 1, syncAttempts = 0, nextSyncAt = 0 WHERE id = :id")
+    void markTraceUploaded(long id);
+    
+    /**
+     * Record the server's copy of a local session: its ID and the prediction it scored
+     */
+    @Query("UPDATE sessions SET prediction = :prediction, serverId = :serverId, isSynced = 1, syncState = 2 "
+            + "WHERE id = :id")
+    void mergeServerCopy(long id, long serverId, int prediction);
+    
+    /**
+     * Apply one page of server changes atomically. Sessions are matched on their
+     * client UUID, then on server ID; sessions from other devices are added. A session
+     * uploaded before client UUIDs existed has none on the server, and is matched to a
+     * local session still missing its server ID by the second it was recorded.
      */
-    @Query("SELECT * FROM sessions WHERE prediction = :prediction ORDER BY timestamp DESC")
-    LiveData<List<Session>> getSessionsByPrediction(int prediction);
-} 
\ No newline at end of file
+    @Transaction
+    default void applyServerChanges(List<Session> changes) {
+        for (Session change : changes) {
+            Session local = change.getClientId() != null ? getSessionByClientId(change.getClientId()) : null;
+            if (local == null) {
+                local = getSessionByServerId(change.getId());
+            }
+            if (local == null && change.getClientId() == null && change.getTimestamp() != null) {
+                LocalDateTime second = change.getTimestamp().truncatedTo(ChronoUnit.SECONDS);
+                local = getUnresolvedSyncedSession(second, second.plusSeconds(1));
+            }
+            if (local != null) {
+                mergeServerCopy(local.getId(), change.getId(), change.getPrediction());
+            } else {
+                change.setServerId(change.getId());
+                change.setId(null);
+                change.setSynced(true);
+                change.setSyncState(SyncState.SYNCED);
+                insert(change);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.parkinson.detection.db;
+
+import android.content.Context;
+
+import com.parkinson.detection.ml.SensorTrace;
+import com.parkinson.detection.ml.SensorTraceWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * On-device store for raw sensor traces.
+ *
+ * Each recording is streamed to its own file under the app's private files
+ * directory; sessions reference it by file name only.
+ */
+public class TraceStore {
+
+    private static final String DIRECTORY = "traces";
+    private static final String EXTENSION = ".pdt";
+
+    private final File directory;
+
+    public TraceStore(Context context) {
+        this.directory = new File(context.getApplicationContext().getFilesDir(), DIRECTORY);
+    }
+
+    /**
+     * Create a new trace file and open a writer on it
+     *
+     * @return Writer whose file name can be read with {@link Recording#getFileName()}
+     */
+    public Recording startRecording() throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create trace directory " + directory);
+        }
+        String fileName = UUID.randomUUID() + EXTENSION;
+        return new Recording(fileName, new SensorTraceWriter(new File(directory, fileName)));
+    }
+
+    /**
+     * Decode a stored trace
+     */
+    public SensorTrace read(String fileName) throws IOException {
+        return SensorTrace.read(new File(directory, fileName));
+    }
+
+    public File getFile(String fileName) {
+        return new File(directory, fileName);
+    }
+
+    public boolean exists(String fileName) {
+        return fileName != null && new File(directory, fileName).isFile();
+    }
+
+    public void delete(String fileName) {
+        if (fileName != null) {
+            new File(directory, fileName).delete();
+        }
+    }
+
+    /**
+     * A trace being written, paired with its file name
+     */
+    public static class Recording {
+        private final String fileName;
+        private final SensorTraceWriter writer;
+
+        Recording(String fileName, SensorTraceWriter writer) {
+            this.fileName = fileName;
+            this.writer = writer;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public SensorTraceWriter getWriter() {
+            return writer;
+        }
+    }
+}
@@ -3,49 +3,148 @@ package com.parkinson.detection.ml;
 import android.content.Context;
 import android.util.Log;
 
+import com.parkinson.detection.BuildConfig;
+
 import org.tensorflow.lite.Interpreter;
 import org.tensorflow.lite.support.common.FileUtil;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.MappedByteBuffer;
+import java.util.ArrayDeque;
 
 /**
- * TensorFlow Lite model wrapper for Parkinson's detection
+ * TensorFlow Lite model wrapper for Parkinson's detection.
+ * 
+ * When {@code BuildConfig.USE_DENSE_MODEL} is set and the exported
+ * {@code parkinsons_model.dense} weights are bundled, inference runs on the pure-Java
+ * {@link DenseNetwork} and TFLite is never loaded. Otherwise, the default, the model
+ * is backed by a bounded pool of interpreters created lazily from one
+ * memory-mapped model file. Every inference checks an interpreter out of the pool
+ * and returns it afterwards, so the public methods are safe to call from several
+ * threads at once. The shared instance is reference counted: every
+ * {@link #getInstance(Context)} must be balanced by one {@link #close()}, and the
+ * interpreters are only released when the last holder closes.
  */
 public class ParkinsonDetectionModel {
     private static final String TAG = "ParkinsonDetectionModel";
     private static final String MODEL_PATH = "parkinsons_model.tflite";
-    
-    private final Interpreter interpreter;
-    private static ParkinsonDetectionModel instance;
+    private static final String DENSE_MODEL_PATH = "parkinsons_model.dense";
     
     // Number of features expected by the model
     private static final int FEATURE_COUNT = 21;
     
+    // Largest number of rows sent to an interpreter in one invocation
+    public static final int MAX_BATCH_SIZE = 64;
+    
+    // Pool defaults: enough for live scoring plus one background job
+    public static final int DEFAULT_POOL_SIZE = 2;
+    public static final int DEFAULT_THREADS_PER_INTERPRETER = 1;
+    
+    private static ParkinsonDetectionModel instance;
+    
+    // Pure-Java network, or null when inference goes through the TFLite pool
+    private final DenseNetwork denseNetwork;
+    private final ThreadLocal<DenseBuffers> denseBuffers;
+    
+    private final MappedByteBuffer modelBuffer;
+    private final int poolSize;
+    private final int threadsPerInterpreter;
+    
+    // Pool state, guarded by this
+    private final ArrayDeque<PooledInterpreter> idle = new ArrayDeque<>();
+    private int created = 0;
+    private int references = 0;
+    private boolean closed = false;
+    
+    /**
+     * Get the shared instance of the model with the default pool configuration
+     */
+    public static ParkinsonDetectionModel getInstance(Context context) {
+        return getInstance(context, DEFAULT_POOL_SIZE, DEFAULT_THREADS_PER_INTERPRETER);
+    }
+    
     /**
-     * Get singleton instance of the model
+     * Get the shared instance of the model and take a reference on it.
+     * The pool configuration only applies when the instance is created.
+     * 
+     * @param poolSize Maximum number of interpreters
+     * @param threadsPerInterpreter Number of threads each interpreter may use
      */
-    public static synchronized ParkinsonDetectionModel getInstance(Context context) {
+    public static synchronized ParkinsonDetectionModel getInstance(Context context, int poolSize,
+                                                                   int threadsPerInterpreter) {
         if (instance == null) {
             try {
-                instance = new ParkinsonDetectionModel(context);
+                instance = new ParkinsonDetectionModel(context, poolSize, threadsPerInterpreter);
             } catch (IOException e) {
                 Log.e(TAG, "Error initializing model", e);
                 return null;
             }
         }
+        instance.retain();
         return instance;
     }
     
-    private ParkinsonDetectionModel(Context context) throws IOException {
-        // Load the TFLite model
-        MappedByteBuffer modelBuffer = FileUtil.loadMappedFile(context, MODEL_PATH);
-        interpreter = new Interpreter(modelBuffer);
+    private ParkinsonDetectionModel(Context context, int poolSize, int threadsPerInterpreter) throws IOException {
+        if (poolSize <= 0 || threadsPerInterpreter <= 0) {
+            throw new IllegalArgumentException("Pool size and thread count must be positive");
+        }
+        this.poolSize = poolSize;
+        this.threadsPerInterpreter = threadsPerInterpreter;
+        
+        denseNetwork = loadDenseNetwork(context);
+        if (denseNetwork != null) {
+            DenseNetwork network = denseNetwork;
+            // ThreadLocal.withInitial needs API 26
+            denseBuffers = new ThreadLocal<DenseBuffers>() {
+                @Override
+                protected DenseBuffers initialValue() {
+                    return new DenseBuffers(network);
+                }
+            };
+            modelBuffer = null;
+            Log.d(TAG, "Dense model loaded successfully");
+            return;
+        }
+        denseBuffers = null;
+        
+        // Load the TFLite model once; every interpreter shares the read-only mapping
+        modelBuffer = FileUtil.loadMappedFile(context, MODEL_PATH);
+        
+        // Create the first interpreter eagerly so a broken model fails here
+        idle.push(new PooledInterpreter(modelBuffer, threadsPerInterpreter));
+        created = 1;
         Log.d(TAG, "TensorFlow Lite model loaded successfully");
     }
     
+    /**
+     * Load the exported dense weights if enabled, bundled and fitting the feature layout
+     * 
+     * @return The network, or null to fall back to TFLite
+     */
+    private static DenseNetwork loadDenseNetwork(Context context) {
+        if (!BuildConfig.USE_DENSE_MODEL) {
+            return null;
+        }
+        try (InputStream in = context.getAssets().open(DENSE_MODEL_PATH)) {
+            DenseNetwork network = DenseNetwork.read(in);
+            if (network.inputSize() != FEATURE_COUNT || network.outputSize() != 1) {
+                Log.w(TAG, "Dense model has an unexpected shape, using TFLite");
+                return null;
+            }
+            return network;
+        } catch (IOException e) {
+            Log.d(TAG, "No dense model bundled, using TFLite");
+            return null;
+        }
+    }
+    
+    private synchronized void retain() {
+        references++;
+    }
+    
     /**
      * Run inference on the provided features
      * 
@@ -53,46 +152,278 @@ public class ParkinsonDetectionModel {
      * @return Prediction (0 = No Parkinson's, 1 = Suspected Parkinson's)
      */
     public int predict(float[] features) {
+        // Convert to binary class (0 or 1) using threshold of 0.5
+        return predictProbability(features) >= 0.5f ? 1 : 0;
+    }
+    
+    /**
+     * Run inference on the provided features
+     * 
+     * @param features Array of features in the order expected by the model
+     * @return Raw model output, the probability of suspected Parkinson's
+     */
+    public float predictProbability(float[] features) {
+        checkRow(features);
+        
+        if (denseNetwork != null) {
+            DenseBuffers buffers = denseBuffers.get();
+            denseNetwork.evaluate(features, 1, buffers.output, buffers.scratchA, buffers.scratchB);
+            return buffers.output[0];
+        }
+        
+        PooledInterpreter pooled = checkout();
+        try {
+            return pooled.predictProbability(features);
+        } finally {
+            checkin(pooled);
+        }
+    }
+    
+    /**
+     * Run inference on many feature rows
+     * 
+     * @param rows Feature rows in the order expected by the model
+     * @return Raw probability for each row
+     */
+    public float[] predictBatch(float[][] rows) {
+        float[] probabilities = new float[rows.length];
+        predictBatch(rows, probabilities);
+        return probabilities;
+    }
+    
+    /**
+     * Run inference on many feature rows into a caller-owned array.
+     * Rows are sent to the interpreter in chunks of at most {@link #MAX_BATCH_SIZE}.
+     * 
+     * @param rows Feature rows in the order expected by the model
+     * @param probabilities Destination for the raw probability of each row
+     */
+    public void predictBatch(float[][] rows, float[] probabilities) {
+        if (probabilities.length < rows.length) {
+            throw new IllegalArgumentException("Expected room for " + rows.length + " results, got " + probabilities.length);
+        }
+        for (float[] row : rows) {
+            checkRow(row);
+        }
+        
+        if (denseNetwork != null) {
+            denseBuffers.get().predictBatch(denseNetwork, rows, probabilities);
+            return;
+        }
+        
+        PooledInterpreter pooled = checkout();
+        try {
+            pooled.predictBatch(rows, probabilities);
+        } finally {
+            checkin(pooled);
+        }
+    }
+    
+    private static void checkRow(float[] features) {
         if (features.length != FEATURE_COUNT) {
             throw new IllegalArgumentException("Expected " + FEATURE_COUNT + " features, got " + features.length);
         }
+    }
+    
+    /**
+     * Take an idle interpreter, creating one if the pool is not full,
+     * otherwise wait until another caller returns one
+     */
+    private synchronized PooledInterpreter checkout() {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                if (closed) {
+                    throw new IllegalStateException("Model has been closed");
+                }
+                if (!idle.isEmpty()) {
+                    return idle.pop();
+                }
+                if (created < poolSize) {
+                    created++;
+                    return new PooledInterpreter(modelBuffer, threadsPerInterpreter);
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    private synchronized void checkin(PooledInterpreter pooled) {
+        if (closed) {
+            // The last reference was released while this interpreter was busy
+            pooled.close();
+            return;
+        }
+        idle.push(pooled);
+        notifyAll();
+    }
+    
+    /**
+     * Release this holder's reference. Interpreters are closed once no holder remains;
+     * ones still running are closed when they are returned.
+     */
+    public void close() {
+        synchronized (ParkinsonDetectionModel.class) {
+            synchronized (this) {
+                if (closed || --references > 0) {
+                    return;
+                }
+                closed = true;
+                while (!idle.isEmpty()) {
+                    idle.pop().close();
+                }
+                notifyAll();
+            }
+            if (instance == this) {
+                instance = null;
+            }
+        }
+    }
+    
+    /**
+     * Per-thread buffers for the dense network, sized for MAX_BATCH_SIZE rows
+     */
+    private static final class DenseBuffers {
+        private final float[] input = new float[MAX_BATCH_SIZE * FEATURE_COUNT];
+        private final float[] output = new float[MAX_BATCH_SIZE];
+        private final float[] scratchA;
+        private final float[] scratchB;
+        
+        DenseBuffers(DenseNetwork network) {
+            scratchA = new float[MAX_BATCH_SIZE * network.maxWidth()];
+            scratchB = new float[MAX_BATCH_SIZE * network.maxWidth()];
+        }
+        
+        void predictBatch(DenseNetwork network, float[][] rows, float[] probabilities) {
+            for (int start = 0; start < rows.length; start += MAX_BATCH_SIZE) {
+                int batchSize = Math.min(MAX_BATCH_SIZE, rows.length - start);
+                for (int row = 0; row < batchSize; row++) {
+                    System.arraycopy(rows[start + row], 0, input, row * FEATURE_COUNT, FEATURE_COUNT);
+                }
+                network.evaluate(input, batchSize, output, scratchA, scratchB);
+                System.arraycopy(output, 0, probabilities, start, batchSize);
+            }
+        }
+    }
+    
+    /**
+     * One interpreter with its own preallocated input and output buffers
+     */
+    private static final class PooledInterpreter {
+        private final Interpreter interpreter;
+        
+        // Preallocated direct buffers sized for MAX_BATCH_SIZE rows
+        private final ByteBuffer inputBuffer;
+        private final ByteBuffer outputBuffer;
         
-        // Prepare input buffer
-        ByteBuffer inputBuffer = ByteBuffer.allocateDirect(FEATURE_COUNT * 4); // 4 bytes per float
-        inputBuffer.order(ByteOrder.nativeOrder());
+        // Exact-size views into the buffers above, indexed by row count and created on first use
+        private final ByteBuffer[] inputViews = new ByteBuffer[MAX_BATCH_SIZE + 1];
+        private final ByteBuffer[] outputViews = new ByteBuffer[MAX_BATCH_SIZE + 1];
         
-        // Fill input buffer with features
-        for (float feature : features) {
-            inputBuffer.putFloat(feature);
+        // Row count the interpreter input tensor is currently resized to
+        private int currentBatchSize;
+        
+        PooledInterpreter(MappedByteBuffer modelBuffer, int numThreads) {
+            Interpreter.Options options = new Interpreter.Options();
+            options.setNumThreads(numThreads);
+            interpreter = new Interpreter(modelBuffer, options);
+            currentBatchSize = interpreter.getInputTensor(0).shape()[0];
+            
+            inputBuffer = ByteBuffer.allocateDirect(MAX_BATCH_SIZE * FEATURE_COUNT * 4); // 4 bytes per float
+            inputBuffer.order(ByteOrder.nativeOrder());
+            outputBuffer = ByteBuffer.allocateDirect(MAX_BATCH_SIZE * 4); // one float per row
+            outputBuffer.order(ByteOrder.nativeOrder());
         }
         
-        // Reset the position to the beginning of the buffer
-        inputBuffer.rewind();
+        float predictProbability(float[] features) {
+            ByteBuffer input = inputView(1);
+            for (int i = 0; i < FEATURE_COUNT; i++) {
+                input.putFloat(i * 4, features[i]);
+            }
+            
+            return run(1).getFloat(0);
+        }
+        
+        void predictBatch(float[][] rows, float[] probabilities) {
+            for (int start = 0; start < rows.length; start += MAX_BATCH_SIZE) {
+                int batchSize = Math.min(MAX_BATCH_SIZE, rows.length - start);
+                
+                ByteBuffer input = inputView(batchSize);
+                for (int row = 0; row < batchSize; row++) {
+                    float[] features = rows[start + row];
+                    int offset = row * FEATURE_COUNT * 4;
+                    for (int i = 0; i < FEATURE_COUNT; i++) {
+                        input.putFloat(offset + i * 4, features[i]);
+                    }
+                }
+                
+                ByteBuffer output = run(batchSize);
+                for (int row = 0; row < batchSize; row++) {
+                    probabilities[start + row] = output.getFloat(row * 4);
+                }
+            }
+        }
         
-        // Prepare output buffer (single float for binary classification)
-        ByteBuffer outputBuffer = ByteBuffer.allocateDirect(4); // 4 bytes for a single float
-        outputBuffer.order(ByteOrder.nativeOrder());
+        /**
+         * Invoke the interpreter on the first batchSize rows of the input buffer
+         * 
+         * @return Output view holding one float per row
+         */
+        private ByteBuffer run(int batchSize) {
+            // Resizing reallocates tensors, so only do it when the row count changes
+            if (batchSize != currentBatchSize) {
+                interpreter.resizeInput(0, new int[]{batchSize, FEATURE_COUNT});
+                interpreter.allocateTensors();
+                currentBatchSize = batchSize;
+            }
+            
+            ByteBuffer input = inputView(batchSize);
+            ByteBuffer output = outputView(batchSize);
+            input.rewind();
+            output.rewind();
+            interpreter.run(input, output);
+            return output;
+        }
         
-        // Run inference
-        interpreter.run(inputBuffer, outputBuffer);
+        /**
+         * TFLite requires buffer capacity to match the tensor size exactly,
+         * so each row count gets its own view over the shared input buffer
+         */
+        private ByteBuffer inputView(int batchSize) {
+            ByteBuffer view = inputViews[batchSize];
+            if (view == null) {
+                view = slice(inputBuffer, batchSize * FEATURE_COUNT * 4);
+                inputViews[batchSize] = view;
+            }
+            return view;
+        }
         
-        // Reset the position to the beginning of the buffer
-        outputBuffer.rewind();
+        private ByteBuffer outputView(int batchSize) {
+            ByteBuffer view = outputViews[batchSize];
+            if (view == null) {
+                view = slice(outputBuffer, batchSize * 4);
+                outputViews[batchSize] = view;
+            }
+            return view;
+        }
         
-        // Get the prediction result
-        float result = outputBuffer.getFloat();
+        private static ByteBuffer slice(ByteBuffer buffer, int bytes) {
+            ByteBuffer duplicate = buffer.duplicate();
+            duplicate.position(0);
+            duplicate.limit(bytes);
+            return duplicate.slice().order(ByteOrder.nativeOrder());
+        }
         
-        // Convert to binary class (0 or 1) using threshold of 0.5
-        return result >= 0.5f ? 1 : 0;
-    }
-    
-    /**
-     * Release resources used by the model
-     */
-    public void close() {
-        if (interpreter != null) {
+        void close() {
             interpreter.close();
         }
-        instance = null;
     }
-} 
\ No newline at end of file
+}
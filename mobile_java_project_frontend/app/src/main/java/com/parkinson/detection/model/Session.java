@@ -1,64 +1,77 @@
 package com.parkinson.detection.model;
 
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.room.TypeConverters;
 
 import java.time.LocalDateTime;
 
+import com.google.gson.annotations.JsonAdapter;
 import com.parkinson.detection.db.DateTimeConverter;
+import com.parkinson.detection.ml.FeatureBlob;
 
 /**
  * Model class representing a session with motion data and prediction results
  */
-@Entity(tableName = "sessions")
+// The row id is the implicit last column of every index, so the timestamp indices also
+// serve the "timestamp DESC, id DESC" order of the history list
+@Entity(tableName = "sessions", indices = {
+        @Index(value = "clientId", unique = true),
+        @Index(value = "timestamp"),
+        @Index(value = {"prediction", "timestamp"}),
+        @Index(value = {"syncState", "nextSyncAt"}),
+        @Index(value = "serverId")
+})
 @TypeConverters(DateTimeConverter.class)
+@JsonAdapter(SessionJsonAdapter.class)
 public class Session {
     @PrimaryKey(autoGenerate = true)
     private Long id;
     
+    // Generated on the device; the server uses it to make uploads idempotent
+    private String clientId;
+    
     private Long userId;
     private LocalDateTime timestamp;
     private int prediction; // 0 = No Parkinson's, 1 = Suspected Parkinson's
     private String predictionText;
     private Long durationMs; // Duration in milliseconds
     
-    // Accelerometer features
-    private Double accelXMean;
-    private Double accelYMean;
-    private Double accelZMean;
-    
-    private Double accelXStd;
-    private Double accelYStd;
-    private Double accelZStd;
-    
-    private Double accelXFftPeak;
-    private Double accelYFftPeak;
-    private Double accelZFftPeak;
-    
-    // Gyroscope features
-    private Double gyroXMean;
-    private Double gyroYMean;
-    private Double gyroZMean;
+    // Server API names of the features, in FeatureBlob order
+    static final String[] FEATURE_NAMES = {
+            "accelXMean", "accelYMean", "accelZMean",
+            "accelXStd", "accelYStd", "accelZStd",
+            "gyroXMean", "gyroYMean", "gyroZMean",
+            "gyroXStd", "gyroYStd", "gyroZStd",
+            "accelXFftPeak", "accelYFftPeak", "accelZFftPeak",
+            "gyroXFftPeak", "gyroYFftPeak", "gyroZFftPeak",
+            "crossCorrX", "crossCorrY", "crossCorrZ"
+    };
     
-    private Double gyroXStd;
-    private Double gyroYStd;
-    private Double gyroZStd;
+    // The only copy of the features, one FeatureBlob column. Room stores it as is and the
+    // feature getters read it in place; SessionJsonAdapter writes the features out by name,
+    // and transient keeps the raw bytes out of the JSON.
+    @ColumnInfo(name = "features", typeAffinity = ColumnInfo.BLOB)
+    private transient byte[] featureBlob;
     
-    private Double gyroXFftPeak;
-    private Double gyroYFftPeak;
-    private Double gyroZFftPeak;
-    
-    // Cross-correlation features
-    private Double crossCorrX;
-    private Double crossCorrY;
-    private Double crossCorrZ;
+    @ColumnInfo(name = "featureSchema")
+    private transient int featureSchema = FeatureBlob.SCHEMA_VERSION;
     
     private LocalDateTime createdAt;
     
+    // Raw sensor trace file name, relative to the app's trace directory
+    private String traceFile;
+    
     // For local caching and sync status
     private boolean isSynced;
+    private int syncState = SyncState.PENDING; // See SyncState
+    private int syncAttempts;
+    private long nextSyncAt; // Epoch millis before which no retry is attempted
+    private Long serverId; // ID assigned by the backend once synced
+    private boolean traceUploaded;
 
     public Session() {
         this.timestamp = LocalDateTime.now();
@@ -81,6 +94,14 @@ public class Session {
         this.id = id;
     }
 
+    public String getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(String clientId) {
+        this.clientId = clientId;
+    }
+
     public Long getUserId() {
         return userId;
     }
@@ -122,180 +143,167 @@ public class Session {
         this.durationMs = durationMs;
     }
 
-    public Double getAccelXMean() {
-        return accelXMean;
+    public byte[] getFeatureBlob() {
+        return featureBlob;
     }
 
-    public void setAccelXMean(Double accelXMean) {
-        this.accelXMean = accelXMean;
+    public void setFeatureBlob(byte[] featureBlob) {
+        this.featureBlob = featureBlob;
     }
 
-    public Double getAccelYMean() {
-        return accelYMean;
+    /**
+     * @return The feature at {@code index} in FeatureBlob order, or null if it is missing
+     */
+    Double getFeature(int index) {
+        return featureBlob == null ? null : FeatureBlob.valueAt(FeatureBlob.view(featureBlob), index);
     }
 
-    public void setAccelYMean(Double accelYMean) {
-        this.accelYMean = accelYMean;
+    public int getFeatureSchema() {
+        return featureSchema;
     }
 
-    public Double getAccelZMean() {
-        return accelZMean;
+    public void setFeatureSchema(int featureSchema) {
+        this.featureSchema = featureSchema;
     }
 
-    public void setAccelZMean(Double accelZMean) {
-        this.accelZMean = accelZMean;
+    public Double getAccelXMean() {
+        return getFeature(0);
     }
 
-    public Double getAccelXStd() {
-        return accelXStd;
+    public Double getAccelYMean() {
+        return getFeature(1);
     }
 
-    public void setAccelXStd(Double accelXStd) {
-        this.accelXStd = accelXStd;
+    public Double getAccelZMean() {
+        return getFeature(2);
     }
 
-    public Double getAccelYStd() {
-        return accelYStd;
+    public Double getAccelXStd() {
+        return getFeature(3);
     }
 
-    public void setAccelYStd(Double accelYStd) {
-        this.accelYStd = accelYStd;
+    public Double getAccelYStd() {
+        return getFeature(4);
     }
 
     public Double getAccelZStd() {
-        return accelZStd;
-    }
-
-    public void setAccelZStd(Double accelZStd) {
-        this.accelZStd = accelZStd;
+        return getFeature(5);
     }
 
     public Double getAccelXFftPeak() {
-        return accelXFftPeak;
-    }
-
-    public void setAccelXFftPeak(Double accelXFftPeak) {
-        this.accelXFftPeak = accelXFftPeak;
+        return getFeature(12);
     }
 
     public Double getAccelYFftPeak() {
-        return accelYFftPeak;
-    }
-
-    public void setAccelYFftPeak(Double accelYFftPeak) {
-        this.accelYFftPeak = accelYFftPeak;
+        return getFeature(13);
     }
 
     public Double getAccelZFftPeak() {
-        return accelZFftPeak;
-    }
-
-    public void setAccelZFftPeak(Double accelZFftPeak) {
-        this.accelZFftPeak = accelZFftPeak;
+        return getFeature(14);
     }
 
     public Double getGyroXMean() {
-        return gyroXMean;
+        return getFeature(6);
     }
 
-    public void setGyroXMean(Double gyroXMean) {
-        this.gyroXMean = gyroXMean;
+    public Double getGyroYMean() {
+        return getFeature(7);
     }
 
-    public Double getGyroYMean() {
-        return gyroYMean;
+    public Double getGyroZMean() {
+        return getFeature(8);
     }
 
-    public void setGyroYMean(Double gyroYMean) {
-        this.gyroYMean = gyroYMean;
+    public Double getGyroXStd() {
+        return getFeature(9);
     }
 
-    public Double getGyroZMean() {
-        return gyroZMean;
+    public Double getGyroYStd() {
+        return getFeature(10);
     }
 
-    public void setGyroZMean(Double gyroZMean) {
-        this.gyroZMean = gyroZMean;
+    public Double getGyroZStd() {
+        return getFeature(11);
     }
 
-    public Double getGyroXStd() {
-        return gyroXStd;
+    public Double getGyroXFftPeak() {
+        return getFeature(15);
     }
 
-    public void setGyroXStd(Double gyroXStd) {
-        this.gyroXStd = gyroXStd;
+    public Double getGyroYFftPeak() {
+        return getFeature(16);
     }
 
-    public Double getGyroYStd() {
-        return gyroYStd;
+    public Double getGyroZFftPeak() {
+        return getFeature(17);
     }
 
-    public void setGyroYStd(Double gyroYStd) {
-        this.gyroYStd = gyroYStd;
+    public Double getCrossCorrX() {
+        return getFeature(18);
     }
 
-    public Double getGyroZStd() {
-        return gyroZStd;
+    public Double getCrossCorrY() {
+        return getFeature(19);
     }
 
-    public void setGyroZStd(Double gyroZStd) {
-        this.gyroZStd = gyroZStd;
+    public Double getCrossCorrZ() {
+        return getFeature(20);
     }
 
-    public Double getGyroXFftPeak() {
-        return gyroXFftPeak;
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
     }
 
-    public void setGyroXFftPeak(Double gyroXFftPeak) {
-        this.gyroXFftPeak = gyroXFftPeak;
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
     }
 
-    public Double getGyroYFftPeak() {
-        return gyroYFftPeak;
+    public String getTraceFile() {
+        return traceFile;
     }
 
-    public void setGyroYFftPeak(Double gyroYFftPeak) {
-        this.gyroYFftPeak = gyroYFftPeak;
+    public void setTraceFile(String traceFile) {
+        this.traceFile = traceFile;
     }
 
-    public Double getGyroZFftPeak() {
-        return gyroZFftPeak;
+    public int getSyncState() {
+        return syncState;
     }
 
-    public void setGyroZFftPeak(Double gyroZFftPeak) {
-        this.gyroZFftPeak = gyroZFftPeak;
+    public void setSyncState(int syncState) {
+        this.syncState = syncState;
     }
 
-    public Double getCrossCorrX() {
-        return crossCorrX;
+    public int getSyncAttempts() {
+        return syncAttempts;
     }
 
-    public void setCrossCorrX(Double crossCorrX) {
-        this.crossCorrX = crossCorrX;
+    public void setSyncAttempts(int syncAttempts) {
+        this.syncAttempts = syncAttempts;
     }
 
-    public Double getCrossCorrY() {
-        return crossCorrY;
+    public long getNextSyncAt() {
+        return nextSyncAt;
     }
 
-    public void setCrossCorrY(Double crossCorrY) {
-        this.crossCorrY = crossCorrY;
+    public void setNextSyncAt(long nextSyncAt) {
+        this.nextSyncAt = nextSyncAt;
     }
 
-    public Double getCrossCorrZ() {
-        return crossCorrZ;
+    public Long getServerId() {
+        return serverId;
     }
 
-    public void setCrossCorrZ(Double crossCorrZ) {
-        this.crossCorrZ = crossCorrZ;
+    public void setServerId(Long serverId) {
+        this.serverId = serverId;
     }
 
-    public LocalDateTime getCreatedAt() {
-        return createdAt;
+    public boolean isTraceUploaded() {
+        return traceUploaded;
     }
 
-    public void setCreatedAt(LocalDateTime createdAt) {
-        this.createdAt = createdAt;
+    public void setTraceUploaded(boolean traceUploaded) {
+        this.traceUploaded = traceUploaded;
     }
 
     public boolean isSynced() {
@@ -309,35 +317,10 @@ public class Session {
     /**
      * Set all the feature values at once from the extracted features array
      * 
-     * @param features Array of extracted features
+     * @param features Array of extracted features, NaN for a missing one
      */
     public void setFeatures(float[] features) {
-        this.accelXMean = (double) features[0];
-        this.accelYMean = (double) features[1];
-        this.accelZMean = (double) features[2];
-        
-        this.accelXStd = (double) features[3];
-        this.accelYStd = (double) features[4];
-        this.accelZStd = (double) features[5];
-        
-        this.gyroXMean = (double) features[6];
-        this.gyroYMean = (double) features[7];
-        this.gyroZMean = (double) features[8];
-        
-        this.gyroXStd = (double) features[9];
-        this.gyroYStd = (double) features[10];
-        this.gyroZStd = (double) features[11];
-        
-        this.accelXFftPeak = (double) features[12];
-        this.accelYFftPeak = (double) features[13];
-        this.accelZFftPeak = (double) features[14];
-        
-        this.gyroXFftPeak = (double) features[15];
-        this.gyroYFftPeak = (double) features[16];
-        this.gyroZFftPeak = (double) features[17];
-        
-        this.crossCorrX = (double) features[18];
-        this.crossCorrY = (double) features[19];
-        this.crossCorrZ = (double) features[20];
+        this.featureBlob = FeatureBlob.encode(features);
+        this.featureSchema = FeatureBlob.SCHEMA_VERSION;
     }
 } 
\ No newline at end of file
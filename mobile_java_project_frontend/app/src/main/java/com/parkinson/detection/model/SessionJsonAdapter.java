@@ -0,0 +1,63 @@
+package com.parkinson.detection.model;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * JSON form of a {@link Session}: its regular fields plus one named property per feature.
+ *
+ * The session keeps its features only as a FeatureBlob, which Gson cannot see, while the
+ * server API exchanges them as named values. Features are read out of the blob when a
+ * session is written and packed into it once when a session is read.
+ */
+public final class SessionJsonAdapter implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() != Session.class) {
+            return null;
+        }
+        TypeAdapter<Session> delegate = gson.getDelegateAdapter(this, TypeToken.get(Session.class));
+        TypeAdapter<JsonElement> elements = gson.getAdapter(JsonElement.class);
+        return (TypeAdapter<T>) new TypeAdapter<Session>() {
+            @Override
+            public void write(JsonWriter out, Session session) throws IOException {
+                if (session == null) {
+                    out.nullValue();
+                    return;
+                }
+                JsonObject json = delegate.toJsonTree(session).getAsJsonObject();
+                for (int i = 0; i < Session.FEATURE_NAMES.length; i++) {
+                    json.addProperty(Session.FEATURE_NAMES[i], session.getFeature(i));
+                }
+                elements.write(out, json);
+            }
+
+            @Override
+            public Session read(JsonReader in) throws IOException {
+                JsonElement element = elements.read(in);
+                if (element == null || element.isJsonNull()) {
+                    return null;
+                }
+                JsonObject json = element.getAsJsonObject();
+                Session session = delegate.fromJsonTree(json);
+                float[] features = new float[Session.FEATURE_NAMES.length];
+                for (int i = 0; i < features.length; i++) {
+                    JsonElement value = json.get(Session.FEATURE_NAMES[i]);
+                    features[i] = value == null || value.isJsonNull() ? Float.NaN : value.getAsFloat();
+                }
+                session.setFeatures(features);
+                return session;
+            }
+        };
+    }
+}
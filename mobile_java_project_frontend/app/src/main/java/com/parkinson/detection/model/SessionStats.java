@@ -0,0 +1,24 @@
+package com.parkinson.detection.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Aggregate figures over the stored sessions, computed in SQL
+ */
+public class SessionStats {
+    private final int count;
+    private final LocalDateTime lastTimestamp; // Null when there are no sessions
+
+    public SessionStats(int count, LocalDateTime lastTimestamp) {
+        this.count = count;
+        this.lastTimestamp = lastTimestamp;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public LocalDateTime getLastTimestamp() {
+        return lastTimestamp;
+    }
+}
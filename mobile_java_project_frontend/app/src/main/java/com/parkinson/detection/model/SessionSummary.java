@@ -0,0 +1,57 @@
+package com.parkinson.detection.model;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * The columns of a session shown in a list row, read without the feature columns
+ */
+public class SessionSummary {
+    private final Long id;
+    private final LocalDateTime timestamp;
+    private final int prediction; // 0 = No Parkinson's, 1 = Suspected Parkinson's
+    private final Long durationMs;
+
+    public SessionSummary(Long id, LocalDateTime timestamp, int prediction, Long durationMs) {
+        this.id = id;
+        this.timestamp = timestamp;
+        this.prediction = prediction;
+        this.durationMs = durationMs;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public int getPrediction() {
+        return prediction;
+    }
+
+    public Long getDurationMs() {
+        return durationMs;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SessionSummary)) {
+            return false;
+        }
+        SessionSummary other = (SessionSummary) o;
+        return prediction == other.prediction
+                && Objects.equals(id, other.id)
+                && Objects.equals(timestamp, other.timestamp)
+                && Objects.equals(durationMs, other.durationMs);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, timestamp, prediction, durationMs);
+    }
+}
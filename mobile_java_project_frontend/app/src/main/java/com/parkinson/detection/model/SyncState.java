@@ -0,0 +1,17 @@
+package com.parkinson.detection.model;
+
+/**
+ * Upload state of a locally stored session, persisted with the session row.
+ *
+ * PENDING -> IN_FLIGHT -> SYNCED, or back to PENDING with a backoff delay after a
+ * transient error, or FAILED once the server rejects the session or retries run out.
+ */
+public final class SyncState {
+    public static final int PENDING = 0;
+    public static final int IN_FLIGHT = 1;
+    public static final int SYNCED = 2;
+    public static final int FAILED = 3;
+
+    private SyncState() {
+    }
+}
@@ -1,24 +1,29 @@
 package com.parkinson.detection.repository;
 
 import android.content.Context;
-import android.net.ConnectivityManager;
-import android.net.NetworkCapabilities;
-import android.os.AsyncTask;
+import android.content.SharedPreferences;
 import android.util.Log;
 
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
 
-import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.parkinson.detection.api.SessionApiService;
+import com.parkinson.detection.api.SessionChangesResponse;
 import com.parkinson.detection.db.AppDatabase;
 import com.parkinson.detection.db.SessionDao;
 import com.parkinson.detection.model.Session;
-import retrofit2.Call;
-import retrofit2.Callback;
+import com.parkinson.detection.model.SessionStats;
+import com.parkinson.detection.model.SessionSummary;
+import com.parkinson.detection.model.SyncState;
 import retrofit2.Response;
 
 /**
@@ -26,17 +31,25 @@ import retrofit2.Response;
  */
 public class SessionRepository {
     private static final String TAG = "SessionRepository";
+    private static final String PREF_NAME = "session_sync";
+    private static final String CHANGES_CURSOR = "changes_cursor";
+    private static final int CHANGES_PAGE_SIZE = 500;
+    private static final int LIST_PAGE_SIZE = 30;
+    
+    // Shared by every repository instance so overlapping refreshes never apply the same page twice
+    private static final AtomicBoolean refreshing = new AtomicBoolean();
     
     private final SessionDao sessionDao;
+    private final SharedPreferences syncPrefs;
     private final SessionApiService apiService;
-    private final Context context;
+    private final SessionSyncEngine syncEngine;
     private final Executor executor = Executors.newSingleThreadExecutor();
     
     public SessionRepository(Context context, SessionApiService apiService) {
-        this.context = context;
         this.apiService = apiService;
-        AppDatabase database = AppDatabase.getInstance(context);
-        this.sessionDao = database.sessionDao();
+        this.sessionDao = AppDatabase.getInstance(context).sessionDao();
+        this.syncPrefs = context.getApplicationContext().getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        this.syncEngine = SessionSyncEngine.getInstance(context, apiService);
     }
     
     /**
@@ -47,158 +60,134 @@ public class SessionRepository {
         
         // Save locally first (offline-first approach)
         executor.execute(() -> {
+            if (session.getClientId() == null) {
+                session.setClientId(UUID.randomUUID().toString());
+            }
+            session.setSyncState(SyncState.PENDING);
             long localId = sessionDao.insert(session);
             session.setId(localId);
             result.postValue(session);
             
-            // Try to sync if online
-            if (isNetworkAvailable()) {
-                syncSession(session);
-            }
+            // Upload it with anything else still pending
+            syncEngine.requestSync();
         });
         
         return result;
     }
     
     /**
-     * Get all sessions from local database
+     * Get the session count and latest recording time from local database
      */
-    public LiveData<List<Session>> getAllSessions() {
+    public LiveData<SessionStats> getSessionStats() {
         // Try to sync any unsynced sessions
         syncUnsyncedSessions();
         
         // Return local data
-        return sessionDao.getAllSessions();
+        return sessionDao.getSessionStats();
     }
     
     /**
-     * Get sessions filtered by prediction
+     * List rows of the local sessions, newest first, loaded from Room as the list scrolls
+     * 
+     * @param prediction Prediction to filter by, or null for all sessions
      */
-    public LiveData<List<Session>> getSessionsByPrediction(int prediction) {
+    public LiveData<PagingData<SessionSummary>> getSessionSummaries(Integer prediction) {
         // Try to sync any unsynced sessions
         syncUnsyncedSessions();
         
-        // Return local data
-        return sessionDao.getSessionsByPrediction(prediction);
+        Pager<Integer, SessionSummary> pager = new Pager<>(new PagingConfig(LIST_PAGE_SIZE), () ->
+                prediction == null
+                        ? sessionDao.getSessionSummaries()
+                        : sessionDao.getSessionSummariesByPrediction(prediction));
+        return PagingLiveData.getLiveData(pager);
     }
     
     /**
-     * Sync all unsynced sessions with the server
+     * Sync all unsynced sessions with the server. Calls made while a sync is running
+     * are coalesced into one follow-up pass.
      */
     public void syncUnsyncedSessions() {
-        if (!isNetworkAvailable()) {
-            return;
-        }
-        
-        AsyncTask.execute(() -> {
-            List<Session> unsyncedSessions = sessionDao.getUnsyncedSessions();
-            Log.d(TAG, "Found " + unsyncedSessions.size() + " unsynced sessions");
-            
-            for (Session session : unsyncedSessions) {
-                syncSession(session);
-            }
-        });
+        syncEngine.requestSync();
     }
     
     /**
-     * Sync a specific session with the server
+     * Forget the change feed position, so the next refresh pulls every session of the
+     * account that is signed in. The cursor belongs to one account: it is reset whenever
+     * the signed-in account may change, on logout and on login.
      */
-    private void syncSession(Session session) {
-        apiService.saveSession(session).enqueue(new Callback<Session>() {
-            @Override
-            public void onResponse(Call<Session> call, Response<Session> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    Session serverSession = response.body();
-                    executor.execute(() -> {
-                        // Update local session with server ID and mark as synced
-                        session.setId(serverSession.getId());
-                        session.setSynced(true);
-                        sessionDao.update(session);
-                        Log.d(TAG, "Session synced successfully with ID: " + serverSession.getId());
-                    });
-                } else {
-                    Log.e(TAG, "Failed to sync session: " + 
-                            (response.errorBody() != null ? response.errorBody().toString() : "Unknown error"));
-                }
-            }
-            
-            @Override
-            public void onFailure(Call<Session> call, Throwable t) {
-                Log.e(TAG, "Network error syncing session", t);
-            }
-        });
+    public static void resetChangesCursor(Context context) {
+        context.getApplicationContext().getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE)
+                .edit()
+                .remove(CHANGES_CURSOR)
+                .apply();
     }
     
     /**
-     * Fetch sessions from server and update local database
+     * Pull sessions changed on the server since the last refresh into the local database.
+     * Each page is applied in one transaction and its cursor saved only after it commits,
+     * so an interrupted refresh resumes where it stopped.
      */
     public void refreshSessionsFromServer() {
-        if (!isNetworkAvailable()) {
+        if (!syncEngine.isNetworkAvailable() || !refreshing.compareAndSet(false, true)) {
             return;
         }
         
-        apiService.getSessionHistory().enqueue(new Callback<List<Session>>() {
-            @Override
-            public void onResponse(Call<List<Session>> call, Response<List<Session>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    executor.execute(() -> {
-                        List<Session> serverSessions = response.body();
-                        for (Session session : serverSessions) {
-                            session.setSynced(true);
-                            sessionDao.insert(session);
-                        }
-                        Log.d(TAG, "Refreshed " + serverSessions.size() + " sessions from server");
-                    });
+        executor.execute(() -> {
+            try {
+                String cursor = syncPrefs.getString(CHANGES_CURSOR, null);
+                int applied = 0;
+                boolean hasMore = true;
+                while (hasMore) {
+                    Response<SessionChangesResponse> response =
+                            apiService.getSessionChanges(cursor, CHANGES_PAGE_SIZE).execute();
+                    SessionChangesResponse page = response.body();
+                    if (!response.isSuccessful() || page == null || page.getCursor() == null) {
+                        Log.w(TAG, "Session changes request failed: " + response.code());
+                        break;
+                    }
+                    if (page.getSessions() != null && !page.getSessions().isEmpty()) {
+                        sessionDao.applyServerChanges(page.getSessions());
+                        applied += page.getSessions().size();
+                    }
+                    cursor = page.getCursor();
+                    syncPrefs.edit().putString(CHANGES_CURSOR, cursor).apply();
+                    hasMore = page.isHasMore();
                 }
-            }
-            
-            @Override
-            public void onFailure(Call<List<Session>> call, Throwable t) {
-                Log.e(TAG, "Failed to refresh sessions from server", t);
+                Log.d(TAG, "Applied " + applied + " session changes from server");
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to refresh sessions from server", e);
+            } finally {
+                refreshing.set(false);
             }
         });
     }
     
     /**
-     * Get a specific session by ID
+     * Get a specific session by its local ID, refreshing its server score when it has one.
+     * Local IDs are never sent to the server: a session missing locally is not looked up
+     * there, since the same number may belong to a different session on the server.
      * 
-     * @param id The session ID
+     * @param id The local session ID
      * @return The session or null if not found
      */
     public Session getSessionById(long id) {
-        // Try to get from local database first
         Session localSession = sessionDao.getSessionById(id);
+        if (localSession == null || localSession.getServerId() == null || !syncEngine.isNetworkAvailable()) {
+            return localSession;
+        }
         
-        // If we have a network connection, try to get the latest from server
-        if (isNetworkAvailable()) {
-            try {
-                Response<Session> response = apiService.getSessionById(id).execute();
-                if (response.isSuccessful() && response.body() != null) {
-                    Session serverSession = response.body();
-                    serverSession.setSynced(true);
-                    sessionDao.insert(serverSession);
-                    return serverSession;
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Error fetching session from server", e);
+        try {
+            // The server may have re-scored the session; everything else is local
+            long serverId = localSession.getServerId();
+            Response<Session> response = apiService.getSessionById(serverId).execute();
+            if (response.isSuccessful() && response.body() != null) {
+                int prediction = response.body().getPrediction();
+                sessionDao.mergeServerCopy(localSession.getId(), serverId, prediction);
+                localSession.setPrediction(prediction);
             }
+        } catch (Exception e) {
+            Log.e(TAG, "Error fetching session from server", e);
         }
-        
         return localSession;
     }
-    
-    /**
-     * Check if network is available
-     */
-    private boolean isNetworkAvailable() {
-        ConnectivityManager cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
-        if (cm == null) {
-            return false;
-        }
-        
-        NetworkCapabilities capabilities = cm.getNetworkCapabilities(cm.getActiveNetwork());
-        return capabilities != null && 
-                (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_WIFI) || 
-                 capabilities.hasTransport(NetworkCapabilities.TRANSPORT_CELLULAR));
-    }
-} 
\ No newline at end of file
+}
\ No newline at end of file
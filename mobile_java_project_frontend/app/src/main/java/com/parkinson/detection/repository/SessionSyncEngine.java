@@ -0,0 +1,414 @@
+package com.parkinson.detection.repository;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.NetworkCapabilities;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import com.parkinson.detection.api.SessionApiService;
+import com.parkinson.detection.api.SessionBatchRequest;
+import com.parkinson.detection.api.SessionBatchResponse;
+import com.parkinson.detection.api.TraceUploadInit;
+import com.parkinson.detection.api.TraceUploadStatus;
+import com.parkinson.detection.db.AppDatabase;
+import com.parkinson.detection.db.SessionDao;
+import com.parkinson.detection.db.TraceStore;
+import com.parkinson.detection.model.Session;
+import com.parkinson.detection.model.SyncState;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import retrofit2.Response;
+
+/**
+ * Uploads locally stored sessions, and then their raw traces, to the backend.
+ *
+ * One engine exists per process. Sync requests are single-flight: a request made while
+ * a pass is running only schedules one more pass after it. A pass marks due sessions
+ * in flight, groups them into batch uploads, and keeps at most MAX_IN_FLIGHT requests
+ * open at a time. Transient failures put the sessions back to pending with an
+ * exponential backoff and jitter; sessions the server rejects are marked failed. The
+ * state lives in the sessions table, so it survives process death.
+ */
+public class SessionSyncEngine {
+    private static final String TAG = "SessionSyncEngine";
+
+    private static final int BATCH_SIZE = 50;
+    private static final int MAX_IN_FLIGHT = 2;
+    private static final int MAX_ATTEMPTS = 10;
+    private static final long BASE_BACKOFF_MS = 5_000;
+    private static final long MAX_BACKOFF_MS = 30 * 60_000;
+
+    private static final int TRACE_CHUNK_BYTES = 256 * 1024;
+    // Offset re-syncs allowed in one trace upload before it is retried later with backoff
+    private static final int MAX_TRACE_RESYNCS = 3;
+    private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+
+    private static SessionSyncEngine instance;
+
+    private final Context context;
+    private final SessionDao sessionDao;
+    private final SessionApiService apiService;
+    private final TraceStore traceStore;
+
+    // Coordinates passes and retry wake-ups on one thread; uploads run on their own pool
+    private final ScheduledExecutorService coordinator = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService uploads = Executors.newFixedThreadPool(MAX_IN_FLIGHT);
+    private final Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+    private final Random random = new Random();
+
+    private boolean running;
+    private boolean rerunRequested;
+    private ScheduledFuture<?> wakeUp;
+
+    private SessionSyncEngine(Context context, SessionApiService apiService) {
+        this.context = context.getApplicationContext();
+        this.sessionDao = AppDatabase.getInstance(context).sessionDao();
+        this.apiService = apiService;
+        this.traceStore = new TraceStore(context);
+
+        // Anything still in flight was interrupted when the previous process died
+        coordinator.execute(() -> {
+            int reset = sessionDao.resetInFlight();
+            if (reset > 0) {
+                Log.d(TAG, "Returned " + reset + " interrupted sessions to pending");
+            }
+        });
+    }
+
+    public static synchronized SessionSyncEngine getInstance(Context context, SessionApiService apiService) {
+        if (instance == null) {
+            instance = new SessionSyncEngine(context, apiService);
+        }
+        return instance;
+    }
+
+    /**
+     * Start a sync pass, or schedule one more if a pass is already running
+     */
+    public void requestSync() {
+        synchronized (this) {
+            if (running) {
+                rerunRequested = true;
+                return;
+            }
+            running = true;
+        }
+        coordinator.execute(this::runPasses);
+    }
+
+    private void runPasses() {
+        do {
+            synchronized (this) {
+                rerunRequested = false;
+            }
+            if (isNetworkAvailable()) {
+                try {
+                    runPass();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "Sync pass failed", e);
+                }
+            }
+        } while (continueRunning());
+        scheduleWakeUp();
+    }
+
+    private synchronized boolean continueRunning() {
+        if (rerunRequested) {
+            return true;
+        }
+        running = false;
+        return false;
+    }
+
+    private void runPass() throws InterruptedException {
+        // Sessions first, batched; failed batches are rescheduled into the future so the loop ends
+        List<Session> batch;
+        while (!(batch = sessionDao.getSessionsDueForSync(System.currentTimeMillis(), BATCH_SIZE)).isEmpty()) {
+            List<Long> ids = new ArrayList<>(batch.size());
+            for (Session session : batch) {
+                ids.add(session.getId());
+            }
+            sessionDao.setSyncState(ids, SyncState.IN_FLIGHT);
+
+            List<Session> sessions = batch;
+            inFlight.acquire();
+            uploads.execute(() -> {
+                try {
+                    uploadBatch(sessions);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        awaitUploads();
+
+        // Then the raw traces of synced sessions, one trace per request slot
+        List<Session> traces;
+        while (!(traces = sessionDao.getTracesDueForUpload(System.currentTimeMillis(), MAX_IN_FLIGHT)).isEmpty()) {
+            for (Session session : traces) {
+                inFlight.acquire();
+                uploads.execute(() -> {
+                    try {
+                        uploadTrace(session);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            awaitUploads();
+        }
+    }
+
+    private void awaitUploads() throws InterruptedException {
+        inFlight.acquire(MAX_IN_FLIGHT);
+        inFlight.release(MAX_IN_FLIGHT);
+    }
+
+    private void uploadBatch(List<Session> sessions) {
+        Response<SessionBatchResponse> response;
+        try {
+            response = apiService.saveSessions(new SessionBatchRequest(sessions)).execute();
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Batch upload of " + sessions.size() + " sessions failed", e);
+            retryLater(sessions);
+            return;
+        }
+
+        if (!response.isSuccessful() || response.body() == null || response.body().getResults() == null) {
+            Log.w(TAG, "Batch upload rejected with HTTP " + response.code());
+            // A 409 here is two uploads of one session racing on its client UUID; the
+            // next attempt finds the stored row
+            if (isRetryable(response.code()) || response.code() == 409) {
+                retryLater(sessions);
+            } else {
+                markFailed(sessions);
+            }
+            return;
+        }
+
+        boolean[] answered = new boolean[sessions.size()];
+        for (SessionBatchResponse.ItemResult result : response.body().getResults()) {
+            Session session = sessions.get(result.getIndex());
+            answered[result.getIndex()] = true;
+            if (result.getId() != null) {
+                sessionDao.markSynced(session.getId(), result.getId());
+            } else {
+                Log.w(TAG, "Session " + session.getId() + " rejected: " + result.getError());
+                sessionDao.scheduleRetry(session.getId(), SyncState.FAILED, session.getSyncAttempts() + 1, 0);
+            }
+        }
+        for (int i = 0; i < answered.length; i++) {
+            if (!answered[i]) {
+                retryLater(sessions.get(i));
+            }
+        }
+        Log.d(TAG, "Synced batch: " + response.body().getSaved() + " saved, "
+                + response.body().getFailed() + " rejected");
+    }
+
+    /**
+     * Send a session's trace in chunks, resuming from the offset the server reports
+     */
+    private void uploadTrace(Session session) {
+        File file = traceStore.getFile(session.getTraceFile());
+        if (!file.isFile()) {
+            // Nothing left to send
+            sessionDao.markTraceUploaded(session.getId());
+            return;
+        }
+
+        try {
+            long total = file.length();
+            Long serverId = session.getServerId();
+            TraceUploadStatus status = expectBody(
+                    apiService.initTraceUpload(serverId, new TraceUploadInit(total, sha256(file))).execute());
+
+            byte[] chunk = new byte[TRACE_CHUNK_BYTES];
+            int resyncs = 0;
+            try (RandomAccessFile trace = new RandomAccessFile(file, "r")) {
+                long offset = status.getReceivedBytes();
+                while (!status.isCommitted() && offset < total) {
+                    int length = (int) Math.min(chunk.length, total - offset);
+                    trace.seek(offset);
+                    trace.readFully(chunk, 0, length);
+                    Response<TraceUploadStatus> response = apiService.appendTraceChunk(
+                            serverId, offset, RequestBody.create(OCTET_STREAM, chunk, 0, length)).execute();
+                    if (response.code() == 409) {
+                        if (++resyncs > MAX_TRACE_RESYNCS) {
+                            // Another upload of this trace keeps moving the offset, back off
+                            Log.w(TAG, "Trace of session " + session.getId() + " kept conflicting, retrying later");
+                            retryLater(session);
+                            return;
+                        }
+                        // Out of step with the server, ask where to continue
+                        status = expectBody(apiService.initTraceUpload(
+                                serverId, new TraceUploadInit(total, null)).execute());
+                    } else {
+                        status = expectBody(response);
+                    }
+                    offset = status.getReceivedBytes();
+                }
+            }
+            if (!status.isCommitted()) {
+                expectBody(apiService.commitTraceUpload(serverId).execute());
+            }
+            sessionDao.markTraceUploaded(session.getId());
+            Log.d(TAG, "Uploaded trace of session " + session.getId());
+        } catch (HttpFailure e) {
+            if (isRetryable(e.code)) {
+                retryLater(session);
+            } else {
+                // The server will not take this trace, stop trying
+                Log.w(TAG, "Trace of session " + session.getId() + " rejected with HTTP " + e.code);
+                sessionDao.markTraceUploaded(session.getId());
+            }
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Trace upload of session " + session.getId() + " failed", e);
+            retryLater(session);
+        }
+    }
+
+    private static <T> T expectBody(Response<T> response) throws HttpFailure {
+        if (!response.isSuccessful() || response.body() == null) {
+            throw new HttpFailure(response.code());
+        }
+        return response.body();
+    }
+
+    /**
+     * Timeouts, throttling, authentication and server errors may clear up on their own.
+     * A 409 from trace init or commit is a lasting conflict with what the server stores;
+     * chunk offset conflicts are resolved inside {@link #uploadTrace(Session)}, and batch
+     * upload conflicts are retried by {@link #uploadBatch(List)}.
+     */
+    private static boolean isRetryable(int code) {
+        return code == 401 || code == 408 || code == 429 || code >= 500;
+    }
+
+    private void retryLater(List<Session> sessions) {
+        for (Session session : sessions) {
+            retryLater(session);
+        }
+    }
+
+    private void retryLater(Session session) {
+        // A session that is already synced is only retrying its trace upload
+        boolean traceOnly = session.getSyncState() == SyncState.SYNCED;
+        int attempts = session.getSyncAttempts() + 1;
+        if (attempts >= MAX_ATTEMPTS) {
+            Log.w(TAG, "Giving up on " + (traceOnly ? "trace of " : "") + "session " + session.getId()
+                    + " after " + attempts + " attempts");
+            if (traceOnly) {
+                sessionDao.markTraceUploaded(session.getId());
+            } else {
+                sessionDao.scheduleRetry(session.getId(), SyncState.FAILED, attempts, 0);
+            }
+            return;
+        }
+        sessionDao.scheduleRetry(session.getId(), traceOnly ? SyncState.SYNCED : SyncState.PENDING, attempts,
+                System.currentTimeMillis() + backoffMillis(attempts));
+    }
+
+    private void markFailed(List<Session> sessions) {
+        for (Session session : sessions) {
+            sessionDao.scheduleRetry(session.getId(), SyncState.FAILED, session.getSyncAttempts() + 1, 0);
+        }
+    }
+
+    /**
+     * Exponential backoff with equal jitter: half the delay is fixed, half is random,
+     * so devices that lost the network together do not retry in lockstep
+     */
+    private long backoffMillis(int attempts) {
+        long ceiling = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(attempts - 1, 20));
+        long half = ceiling / 2;
+        synchronized (random) {
+            return half + (long) (random.nextDouble() * half);
+        }
+    }
+
+    /**
+     * Wake up for the earliest scheduled retry, if any
+     */
+    private void scheduleWakeUp() {
+        Long next = sessionDao.getNextSyncAt();
+        synchronized (this) {
+            if (wakeUp != null) {
+                wakeUp.cancel(false);
+                wakeUp = null;
+            }
+            if (next != null) {
+                long delay = Math.max(0, next - System.currentTimeMillis());
+                wakeUp = coordinator.schedule(this::requestSync, Math.max(delay, BASE_BACKOFF_MS),
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private static String sha256(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = new FileInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Check if network is available
+     */
+    public boolean isNetworkAvailable() {
+        ConnectivityManager cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (cm == null) {
+            return false;
+        }
+
+        NetworkCapabilities capabilities = cm.getNetworkCapabilities(cm.getActiveNetwork());
+        return capabilities != null &&
+                (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_WIFI) ||
+                 capabilities.hasTransport(NetworkCapabilities.TRANSPORT_CELLULAR));
+    }
+
+    /**
+     * Unsuccessful HTTP response
+     */
+    private static class HttpFailure extends IOException {
+        final int code;
+
+        HttpFailure(int code) {
+            super("HTTP " + code);
+            this.code = code;
+        }
+    }
+}
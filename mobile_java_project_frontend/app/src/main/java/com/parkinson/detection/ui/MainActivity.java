@@ -18,6 +18,7 @@ import com.parkinson.detection.ParkinsonDetectionApp;
 import com.parkinson.detection.R;
 import com.parkinson.detection.databinding.ActivityMainBinding;
 import com.parkinson.detection.api.ApiClient;
+import com.parkinson.detection.repository.SessionRepository;
 import com.parkinson.detection.ui.auth.LoginActivity;
 
 /**
@@ -101,6 +102,9 @@ public class MainActivity extends AppCompatActivity {
         // Clear auth token
         ApiClient.getInstance().clearAuthToken();
         
+        // The next account starts its change feed from the beginning
+        SessionRepository.resetChangesCursor(this);
+        
         // Navigate to login screen
         Intent intent = new Intent(this, LoginActivity.class);
         intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
@@ -14,6 +14,7 @@ import com.parkinson.detection.databinding.ActivityLoginBinding;
 import com.parkinson.detection.api.ApiClient;
 import com.parkinson.detection.network.models.AuthResponse;
 import com.parkinson.detection.network.models.LoginRequest;
+import com.parkinson.detection.repository.SessionRepository;
 import com.parkinson.detection.ui.MainActivity;
 
 import java.util.regex.Pattern;
@@ -107,6 +108,7 @@ public class LoginActivity extends AppCompatActivity {
                     
                     // Save token
                     ApiClient.getInstance().setAuthToken(authResponse.getToken());
+                    SessionRepository.resetChangesCursor(LoginActivity.this);
                     
                     // Navigate to main activity
                     navigateToMainActivity();
@@ -15,6 +15,7 @@ import com.parkinson.detection.databinding.ActivityRegisterBinding;
 import com.parkinson.detection.api.ApiClient;
 import com.parkinson.detection.network.models.AuthResponse;
 import com.parkinson.detection.network.models.RegisterRequest;
+import com.parkinson.detection.repository.SessionRepository;
 import com.parkinson.detection.ui.MainActivity;
 
 import org.json.JSONObject;
@@ -139,6 +140,7 @@ public class RegisterActivity extends AppCompatActivity {
                 if (response.isSuccessful() && response.body() != null) {
                     AuthResponse authResponse = response.body();
                     ApiClient.getInstance().setAuthToken(authResponse.getToken());
+                    SessionRepository.resetChangesCursor(RegisterActivity.this);
                     navigateToMainActivity();
                 } else {
                     try {
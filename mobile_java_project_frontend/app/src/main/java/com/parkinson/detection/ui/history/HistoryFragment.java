@@ -13,6 +13,9 @@ import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.NavController;
 import androidx.navigation.Navigation;
+import androidx.paging.LoadState;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
@@ -20,14 +23,13 @@ import com.google.android.material.tabs.TabLayout;
 import com.parkinson.detection.R;
 import com.parkinson.detection.api.ApiClient;
 import com.parkinson.detection.api.SessionApiService;
-import com.parkinson.detection.model.Session;
+import com.parkinson.detection.model.SessionSummary;
 
-import java.text.SimpleDateFormat;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Locale;
 
+import kotlin.Unit;
+
 public class HistoryFragment extends Fragment {
 
     private HistoryViewModel historyViewModel;
@@ -50,7 +52,7 @@ public class HistoryFragment extends Fragment {
         tabLayout = root.findViewById(R.id.tab_layout);
         
         // Create adapter
-        adapter = new SessionAdapter(new ArrayList<>(), this::navigateToSessionDetail);
+        adapter = new SessionAdapter(this::navigateToSessionDetail);
         recyclerView.setAdapter(adapter);
         
         // Initialize the ViewModel
@@ -105,24 +107,26 @@ public class HistoryFragment extends Fragment {
             }
         });
         
-        // Observe sessions data
-        historyViewModel.getSessions().observe(getViewLifecycleOwner(), sessions -> {
-            progressBar.setVisibility(View.GONE);
-            if (sessions.isEmpty()) {
-                emptyView.setVisibility(View.VISIBLE);
-                recyclerView.setVisibility(View.GONE);
-            } else {
-                emptyView.setVisibility(View.GONE);
-                recyclerView.setVisibility(View.VISIBLE);
-                adapter.updateSessions(sessions);
+        // Show the empty state once the first page has loaded with no rows
+        adapter.addLoadStateListener(loadStates -> {
+            if (loadStates.getRefresh() instanceof LoadState.NotLoading) {
+                progressBar.setVisibility(View.GONE);
+                boolean empty = adapter.getItemCount() == 0;
+                emptyView.setVisibility(empty ? View.VISIBLE : View.GONE);
+                recyclerView.setVisibility(empty ? View.GONE : View.VISIBLE);
             }
+            return Unit.INSTANCE;
         });
+        
+        // Observe sessions data; pages are diffed in the background and only changed rows rebind
+        historyViewModel.getSessions().observe(getViewLifecycleOwner(), pagingData ->
+                adapter.submitData(getViewLifecycleOwner().getLifecycle(), pagingData));
     }
     
     /**
      * Navigate to session detail
      */
-    private void navigateToSessionDetail(Session session) {
+    private void navigateToSessionDetail(SessionSummary session) {
         NavController navController = Navigation.findNavController(requireView());
         Bundle args = new Bundle();
         args.putLong("recordingId", session.getId());
@@ -130,16 +134,28 @@ public class HistoryFragment extends Fragment {
     }
     
     /**
-     * Adapter for the sessions list
+     * Adapter for the sessions list, fed page by page
      */
-    private static class SessionAdapter extends RecyclerView.Adapter<SessionAdapter.SessionViewHolder> {
+    private static class SessionAdapter extends PagingDataAdapter<SessionSummary, SessionAdapter.SessionViewHolder> {
+        
+        private static final DiffUtil.ItemCallback<SessionSummary> DIFF_CALLBACK =
+                new DiffUtil.ItemCallback<SessionSummary>() {
+                    @Override
+                    public boolean areItemsTheSame(@NonNull SessionSummary oldItem, @NonNull SessionSummary newItem) {
+                        return oldItem.getId().equals(newItem.getId());
+                    }
+                    
+                    @Override
+                    public boolean areContentsTheSame(@NonNull SessionSummary oldItem, @NonNull SessionSummary newItem) {
+                        return oldItem.equals(newItem);
+                    }
+                };
         
-        private List<Session> sessions;
         private final SessionClickListener clickListener;
         private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM d, yyyy - HH:mm", Locale.getDefault());
         
-        public SessionAdapter(List<Session> sessions, SessionClickListener clickListener) {
-            this.sessions = sessions;
+        public SessionAdapter(SessionClickListener clickListener) {
+            super(DIFF_CALLBACK);
             this.clickListener = clickListener;
         }
         
@@ -153,7 +169,14 @@ public class HistoryFragment extends Fragment {
         
         @Override
         public void onBindViewHolder(@NonNull SessionViewHolder holder, int position) {
-            Session session = sessions.get(position);
+            SessionSummary session = getItem(position);
+            if (session == null) {
+                // Placeholder for a row whose page is still loading
+                holder.textDate.setText("");
+                holder.textDuration.setText("--:--");
+                holder.itemView.setOnClickListener(null);
+                return;
+            }
             holder.textDate.setText(session.getTimestamp().format(formatter));
             
             // Format and display the duration
@@ -169,16 +192,6 @@ public class HistoryFragment extends Fragment {
             holder.itemView.setOnClickListener(v -> clickListener.onSessionClick(session));
         }
         
-        @Override
-        public int getItemCount() {
-            return sessions.size();
-        }
-        
-        public void updateSessions(List<Session> newSessions) {
-            this.sessions = newSessions;
-            notifyDataSetChanged();
-        }
-        
         /**
          * ViewHolder for sessions
          */
@@ -197,7 +210,7 @@ public class HistoryFragment extends Fragment {
          * Interface for session click events
          */
         interface SessionClickListener {
-            void onSessionClick(Session session);
+            void onSessionClick(SessionSummary session);
         }
     }
 } 
\ No newline at end of file
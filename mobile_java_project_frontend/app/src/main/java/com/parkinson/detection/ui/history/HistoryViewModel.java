@@ -7,11 +7,11 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Transformations;
-
-import java.util.List;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
 
 import com.parkinson.detection.api.SessionApiService;
-import com.parkinson.detection.model.Session;
+import com.parkinson.detection.model.SessionSummary;
 import com.parkinson.detection.repository.SessionRepository;
 
 /**
@@ -26,21 +26,16 @@ public class HistoryViewModel extends AndroidViewModel {
     private final MutableLiveData<Integer> currentFilter = new MutableLiveData<>(null);
     
     // Current sessions list, transformed based on filter
-    private final LiveData<List<Session>> sessions;
+    private final LiveData<PagingData<SessionSummary>> sessions;
     
     public HistoryViewModel(@NonNull Application application, SessionApiService apiService) {
         super(application);
         
         sessionRepository = new SessionRepository(application.getApplicationContext(), apiService);
         
-        // Transform sessions based on filter
-        sessions = Transformations.switchMap(currentFilter, filter -> {
-            if (filter == null) {
-                return sessionRepository.getAllSessions();
-            } else {
-                return sessionRepository.getSessionsByPrediction(filter);
-            }
-        });
+        // Transform sessions based on filter; cached so loaded pages survive configuration changes
+        sessions = PagingLiveData.cachedIn(
+                Transformations.switchMap(currentFilter, sessionRepository::getSessionSummaries), this);
         
         // Refresh data from server initially
         refreshSessions();
@@ -71,7 +66,7 @@ public class HistoryViewModel extends AndroidViewModel {
     /**
      * Get sessions LiveData
      */
-    public LiveData<List<Session>> getSessions() {
+    public LiveData<PagingData<SessionSummary>> getSessions() {
         return sessions;
     }
     
@@ -2,6 +2,7 @@ package com.parkinson.detection.ui.history;
 
 import android.graphics.Color;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -22,9 +23,12 @@ import com.github.mikephil.charting.formatter.ValueFormatter;
 import com.parkinson.detection.R;
 import com.parkinson.detection.api.ApiClient;
 import com.parkinson.detection.api.SessionApiService;
+import com.parkinson.detection.db.TraceStore;
+import com.parkinson.detection.ml.SensorTrace;
 import com.parkinson.detection.model.Session;
 import com.parkinson.detection.repository.SessionRepository;
 
+import java.io.IOException;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
@@ -32,6 +36,11 @@ import java.util.Locale;
 
 public class RecordingDetailFragment extends Fragment {
 
+    private static final String TAG = "RecordingDetailFragment";
+    
+    // Traces are decimated to this many points per axis before charting
+    private static final int MAX_CHART_POINTS = 500;
+
     private long recordingId;
     private TextView textDate;
     private TextView textResult;
@@ -40,6 +49,7 @@ public class RecordingDetailFragment extends Fragment {
     private LineChart accelerometerChart;
     private LineChart gyroscopeChart;
     private SessionRepository sessionRepository;
+    private TraceStore traceStore;
     private DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM d, yyyy - HH:mm", Locale.getDefault());
 
     @Override
@@ -53,6 +63,7 @@ public class RecordingDetailFragment extends Fragment {
         // Initialize repository
         SessionApiService apiService = ApiClient.getInstance().createService(SessionApiService.class);
         sessionRepository = new SessionRepository(requireContext(), apiService);
+        traceStore = new TraceStore(requireContext());
     }
 
     @Nullable
@@ -88,13 +99,29 @@ public class RecordingDetailFragment extends Fragment {
         Thread thread = new Thread(() -> {
             Session session = sessionRepository.getSessionById(recordingId);
             if (session != null) {
-                requireActivity().runOnUiThread(() -> displaySessionDetails(session));
+                SensorTrace trace = loadTrace(session);
+                requireActivity().runOnUiThread(() -> displaySessionDetails(session, trace));
             }
         });
         thread.start();
     }
     
-    private void displaySessionDetails(Session session) {
+    /**
+     * Decode the raw trace recorded with the session, if it is stored on this device
+     */
+    private SensorTrace loadTrace(Session session) {
+        if (!traceStore.exists(session.getTraceFile())) {
+            return null;
+        }
+        try {
+            return traceStore.read(session.getTraceFile());
+        } catch (IOException e) {
+            Log.e(TAG, "Error reading sensor trace " + session.getTraceFile(), e);
+            return null;
+        }
+    }
+    
+    private void displaySessionDetails(Session session, SensorTrace trace) {
         textDate.setText(session.getTimestamp().format(formatter));
         
         String resultText = session.getPrediction() == 0 ? 
@@ -122,9 +149,16 @@ public class RecordingDetailFragment extends Fragment {
         gyroBuilder.append("Z Std: ").append(formatDouble(session.getGyroZStd())).append("\n");
         textGyroscope.setText(gyroBuilder.toString());
         
-        // Populate charts with data
-        populateAccelerometerChart(session);
-        populateGyroscopeChart(session);
+        // Populate charts with the recorded trace when there is one
+        if (trace != null) {
+            populateTraceChart(accelerometerChart, trace.accelerometer(),
+                    R.color.accelerometer_x, R.color.accelerometer_y, R.color.accelerometer_z);
+            populateTraceChart(gyroscopeChart, trace.gyroscope(),
+                    R.color.gyroscope_x, R.color.gyroscope_y, R.color.gyroscope_z);
+        } else {
+            populateAccelerometerChart(session);
+            populateGyroscopeChart(session);
+        }
     }
     
     private void setupChart(LineChart chart, String label) {
@@ -154,6 +188,46 @@ public class RecordingDetailFragment extends Fragment {
         chart.getLegend().setEnabled(true);
     }
     
+    /**
+     * Plot one sensor of the raw trace against seconds since the first sample
+     */
+    private void populateTraceChart(LineChart chart, SensorTrace.Stream stream,
+                                    int colorX, int colorY, int colorZ) {
+        int size = stream.size();
+        if (size == 0) {
+            return;
+        }
+        int stride = (size + MAX_CHART_POINTS - 1) / MAX_CHART_POINTS;
+        long start = stream.timestampsNs[0];
+        
+        List<Entry> entriesX = new ArrayList<>();
+        List<Entry> entriesY = new ArrayList<>();
+        List<Entry> entriesZ = new ArrayList<>();
+        for (int i = 0; i < size; i += stride) {
+            float seconds = (stream.timestampsNs[i] - start) / 1e9f;
+            entriesX.add(new Entry(seconds, stream.x[i]));
+            entriesY.add(new Entry(seconds, stream.y[i]));
+            entriesZ.add(new Entry(seconds, stream.z[i]));
+        }
+        
+        LineData data = new LineData(
+                traceDataSet(entriesX, "X-axis", colorX),
+                traceDataSet(entriesY, "Y-axis", colorY),
+                traceDataSet(entriesZ, "Z-axis", colorZ));
+        chart.setData(data);
+        chart.invalidate();
+    }
+    
+    private LineDataSet traceDataSet(List<Entry> entries, String label, int colorRes) {
+        LineDataSet set = new LineDataSet(entries, label);
+        set.setColor(getResources().getColor(colorRes));
+        set.setLineWidth(1f);
+        set.setDrawCircles(false);
+        set.setDrawValues(false);
+        set.setMode(LineDataSet.Mode.LINEAR);
+        return set;
+    }
+    
     private void populateAccelerometerChart(Session session) {
         // Create sample data points (since we don't have actual time series data)
         // In a real app, you would use actual data points from session
@@ -14,7 +14,6 @@ import androidx.navigation.Navigation;
 import com.parkinson.detection.R;
 import com.parkinson.detection.api.ApiClient;
 import com.parkinson.detection.databinding.FragmentHomeBinding;
-import com.parkinson.detection.model.Session;
 import com.parkinson.detection.repository.SessionRepository;
 import com.parkinson.detection.api.SessionApiService;
 import com.parkinson.detection.ParkinsonDetectionApp;
@@ -23,7 +22,6 @@ import com.parkinson.detection.ui.MainActivity;
 import java.text.SimpleDateFormat;
 import java.time.ZoneId;
 import java.util.Date;
-import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -82,22 +80,16 @@ public class HomeFragment extends Fragment {
     }
     
     private void loadSessionStats() {
-        // Observe sessions data to get count and latest recording date
-        sessionRepository.getAllSessions().observe(getViewLifecycleOwner(), sessions -> {
+        // Observe the count and latest recording date, computed in SQL
+        sessionRepository.getSessionStats().observe(getViewLifecycleOwner(), stats -> {
             // Update total recordings count
-            binding.tvRecordingsCount.setText(String.valueOf(sessions.size()));
+            binding.tvRecordingsCount.setText(String.valueOf(stats.getCount()));
             
             // Update last recording date
-            if (sessions != null && !sessions.isEmpty()) {
-                // Sessions are already ordered by timestamp desc, so first one is the latest
-                Session latestSession = sessions.get(0);
-                if (latestSession.getTimestamp() != null) {
-                    // Convert LocalDateTime to Date before formatting
-                    Date date = Date.from(latestSession.getTimestamp().atZone(ZoneId.systemDefault()).toInstant());
-                    binding.tvLastRecordingDate.setText(dateFormat.format(date));
-                } else {
-                    binding.tvLastRecordingDate.setText("Never");
-                }
+            if (stats.getLastTimestamp() != null) {
+                // Convert LocalDateTime to Date before formatting
+                Date date = Date.from(stats.getLastTimestamp().atZone(ZoneId.systemDefault()).toInstant());
+                binding.tvLastRecordingDate.setText(dateFormat.format(date));
             } else {
                 binding.tvLastRecordingDate.setText("Never");
             }
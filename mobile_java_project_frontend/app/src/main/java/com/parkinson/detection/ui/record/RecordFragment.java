@@ -33,6 +33,7 @@ public class RecordFragment extends Fragment {
     private ProgressBar progressBar;
     private TextView statusText;
     private TextView recordingTimeText;
+    private TextView liveScoreText;
     
     // Sensor data TextViews
     private TextView accelerometerX;
@@ -86,6 +87,7 @@ public class RecordFragment extends Fragment {
         progressBar = view.findViewById(R.id.progress_bar);
         statusText = view.findViewById(R.id.status_text);
         recordingTimeText = view.findViewById(R.id.tv_recording_time);
+        liveScoreText = view.findViewById(R.id.tv_live_score);
         
         // Initialize sensor data views
         accelerometerX = view.findViewById(R.id.tv_accelerometer_x);
@@ -160,6 +162,17 @@ public class RecordFragment extends Fragment {
             }
         });
         
+        // Observe live window scores
+        viewModel.getLiveScore().observe(getViewLifecycleOwner(), score -> {
+            if (score != null) {
+                liveScoreText.setText(getString(R.string.live_score,
+                        Math.round(score.meanProbability * 100)));
+                liveScoreText.setVisibility(View.VISIBLE);
+            } else {
+                liveScoreText.setVisibility(View.GONE);
+            }
+        });
+        
         // Observe session result
         viewModel.getSessionResult().observe(getViewLifecycleOwner(), this::navigateToResult);
         
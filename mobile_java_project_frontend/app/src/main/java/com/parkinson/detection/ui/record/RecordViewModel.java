@@ -13,15 +13,28 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.parkinson.detection.api.SessionApiService;
+import com.parkinson.detection.db.TraceStore;
 import com.parkinson.detection.ml.FeatureExtractor;
 import com.parkinson.detection.ml.ParkinsonDetectionModel;
+import com.parkinson.detection.ml.SlidingWindowExtractor;
 import com.parkinson.detection.model.Session;
 import com.parkinson.detection.repository.SessionRepository;
 
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import static android.content.Context.SENSOR_SERVICE;
 
 /**
  * ViewModel for the recording screen
+ *
+ * Sensor events arrive on the main looper, so they only feed the extractors and the
+ * trace there. Completed sliding windows are scored on a single background thread
+ * and published as the live score. The live score is feedback while recording; the
+ * saved verdict comes from the whole-recording features at stop. Window FFT peaks are
+ * scaled to the whole-recording extractor's frame count, so a steady recording scores
+ * alike both ways.
  */
 public class RecordViewModel extends AndroidViewModel implements SensorEventListener {
     private static final String TAG = "RecordViewModel";
@@ -46,6 +59,19 @@ public class RecordViewModel extends AndroidViewModel implements SensorEventList
         }
     }
     
+    // Live score of one sliding window
+    public static class WindowScore {
+        public final long windowIndex;
+        public final float probability;
+        public final float meanProbability; // Average over the windows scored so far
+        
+        public WindowScore(long windowIndex, float probability, float meanProbability) {
+            this.windowIndex = windowIndex;
+            this.probability = probability;
+            this.meanProbability = meanProbability;
+        }
+    }
+    
     // Sensor related
     private final SensorManager sensorManager;
     private final Sensor accelerometer;
@@ -67,6 +93,21 @@ public class RecordViewModel extends AndroidViewModel implements SensorEventList
     private final FeatureExtractor featureExtractor = new FeatureExtractor();
     private ParkinsonDetectionModel model;
     
+    // Live scoring on overlapping windows while recording
+    private final SlidingWindowExtractor windowExtractor =
+            new SlidingWindowExtractor(this::scoreWindow);
+    private final ExecutorService scoringExecutor = Executors.newSingleThreadExecutor();
+    // Bumped for every recording so windows queued by the previous one are dropped
+    private volatile int scoringGeneration = 0;
+    // Only touched on the scoring thread
+    private int scoredGeneration = -1;
+    private double windowProbabilitySum = 0;
+    private int scoredWindows = 0;
+    
+    // Raw samples streamed to disk while recording
+    private final TraceStore traceStore;
+    private TraceStore.Recording traceRecording;
+    
     // Repository for saving data
     private final SessionRepository sessionRepository;
     
@@ -76,6 +117,7 @@ public class RecordViewModel extends AndroidViewModel implements SensorEventList
     private final MutableLiveData<Session> sessionResult = new MutableLiveData<>();
     private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
     private final MutableLiveData<SensorData> sensorData = new MutableLiveData<>();
+    private final MutableLiveData<WindowScore> liveScore = new MutableLiveData<>();
     
     // Counter for UI updates (to avoid updating UI too frequently)
     private int dataPointCounter = 0;
@@ -96,6 +138,8 @@ public class RecordViewModel extends AndroidViewModel implements SensorEventList
             errorMessage.setValue("Error initializing model: " + e.getMessage());
         }
         
+        traceStore = new TraceStore(application);
+        
         // Initialize repository
         sessionRepository = new SessionRepository(application.getApplicationContext(), apiService);
     }
@@ -110,8 +154,12 @@ public class RecordViewModel extends AndroidViewModel implements SensorEventList
         
         // Clear previous data
         featureExtractor.clear();
+        windowExtractor.clear();
+        scoringGeneration++;
+        liveScore.setValue(null);
         dataPointCounter = 0;
         dataPointsCollected.setValue(0);
+        startTrace();
         
         // Set recording start time
         recordingStartTime = System.currentTimeMillis();
@@ -123,6 +171,8 @@ public class RecordViewModel extends AndroidViewModel implements SensorEventList
                 this, gyroscope, SensorManager.SENSOR_DELAY_GAME);
         
         if (!accelSuccess || !gyroSuccess) {
+            sensorManager.unregisterListener(this);
+            traceStore.delete(finishTrace());
             errorMessage.setValue("Failed to start sensors. Please try again.");
             return;
         }
@@ -148,17 +198,22 @@ public class RecordViewModel extends AndroidViewModel implements SensorEventList
         isRecording = false;
         recordingStatus.setValue(false);
         Log.d(TAG, "Recording stopped");
+        String traceFile = finishTrace();
         
         // Process data and run inference with duration
-        processData(recordingDuration);
+        processData(recordingDuration, traceFile);
     }
     
     /**
      * Process collected sensor data, extract features, and run model inference
+     * 
+     * The verdict uses the whole-recording features rather than the live window scores,
+     * see the class comment.
      */
-    private void processData(long durationMs) {
+    private void processData(long durationMs, String traceFile) {
         // Check if we have enough data
         if (!featureExtractor.hasEnoughData()) {
+            traceStore.delete(traceFile);
             errorMessage.setValue("Not enough data collected. Please record for longer.");
             return;
         }
@@ -166,6 +221,7 @@ public class RecordViewModel extends AndroidViewModel implements SensorEventList
         try {
             // Check if model is null
             if (model == null) {
+                traceStore.delete(traceFile);
                 errorMessage.setValue("Model not initialized. Please restart the app.");
                 return;
             }
@@ -182,6 +238,7 @@ public class RecordViewModel extends AndroidViewModel implements SensorEventList
             session.setPrediction(prediction);
             session.setSynced(false);
             session.setDurationMs(durationMs);
+            session.setTraceFile(traceFile);
             
             // Save session
             sessionRepository.saveSession(session).observeForever(savedSession -> {
@@ -193,6 +250,7 @@ public class RecordViewModel extends AndroidViewModel implements SensorEventList
             
         } catch (Exception e) {
             Log.e(TAG, "Error processing data", e);
+            traceStore.delete(traceFile);
             errorMessage.setValue("Error processing data: " + e.getMessage());
         }
     }
@@ -208,7 +266,11 @@ public class RecordViewModel extends AndroidViewModel implements SensorEventList
         
         // Add data to feature extractor
         if (event.sensor.getType() == Sensor.TYPE_ACCELEROMETER) {
-            featureExtractor.addAccelerometerData(event);
+            featureExtractor.addAccelerometerData(
+                    event.timestamp, event.values[0], event.values[1], event.values[2]);
+            windowExtractor.addAccelerometerData(
+                    event.timestamp, event.values[0], event.values[1], event.values[2]);
+            traceSample(true, event);
             
             // Store values for UI updates
             lastAccelX = event.values[0];
@@ -224,7 +286,11 @@ public class RecordViewModel extends AndroidViewModel implements SensorEventList
             }
             
         } else if (event.sensor.getType() == Sensor.TYPE_GYROSCOPE) {
-            featureExtractor.addGyroscopeData(event);
+            featureExtractor.addGyroscopeData(
+                    event.timestamp, event.values[0], event.values[1], event.values[2]);
+            windowExtractor.addGyroscopeData(
+                    event.timestamp, event.values[0], event.values[1], event.values[2]);
+            traceSample(false, event);
             
             // Store values for UI updates
             lastGyroX = event.values[0];
@@ -233,6 +299,99 @@ public class RecordViewModel extends AndroidViewModel implements SensorEventList
         }
     }
     
+    /**
+     * Open a new trace file; recording carries on without a trace if this fails
+     */
+    private void startTrace() {
+        try {
+            traceRecording = traceStore.startRecording();
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot start sensor trace", e);
+            traceRecording = null;
+        }
+    }
+    
+    /**
+     * Append one raw sample to the trace
+     */
+    private void traceSample(boolean accelerometerEvent, SensorEvent event) {
+        if (traceRecording == null) {
+            return;
+        }
+        try {
+            if (accelerometerEvent) {
+                traceRecording.getWriter().addAccelerometer(
+                        event.timestamp, event.values[0], event.values[1], event.values[2]);
+            } else {
+                traceRecording.getWriter().addGyroscope(
+                        event.timestamp, event.values[0], event.values[1], event.values[2]);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Error writing sensor trace, dropping it", e);
+            traceStore.delete(finishTrace());
+        }
+    }
+    
+    /**
+     * Close the current trace
+     * 
+     * @return File name of the finished trace, or null if there is none
+     */
+    private String finishTrace() {
+        if (traceRecording == null) {
+            return null;
+        }
+        String fileName = traceRecording.getFileName();
+        try {
+            traceRecording.getWriter().close();
+        } catch (IOException e) {
+            Log.e(TAG, "Error closing sensor trace", e);
+            traceStore.delete(fileName);
+            fileName = null;
+        }
+        traceRecording = null;
+        return fileName;
+    }
+    
+    /**
+     * Hand a completed sliding window to the scoring thread
+     */
+    private void scoreWindow(long windowIndex, float[] features) {
+        ParkinsonDetectionModel scoringModel = model;
+        if (scoringModel == null) {
+            return;
+        }
+        // The extractor reuses its array for the next window
+        float[] windowFeatures = features.clone();
+        int generation = scoringGeneration;
+        scoringExecutor.execute(() -> scoreWindow(scoringModel, generation, windowIndex, windowFeatures));
+    }
+    
+    /**
+     * Run the model on one window and publish its score; runs on the scoring thread
+     */
+    private void scoreWindow(ParkinsonDetectionModel scoringModel, int generation,
+                             long windowIndex, float[] features) {
+        if (generation != scoringGeneration) {
+            return;
+        }
+        if (generation != scoredGeneration) {
+            scoredGeneration = generation;
+            windowProbabilitySum = 0;
+            scoredWindows = 0;
+        }
+        try {
+            float probability = scoringModel.predictProbability(features);
+            windowProbabilitySum += probability;
+            scoredWindows++;
+            // Dropped and failed windows are not part of the mean
+            float meanProbability = (float) (windowProbabilitySum / scoredWindows);
+            liveScore.postValue(new WindowScore(windowIndex, probability, meanProbability));
+        } catch (Exception e) {
+            Log.e(TAG, "Error scoring window " + windowIndex, e);
+        }
+    }
+    
     /**
      * Update sensor data in the UI
      */
@@ -256,10 +415,17 @@ public class RecordViewModel extends AndroidViewModel implements SensorEventList
         super.onCleared();
         if (isRecording) {
             sensorManager.unregisterListener(this);
+            traceStore.delete(finishTrace());
         }
+        scoringGeneration++;
         if (model != null) {
-            model.close();
+            // Release this view model's reference after any window still being scored;
+            // the shared interpreters stay open for other holders
+            ParkinsonDetectionModel closing = model;
+            model = null;
+            scoringExecutor.execute(closing::close);
         }
+        scoringExecutor.shutdown();
     }
     
     // Getters for LiveData
@@ -283,6 +449,10 @@ public class RecordViewModel extends AndroidViewModel implements SensorEventList
     public LiveData<SensorData> getSensorData() {
         return sensorData;
     }
+    
+    public LiveData<WindowScore> getLiveScore() {
+        return liveScore;
+    }
 
     /**
      * Update the current recording duration (called from RecordFragment)
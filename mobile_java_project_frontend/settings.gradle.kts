@@ -22,4 +22,6 @@ dependencyResolutionManagement {
 
 rootProject.name = "mobile_java_project_frontend"
 include(":app")
+include(":ml-core")
+project(":ml-core").projectDir = file("../mobile_java_ml_core")
  
\ No newline at end of file